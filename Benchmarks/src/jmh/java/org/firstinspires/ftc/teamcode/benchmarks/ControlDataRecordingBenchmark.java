@@ -0,0 +1,90 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.recording.RecordingFormat;
+import org.firstinspires.ftc.teamcode.recording.StreamingRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-loop cost of recording one control sample: the old ArrayList of ControlData objects versus
+ * the StreamingRecorder ring buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ControlDataRecordingBenchmark {
+    /** Copy of the object ControlRecorder used to keep per sample. */
+    static class ControlData {
+        long timestamp;
+        double frontLeftPower, frontRightPower, backLeftPower, backRightPower;
+        double armPower, chainPower, armRotatorPower, dropperPower;
+
+        ControlData(long timestamp, double fl, double fr, double bl, double br,
+                    double armP, double chainP, double armRotatorP, double dropperP) {
+            this.timestamp = timestamp;
+            frontLeftPower = fl;
+            frontRightPower = fr;
+            backLeftPower = bl;
+            backRightPower = br;
+            armPower = armP;
+            chainPower = chainP;
+            armRotatorPower = armRotatorP;
+            dropperPower = dropperP;
+        }
+    }
+
+    private final float[] sample = new float[RecordingFormat.CONTROL_CHANNELS.length];
+    private List<ControlData> controlDataList;
+    private StreamingRecorder recorder;
+    private File file;
+    private long timestamp;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = i * 0.1f;
+        }
+        controlDataList = new ArrayList<>();
+        file = File.createTempFile("ControlDataRecordingBenchmark", ".bin");
+        recorder = new StreamingRecorder(file, RecordingFormat.CONTROL_CHANNELS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        recorder.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public int arrayList() {
+        controlDataList.add(new ControlData(timestamp++,
+                sample[0], sample[1], sample[2], sample[3], sample[4], sample[5], sample[6], sample[7]));
+        return controlDataList.size();
+    }
+
+    /**
+     * Sustained rate: when the writer thread falls behind, wait for it rather than dropping, so the
+     * figure includes the cost of actually getting the data to disk.
+     */
+    @Benchmark
+    public long streamingRecorder() {
+        long t = timestamp++;
+        while (!recorder.record(t, sample)) {
+            Thread.yield();
+        }
+        return t;
+    }
+}
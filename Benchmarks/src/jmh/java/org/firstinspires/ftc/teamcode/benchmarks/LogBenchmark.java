@@ -0,0 +1,127 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.robotcontroller.internal.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One ControlRecorderY.logInputs() row (ten values plus update()) with the asynchronous Log,
+ * compared against the previous synchronous implementation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LogBenchmark {
+    private static final int QUEUE_DEPTH = 4096;
+
+    /** The previous Log: string concatenation, insert(0, ...), write and flush on every row. */
+    static class LegacyLog {
+        private final FileWriter fileWriter;
+        private final StringBuilder stringBuilder = new StringBuilder();
+        private final long startTime = System.nanoTime();
+
+        LegacyLog(File file) throws IOException {
+            fileWriter = new FileWriter(file, false);
+        }
+
+        void addData(String key, double value) {
+            addData(key + ": " + value);
+        }
+
+        void addData(String key, long value) {
+            addData(key + ": " + value);
+        }
+
+        void addData(String data) {
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append(", ");
+            }
+            stringBuilder.append(data);
+        }
+
+        void update() throws IOException {
+            double elapsedTimeInSeconds = (System.nanoTime() - startTime) / 1E9;
+            stringBuilder.insert(0, "Elapsed Time: " + elapsedTimeInSeconds + ", ");
+            fileWriter.write(stringBuilder.toString() + "\n");
+            fileWriter.flush();
+            stringBuilder.setLength(0);
+        }
+
+        void close() throws IOException {
+            fileWriter.close();
+        }
+    }
+
+    private File logFile;
+    private File legacyFile;
+    private Log log;
+    private LegacyLog legacyLog;
+    private long timestamp;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        logFile = File.createTempFile("LogBenchmark", ".csv");
+        legacyFile = File.createTempFile("LogBenchmarkLegacy", ".csv");
+        log = new Log(logFile, true, QUEUE_DEPTH, 10);
+        log.registerColumns("Timestamp", "FL", "FR", "BL", "BR", "Arm", "Chain", "Rotator", "Dropper", "Arm Position");
+        legacyLog = new LegacyLog(legacyFile);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        log.close();
+        legacyLog.close();
+        logFile.delete();
+        legacyFile.delete();
+    }
+
+    @Benchmark
+    public long asyncLog() {
+        // Wait for the flusher instead of dropping rows, so the figure is a sustainable rate
+        while (log.getPendingRowCount() >= QUEUE_DEPTH - 1) {
+            Thread.yield();
+        }
+        long t = timestamp++;
+        log.addData("Timestamp", t);
+        log.addData("FL", 0.5);
+        log.addData("FR", -0.5);
+        log.addData("BL", 0.25);
+        log.addData("BR", -0.25);
+        log.addData("Arm", 0.1);
+        log.addData("Chain", 0.0);
+        log.addData("Rotator", 0.65);
+        log.addData("Dropper", -0.75);
+        log.addData("Arm Position", (int) (t & 127));
+        log.update();
+        return t;
+    }
+
+    @Benchmark
+    public long legacyLog() throws IOException {
+        long t = timestamp++;
+        legacyLog.addData("Timestamp", t);
+        legacyLog.addData("FL", 0.5);
+        legacyLog.addData("FR", -0.5);
+        legacyLog.addData("BL", 0.25);
+        legacyLog.addData("BR", -0.25);
+        legacyLog.addData("Arm", 0.1);
+        legacyLog.addData("Chain", 0.0);
+        legacyLog.addData("Rotator", 0.65);
+        legacyLog.addData("Dropper", -0.75);
+        legacyLog.addData("Arm Position", t & 127);
+        legacyLog.update();
+        return t;
+    }
+}
@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of instrumenting a loop: one histogram sample, and one profiler phase mark. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoopProfilerBenchmark {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LoopProfiler profiler = new LoopProfiler();
+    private long value;
+
+    @Benchmark
+    public LatencyHistogram histogramRecord() {
+        histogram.record((value += 7919) & 0xFFFFFF);
+        return histogram;
+    }
+
+    @Benchmark
+    public LoopProfiler profilerMark() {
+        profiler.endPhase(LoopProfiler.Phase.COMPUTE);
+        return profiler;
+    }
+}
@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.control.DriverInput;
+import org.firstinspires.ftc.teamcode.control.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.control.TeleopController;
+import org.firstinspires.ftc.teamcode.sim.SimulatedRobot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Cost of the mecanum power computation and of one full TeleOp control update. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MecanumBenchmark {
+    private static final int INPUTS = 1024;
+
+    private final double[] sticks = new double[INPUTS * 3];
+    private final double[] wheelPowers = new double[4];
+    private final DriverInput input = new DriverInput();
+    private TeleopController teleop;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < sticks.length; i++) {
+            sticks[i] = random.nextDouble() * 2 - 1;
+        }
+        teleop = new TeleopController(new SimulatedRobot().getIO());
+    }
+
+    @Benchmark
+    public double[] wheelPowers() {
+        int i = (index++ & (INPUTS - 1)) * 3;
+        MecanumKinematics.wheelPowers(sticks[i], sticks[i + 1], sticks[i + 2], wheelPowers);
+        return wheelPowers;
+    }
+
+    @Benchmark
+    public DriverInput teleopUpdate() {
+        int i = (index++ & (INPUTS - 1)) * 3;
+        input.driveY = sticks[i];
+        input.driveX = sticks[i + 1];
+        input.turn = sticks[i + 2];
+        input.armUp = Math.max(0, sticks[i]);
+        input.armDown = Math.max(0, -sticks[i]);
+        teleop.update(input);
+        return input;
+    }
+}
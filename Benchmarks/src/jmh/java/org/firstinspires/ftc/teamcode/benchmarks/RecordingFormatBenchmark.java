@@ -0,0 +1,104 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.recording.RecordingFormat;
+import org.firstinspires.ftc.teamcode.recording.RecordingReader;
+import org.firstinspires.ftc.teamcode.recording.RecordingWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record cost of saving and parsing control data: the CSV lines ControlRecorder and
+ * AutonomousFromLog used to produce and parse, versus the binary record format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecordingFormatBenchmark {
+    private static final int RECORDS = 4096;
+    private static final int CHANNELS = RecordingFormat.CONTROL_CHANNELS.length;
+
+    private final float[] values = new float[RECORDS * CHANNELS];
+    private final String[] lines = new String[RECORDS];
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocateDirect(RecordingFormat.recordSize(CHANNELS))
+            .order(RecordingFormat.BYTE_ORDER);
+    private File binaryFile;
+    private RecordingReader reader;
+    private int index;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round((random.nextFloat() * 2 - 1) * 100) / 100f;
+        }
+        binaryFile = File.createTempFile("RecordingFormatBenchmark", ".bin");
+        try (RecordingWriter writer = new RecordingWriter(binaryFile, RecordingFormat.CONTROL_CHANNELS)) {
+            for (int i = 0; i < RECORDS; i++) {
+                lines[i] = csvLine(1_700_000_000_000L + i * 20L, i * CHANNELS);
+                writer.write(1_700_000_000_000L + i * 20L, values, i * CHANNELS);
+            }
+        }
+        reader = new RecordingReader(binaryFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        binaryFile.delete();
+    }
+
+    private String csvLine(long timestamp, int base) {
+        return String.format("%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                timestamp, values[base], values[base + 1], values[base + 2], values[base + 3],
+                values[base + 4], values[base + 5], values[base + 6], values[base + 7]);
+    }
+
+    @Benchmark
+    public String csvSave() {
+        int i = index++ & (RECORDS - 1);
+        return csvLine(1_700_000_000_000L + i * 20L, i * CHANNELS);
+    }
+
+    @Benchmark
+    public double csvParse() {
+        String[] tokens = lines[index++ & (RECORDS - 1)].trim().split(",");
+        double sum = Long.parseLong(tokens[0]);
+        for (int c = 1; c <= CHANNELS; c++) {
+            sum += Double.parseDouble(tokens[c]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ByteBuffer binarySave() {
+        int i = index++ & (RECORDS - 1);
+        encodeBuffer.clear();
+        encodeBuffer.putLong(1_700_000_000_000L + i * 20L);
+        for (int c = 0; c < CHANNELS; c++) {
+            encodeBuffer.putFloat(values[i * CHANNELS + c]);
+        }
+        return encodeBuffer;
+    }
+
+    @Benchmark
+    public double binaryParse() {
+        int i = index++ & (RECORDS - 1);
+        double sum = reader.getTimestamp(i);
+        for (int c = 0; c < CHANNELS; c++) {
+            sum += reader.getValue(i, c);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,167 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.recording.ChannelType;
+import org.firstinspires.ftc.teamcode.recording.ColumnarReader;
+import org.firstinspires.ftc.teamcode.recording.ColumnarWriter;
+import org.firstinspires.ftc.teamcode.recording.RecordingFormat;
+import org.firstinspires.ftc.teamcode.recording.RecordingReader;
+import org.firstinspires.ftc.teamcode.recording.RecordingSchema;
+import org.firstinspires.ftc.teamcode.recording.RecordingWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Whole-file comparison of the CSV, binary and columnar recording formats: file size and the time
+ * to write and read back a recording, where the JMH {@code RecordingFormatBenchmark} measures single
+ * records.
+ *
+ * <pre>
+ * ./gradlew -Pbenchmarks :Benchmarks:recordingBenchmark -PrecordingArgs="100000"
+ * java ...RecordingBenchmark [records]
+ * </pre>
+ *
+ * The CSV path reproduces what ControlRecorder and AutonomousFromLog used to do per sample
+ * ({@code String.format} to write, {@code split}/{@code parseDouble} to read).
+ */
+public final class RecordingBenchmark {
+    private static final int ROUNDS = 10;
+
+    private RecordingBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int channelCount = RecordingFormat.CONTROL_CHANNELS.length;
+
+        File dir = new File(System.getProperty("java.io.tmpdir"));
+        File csv = new File(dir, "RecordingBenchmark.txt");
+        File bin = new File(dir, "RecordingBenchmark.bin");
+        File col = new File(dir, "RecordingBenchmark.col");
+        RecordingSchema schema = new RecordingSchema();
+        schema.addAll(RecordingFormat.CONTROL_CHANNELS, ChannelType.POWER);
+
+        Random random = new Random(42);
+        long[] timestamps = new long[records];
+        float[] values = new float[records * channelCount];
+        for (int i = 0; i < records; i++) {
+            timestamps[i] = 1_700_000_000_000L + i * 20L;
+            for (int c = 0; c < channelCount; c++) {
+                values[i * channelCount + c] = Math.round((random.nextFloat() * 2 - 1) * 100) / 100f;
+            }
+        }
+
+        double sink = 0;
+        long csvWrite = Long.MAX_VALUE, binWrite = Long.MAX_VALUE;
+        long csvRead = Long.MAX_VALUE, binRead = Long.MAX_VALUE;
+        long colWrite = Long.MAX_VALUE, colRead = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            writeCsv(csv, timestamps, values, channelCount);
+            csvWrite = Math.min(csvWrite, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (RecordingWriter writer = new RecordingWriter(bin, RecordingFormat.CONTROL_CHANNELS)) {
+                for (int i = 0; i < records; i++) {
+                    writer.write(timestamps[i], values, i * channelCount);
+                }
+            }
+            binWrite = Math.min(binWrite, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (ColumnarWriter writer = new ColumnarWriter(col, schema)) {
+                for (int i = 0; i < records; i++) {
+                    writer.write(timestamps[i], values, i * channelCount);
+                }
+            }
+            colWrite = Math.min(colWrite, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            sink += readCsv(csv, channelCount);
+            csvRead = Math.min(csvRead, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            sink += readBinary(bin);
+            binRead = Math.min(binRead, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            sink += readColumnar(col);
+            colRead = Math.min(colRead, System.nanoTime() - start);
+        }
+
+        System.out.printf("records          %d (best of %d rounds)%n", records, ROUNDS);
+        System.out.printf("csv    size %9d B  write %8.2f ms  read %8.2f ms  (%.0f ns/record)%n",
+                csv.length(), csvWrite / 1e6, csvRead / 1e6, (double) csvRead / records);
+        System.out.printf("binary size %9d B  write %8.2f ms  read %8.2f ms  (%.0f ns/record)%n",
+                bin.length(), binWrite / 1e6, binRead / 1e6, (double) binRead / records);
+        // Uniformly random powers are the worst case for the columnar format; recorded driving compresses far better
+        System.out.printf("column size %9d B  write %8.2f ms  read %8.2f ms  (%.0f ns/record)%n",
+                col.length(), colWrite / 1e6, colRead / 1e6, (double) colRead / records);
+        System.out.printf("checksum %.3f%n", sink);
+
+        csv.delete();
+        bin.delete();
+        col.delete();
+    }
+
+    private static void writeCsv(File file, long[] timestamps, float[] values, int channelCount) throws IOException {
+        try (FileWriter writer = new FileWriter(file, false)) {
+            for (int i = 0; i < timestamps.length; i++) {
+                int base = i * channelCount;
+                writer.write(String.format("%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                        timestamps[i], values[base], values[base + 1], values[base + 2], values[base + 3],
+                        values[base + 4], values[base + 5], values[base + 6], values[base + 7]));
+            }
+        }
+    }
+
+    private static double readCsv(File file, int channelCount) throws IOException {
+        double sum = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = line.split(",");
+                sum += Long.parseLong(tokens[0]) & 1;
+                for (int c = 1; c <= channelCount; c++) {
+                    sum += Double.parseDouble(tokens[c]);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static double readBinary(File file) throws IOException {
+        double sum = 0;
+        try (RecordingReader reader = new RecordingReader(file)) {
+            int channelCount = reader.getChannelCount();
+            for (int i = 0; i < reader.getRecordCount(); i++) {
+                sum += reader.getTimestamp(i) & 1;
+                for (int c = 0; c < channelCount; c++) {
+                    sum += reader.getValue(i, c);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static double readColumnar(File file) throws IOException {
+        double sum = 0;
+        try (ColumnarReader reader = new ColumnarReader(file)) {
+            for (long timestamp : reader.readTimestamps()) {
+                sum += timestamp & 1;
+            }
+            float[] column = new float[reader.getSampleCount()];
+            for (int c = 0; c < reader.getChannelCount(); c++) {
+                reader.readChannel(c, column);
+                for (float value : column) {
+                    sum += value;
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,142 @@
+package org.firstinspires.ftc.teamcode.benchmarks.sim;
+
+import org.firstinspires.ftc.teamcode.control.ActionScheduler;
+import org.firstinspires.ftc.teamcode.control.ActionSequence;
+import org.firstinspires.ftc.teamcode.control.DriverInput;
+import org.firstinspires.ftc.teamcode.control.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.control.ProfiledDrive;
+import org.firstinspires.ftc.teamcode.control.ProfiledMotorMove;
+import org.firstinspires.ftc.teamcode.control.ProfiledTurn;
+import org.firstinspires.ftc.teamcode.control.TeleopController;
+import org.firstinspires.ftc.teamcode.control.Trajectory;
+import org.firstinspires.ftc.teamcode.control.TrajectoryFollower;
+import org.firstinspires.ftc.teamcode.hardware.HeadingSource;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.replay.ReplayScheduler;
+import org.firstinspires.ftc.teamcode.replay.SampleBuffer;
+import org.firstinspires.ftc.teamcode.sim.SimulatedRobot;
+
+/**
+ * Headless regression run of the TeleOp and replay logic on {@link SimulatedRobot}.
+ *
+ * <pre>
+ * ./gradlew -Pbenchmarks :Benchmarks:simulation -PsimulationArgs="200000 10"
+ * java ...SimulationRunner [loops] [loopMillis]
+ * </pre>
+ *
+ * Drives a scripted TeleOp session while recording actuator powers, replays the recording from
+ * the same start pose, open-loop and then through the {@link TrajectoryFollower}, and prints the
+ * loop rate achieved and how far each replayed end pose is from the TeleOp one. Odometry runs
+ * alongside the TeleOp session (encoders only, no simulated IMU) and its estimate is printed next
+ * to the true end pose. Finally a drive / turn / drive path runs as profiled actions with the arm
+ * moving at the same time, and its duration and end pose are printed.
+ */
+public final class SimulationRunner {
+    private SimulationRunner() {
+    }
+
+    public static void main(String[] args) {
+        int loops = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long loopNanos = (args.length > 1 ? Long.parseLong(args[1]) : 10) * 1_000_000L;
+
+        SimulatedRobot robot = new SimulatedRobot();
+        RobotIO io = robot.getIO();
+        TeleopController teleop = new TeleopController(io, robot.getClock());
+        DriverInput input = new DriverInput();
+        SampleBuffer recording = new SampleBuffer(Trajectory.CHANNEL_COUNT, loops);
+        float[] sample = new float[Trajectory.CHANNEL_COUNT];
+        MecanumOdometry odometry = new MecanumOdometry(io, null, robot.getClock());
+
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            script(input, robot.getClock().nanoTime() / 1e9);
+            teleop.update(input);
+            io.readPowers(sample);
+            sample[Trajectory.TICKS_CHANNEL] = io.frontLeft.getCurrentPosition();
+            sample[Trajectory.TICKS_CHANNEL + 1] = io.frontRight.getCurrentPosition();
+            sample[Trajectory.TICKS_CHANNEL + 2] = io.backLeft.getCurrentPosition();
+            sample[Trajectory.TICKS_CHANNEL + 3] = io.backRight.getCurrentPosition();
+            sample[Trajectory.HEADING_CHANNEL] = (float) robot.getHeading();
+            recording.add(robot.getClock().nanoTime(), sample);
+            robot.step(loopNanos);
+            odometry.update();
+        }
+        long teleopWall = System.nanoTime() - wallStart;
+        double teleopX = robot.getX(), teleopY = robot.getY(), teleopHeading = robot.getHeading();
+
+        robot.reset();
+        ReplayScheduler replay = new ReplayScheduler(recording, io::applyPowers, robot.getClock(),
+                ReplayScheduler.Mode.SKIP);
+        wallStart = System.nanoTime();
+        replay.start();
+        int replayLoops = 0;
+        while (replay.step()) {
+            robot.step(loopNanos);
+            replayLoops++;
+        }
+        robot.step(loopNanos);
+        long replayWall = System.nanoTime() - wallStart;
+        double replayX = robot.getX(), replayY = robot.getY(), replayHeading = robot.getHeading();
+
+        robot.reset();
+        Trajectory trajectory = Trajectory.fromSource(recording);
+        TrajectoryFollower follower = new TrajectoryFollower(trajectory, io, robot::getHeading, robot.getClock());
+        wallStart = System.nanoTime();
+        follower.start();
+        int followLoops = 0;
+        while (follower.update()) {
+            robot.step(loopNanos);
+            followLoops++;
+        }
+        long followWall = System.nanoTime() - wallStart;
+        double followX = robot.getX(), followY = robot.getY(), followHeading = robot.getHeading();
+
+        robot.reset();
+        HeadingSource heading = robot::getHeading;
+        ActionScheduler actions = new ActionScheduler(robot.getClock());
+        actions.schedule(new ActionSequence()
+                .then(new ProfiledDrive(io, heading, 1.5, 0))
+                .then(new ProfiledTurn(io, heading, Math.PI / 2))
+                .then(new ProfiledDrive(io, heading, -1.0, Math.PI / 2)));
+        actions.schedule(new ProfiledMotorMove(io.frontArm, 300, 400));
+        long pathStart = robot.getClock().nanoTime();
+        while (actions.getRunningCount() > 0) {
+            actions.update();
+            robot.step(loopNanos);
+        }
+        double pathSeconds = (robot.getClock().nanoTime() - pathStart) / 1e9;
+
+        System.out.printf("teleop  %d loops in %.1f ms  (%.0f loops/s)%n",
+                loops, teleopWall / 1e6, loops / (teleopWall / 1e9));
+        System.out.printf("replay  %d loops in %.1f ms  (%.0f loops/s), %d applied, %d skipped, max lateness %.2f ms%n",
+                replayLoops, replayWall / 1e6, replayLoops / (replayWall / 1e9),
+                replay.getAppliedCount(), replay.getSkippedCount(), replay.getMaxLatenessNanos() / 1e6);
+        System.out.printf("follow  %d loops in %.1f ms  (%.0f loops/s), max wheel error %.0f ticks%n",
+                followLoops, followWall / 1e6, followLoops / (followWall / 1e9), follower.getMaxPositionError());
+        System.out.printf("teleop end pose  x %.3f m  y %.3f m  heading %.1f deg%n",
+                teleopX, teleopY, Math.toDegrees(teleopHeading));
+        System.out.printf("odometry estimate x %.3f m  y %.3f m  heading %.1f deg%n",
+                odometry.getPose().x, odometry.getPose().y, Math.toDegrees(odometry.getPose().heading));
+        System.out.printf("replay end pose  x %.3f m  y %.3f m  heading %.1f deg%n",
+                replayX, replayY, Math.toDegrees(replayHeading));
+        System.out.printf("follow end pose  x %.3f m  y %.3f m  heading %.1f deg%n",
+                followX, followY, Math.toDegrees(followHeading));
+        System.out.printf("profiled path %.2f s, end pose  x %.3f m  y %.3f m  heading %.1f deg (target 1.5, -1.0, 90)%n",
+                pathSeconds, robot.getX(), robot.getY(), Math.toDegrees(robot.getHeading()));
+    }
+
+    /** A repeatable driving pattern exercising every control. */
+    private static void script(DriverInput input, double t) {
+        input.driveY = 0.8 * Math.sin(t * 0.5);
+        input.driveX = 0.5 * Math.sin(t * 0.3 + 1);
+        input.turn = 0.3 * Math.sin(t * 0.2);
+        input.armUp = Math.max(0, Math.sin(t));
+        input.armDown = Math.max(0, -Math.sin(t));
+        input.chainForward = Math.max(0, Math.cos(t * 0.7));
+        input.chainReverse = Math.max(0, -Math.cos(t * 0.7));
+        input.armRotator = Math.sin(t * 1.3);
+        input.dropperForward = (int) t % 10 == 3;
+        input.dropperReverse = (int) t % 10 == 7;
+        input.dropperCycle = (int) t % 15 == 11;
+    }
+}
@@ -0,0 +1,76 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+import org.firstinspires.ftc.teamcode.vision.AdaptiveDetectionController;
+
+import java.util.Arrays;
+
+/**
+ * Runs a {@link QuadCandidateProcessor} under the {@link AdaptiveDetectionController} used on the
+ * robot, the way AdaptiveAprilTagProcessor does: decimation is set from the previous frame's
+ * detections and, while tracking, the frame is blanked outside the predicted region of interest.
+ * Frames are copied before blanking so runs stay repeatable.
+ */
+public class AdaptiveFrameProcessor implements FrameProcessor {
+    private final QuadCandidateProcessor delegate;
+    private AdaptiveDetectionController controller;
+    private byte[] scratch;
+    private int width, height;
+
+    public AdaptiveFrameProcessor(QuadCandidateProcessor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String describe() {
+        return "adaptive";
+    }
+
+    @Override
+    public void init(int width, int height) {
+        this.width = width;
+        this.height = height;
+        controller = new AdaptiveDetectionController(width, height);
+        scratch = new byte[width * height];
+        delegate.init(width, height);
+        delegate.setDecimation(controller.getDecimation());
+    }
+
+    @Override
+    public void process(Frame frame, Detections out) {
+        long start = System.nanoTime();
+        Frame input = frame;
+        if (controller.hasRoi()) {
+            System.arraycopy(frame.gray, 0, scratch, 0, scratch.length);
+            blankOutsideRoi();
+            input = new Frame(frame.name, width, height, scratch, frame.captureNanos);
+        }
+        delegate.process(input, out);
+        for (int i = 0; i < out.stored(); i++) {
+            controller.addDetection(out.minX(i), out.minY(i), out.maxX(i), out.maxY(i));
+        }
+        long end = System.nanoTime();
+        // Offline there is no capture pipeline, so latency is measured from the start of processing
+        controller.endFrame(start, start, end);
+        delegate.setDecimation(controller.getDecimation());
+    }
+
+    private void blankOutsideRoi() {
+        int top = controller.getRoiY();
+        int bottom = top + controller.getRoiHeight();
+        int left = controller.getRoiX();
+        int right = left + controller.getRoiWidth();
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            if (y < top || y >= bottom) {
+                Arrays.fill(scratch, row, row + width, (byte) 0);
+            } else {
+                Arrays.fill(scratch, row, row + left, (byte) 0);
+                Arrays.fill(scratch, row + right, row + width, (byte) 0);
+            }
+        }
+    }
+
+    public AdaptiveDetectionController getController() {
+        return controller;
+    }
+}
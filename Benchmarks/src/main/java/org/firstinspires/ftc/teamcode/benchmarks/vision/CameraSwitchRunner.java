@@ -0,0 +1,86 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.firstinspires.ftc.teamcode.sim.SimulatedCamera;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.firstinspires.ftc.teamcode.vision.CameraSwitcher;
+
+import java.util.Random;
+
+/**
+ * Headless comparison of switching between two webcams with {@link CameraSwitcher} (both streams
+ * kept running) against restarting one stream per switch, as {@code setActiveCamera} does.
+ *
+ * <pre>
+ * ./gradlew -Pbenchmarks :Benchmarks:cameraSwitchBenchmark -PcameraSwitchArgs="500 30 600"
+ * java ...CameraSwitchRunner [switches] [fps] [restartMillis]
+ * </pre>
+ *
+ * Switches are requested at random times and the latency until the new camera's first processed
+ * frame is printed for both. The restart delay is a model parameter; measure it on the robot.
+ */
+public final class CameraSwitchRunner {
+    private static final long SWITCH_INTERVAL_NANOS = 700_000_000L;
+
+    private CameraSwitchRunner() {
+    }
+
+    public static void main(String[] args) {
+        int switches = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        double fps = args.length > 1 ? Double.parseDouble(args[1]) : 30;
+        long restartNanos = (args.length > 2 ? Long.parseLong(args[2]) : 600) * 1_000_000L;
+
+        CameraSwitcher warm = run(switches, fps, restartNanos, false);
+        CameraSwitcher restart = run(switches, fps, restartNanos, true);
+
+        StringBuilder line = new StringBuilder(64);
+        System.out.printf("%d switches between two %.0f fps cameras, stream restart modeled as %d ms%n",
+                switches, fps, restartNanos / 1_000_000);
+        line.append("kept streaming  p50/p99/max ");
+        System.out.println(LoopProfiler.formatSummary(warm.getSwitchLatency(), line));
+        line.setLength(0);
+        line.append("stream restart  p50/p99/max ");
+        System.out.println(LoopProfiler.formatSummary(restart.getSwitchLatency(), line));
+        System.out.printf("frames processed  kept streaming %d, stream restart %d%n",
+                warm.getProcessedFrames(0) + warm.getProcessedFrames(1),
+                restart.getProcessedFrames(0) + restart.getProcessedFrames(1));
+    }
+
+    /**
+     * Runs {@code switches} switches. With {@code restartStream} only the active camera streams and
+     * every switch starts the other one from scratch.
+     */
+    static CameraSwitcher run(int switches, double fps, long restartNanos, boolean restartStream) {
+        SimClock clock = new SimClock();
+        CameraSwitcher switcher = new CameraSwitcher(2, clock);
+        SimulatedCamera[] cameras = { new SimulatedCamera(fps, restartNanos), new SimulatedCamera(fps, restartNanos) };
+        Random random = new Random(1);
+        // Independent streams, so their frames are not aligned
+        cameras[0].startWarm(random.nextInt((int) cameras[0].getFramePeriodNanos()));
+        if (!restartStream) {
+            cameras[1].startWarm(random.nextInt((int) cameras[1].getFramePeriodNanos()));
+        }
+
+        long nextSwitchNanos = SWITCH_INTERVAL_NANOS;
+        int switched = 0;
+        while (switched < switches || switcher.isSwitching()) {
+            int camera = cameras[0].nextFrameNanos() <= cameras[1].nextFrameNanos() ? 0 : 1;
+            long frameNanos = cameras[camera].nextFrameNanos();
+            if (switched < switches && nextSwitchNanos <= frameNanos) {
+                clock.set(nextSwitchNanos);
+                int target = 1 - switcher.getActive();
+                if (restartStream) {
+                    cameras[1 - target].stop();
+                    cameras[target].start(nextSwitchNanos);
+                }
+                switcher.switchTo(target);
+                switched++;
+                nextSwitchNanos += SWITCH_INTERVAL_NANOS / 2 + random.nextInt((int) SWITCH_INTERVAL_NANOS);
+                continue;
+            }
+            clock.set(cameras[camera].takeFrame());
+            switcher.shouldProcess(camera);
+        }
+        return switcher;
+    }
+}
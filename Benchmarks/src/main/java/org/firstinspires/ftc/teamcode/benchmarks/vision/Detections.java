@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+/** Reusable list of detection bounding boxes in full-frame pixels, filled by a {@link FrameProcessor}. */
+public final class Detections {
+    private static final int CAPACITY = 64;
+
+    private final double[] boxes = new double[CAPACITY * 4];
+    private int count;
+
+    public void clear() {
+        count = 0;
+    }
+
+    /** Adds a box; detections beyond the capacity are counted but not stored. */
+    public void add(double minX, double minY, double maxX, double maxY) {
+        if (count < CAPACITY) {
+            int base = count * 4;
+            boxes[base] = minX;
+            boxes[base + 1] = minY;
+            boxes[base + 2] = maxX;
+            boxes[base + 3] = maxY;
+        }
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int stored() {
+        return Math.min(count, CAPACITY);
+    }
+
+    public double minX(int i) {
+        return boxes[i * 4];
+    }
+
+    public double minY(int i) {
+        return boxes[i * 4 + 1];
+    }
+
+    public double maxX(int i) {
+        return boxes[i * 4 + 2];
+    }
+
+    public double maxY(int i) {
+        return boxes[i * 4 + 3];
+    }
+}
@@ -0,0 +1,19 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+/** One captured camera frame as 8-bit luminance, the input every AprilTag pipeline starts from. */
+public final class Frame {
+    public final String name;
+    public final int width, height;
+    /** Row-major luminance, {@code width * height} bytes. */
+    public final byte[] gray;
+    /** Nominal capture time, nanoseconds from the first frame. */
+    public final long captureNanos;
+
+    public Frame(String name, int width, int height, byte[] gray, long captureNanos) {
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.gray = gray;
+        this.captureNanos = captureNanos;
+    }
+}
@@ -0,0 +1,134 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Loads captured frames (the PNGs written by UtilityCameraFrameCapture / VisionPortal.saveNextFrameRaw,
+ * or any JPEG/PNG) into memory as luminance, optionally scaled to another resolution, so the timed
+ * runs never touch the disk.
+ */
+public final class FrameLoader {
+    /** Frames are assumed to have been captured at 30 fps for the nominal capture times. */
+    public static final long FRAME_INTERVAL_NANOS = 33_333_333L;
+
+    private FrameLoader() {
+    }
+
+    /**
+     * Loads every image in {@code dir}, in file name order.
+     *
+     * @param width  target width, or 0 to keep each image's size
+     * @param height target height, or 0 to keep each image's size
+     */
+    public static List<Frame> load(File dir, int width, int height) throws IOException {
+        File[] files = dir.listFiles((d, name) -> {
+            String lower = name.toLowerCase(Locale.US);
+            return lower.endsWith(".png") || lower.endsWith(".jpg") || lower.endsWith(".jpeg");
+        });
+        if (files == null || files.length == 0) {
+            throw new IOException("No images in " + dir);
+        }
+        Arrays.sort(files);
+        List<Frame> frames = new ArrayList<>(files.length);
+        for (File file : files) {
+            BufferedImage image = ImageIO.read(file);
+            if (image == null) {
+                throw new IOException("Unreadable image: " + file);
+            }
+            frames.add(toFrame(file.getName(), image, width, height, frames.size() * FRAME_INTERVAL_NANOS));
+        }
+        return frames;
+    }
+
+    /**
+     * Generates frames of a tag-like target (black square border around a random 6x6 pattern)
+     * approaching the camera from across the field while drifting sideways, over a noisy
+     * cluttered background. Useful for comparing settings when no captures are at hand.
+     */
+    public static List<Frame> synthetic(int count, int width, int height, long seed) {
+        Random random = new Random(seed);
+        boolean[] pattern = new boolean[36];
+        for (int i = 0; i < pattern.length; i++) {
+            pattern[i] = random.nextBoolean();
+        }
+        List<Frame> frames = new ArrayList<>(count);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int f = 0; f < count; f++) {
+            Graphics2D g = image.createGraphics();
+            g.setColor(new Color(150, 150, 150));
+            g.fillRect(0, 0, width, height);
+            Random clutter = new Random(seed + 1);
+            for (int i = 0; i < 40; i++) {
+                int shade = clutter.nextInt(256);
+                g.setColor(new Color(shade, shade, shade));
+                g.fillOval(clutter.nextInt(width), clutter.nextInt(height), 5 + clutter.nextInt(40), 5 + clutter.nextInt(40));
+            }
+            double progress = count > 1 ? (double) f / (count - 1) : 0;
+            int size = (int) (width * (0.02 + 0.3 * progress * progress));
+            int x = (int) (width * (0.2 + 0.4 * progress)) - size / 2;
+            int y = height / 2 - size / 2;
+            drawTag(g, pattern, x, y, size);
+            g.dispose();
+            frames.add(toFrame(String.format(Locale.US, "synthetic-%06d", f), image, 0, 0, f * FRAME_INTERVAL_NANOS));
+        }
+        for (Frame frame : frames) {
+            byte[] gray = frame.gray;
+            for (int i = 0; i < gray.length; i++) {
+                int v = (gray[i] & 0xff) + random.nextInt(5) - 2;
+                gray[i] = (byte) Math.max(0, Math.min(255, v));
+            }
+        }
+        return frames;
+    }
+
+    private static void drawTag(Graphics2D g, boolean[] pattern, int x, int y, int size) {
+        // White quiet zone, black border, 6x6 data cells: 10 cells across in total
+        double cell = size / 10.0;
+        g.setColor(Color.WHITE);
+        g.fillRect(x, y, size, size);
+        g.setColor(Color.BLACK);
+        g.fillRect((int) (x + cell), (int) (y + cell), (int) (cell * 8), (int) (cell * 8));
+        g.setColor(Color.WHITE);
+        for (int row = 0; row < 6; row++) {
+            for (int col = 0; col < 6; col++) {
+                if (pattern[row * 6 + col]) {
+                    g.fillRect((int) (x + cell * (2 + col)), (int) (y + cell * (2 + row)),
+                            (int) Math.ceil(cell), (int) Math.ceil(cell));
+                }
+            }
+        }
+    }
+
+    private static Frame toFrame(String name, BufferedImage image, int width, int height, long captureNanos) {
+        int w = width > 0 ? width : image.getWidth();
+        int h = height > 0 ? height : image.getHeight();
+        BufferedImage scaled = image;
+        if (w != image.getWidth() || h != image.getHeight()) {
+            scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, w, h, null);
+            g.dispose();
+        }
+        int[] rgb = scaled.getRGB(0, 0, w, h, null, 0, w);
+        byte[] gray = new byte[w * h];
+        for (int i = 0; i < rgb.length; i++) {
+            int p = rgb[i];
+            // Rec. 601 luma, as OpenCV's RGB2GRAY
+            gray[i] = (byte) ((((p >> 16) & 0xff) * 299 + ((p >> 8) & 0xff) * 587 + (p & 0xff) * 114) / 1000);
+        }
+        return new Frame(name, w, h, gray, captureNanos);
+    }
+}
@@ -0,0 +1,17 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+/**
+ * A vision pipeline the harness can time. Implementations wrap whatever detector runs on a desktop
+ * JVM; the SDK's AprilTagProcessor and TfodProcessor need Android and the robot controller's native
+ * libraries, so they are represented here by equivalents with the same tuning knobs.
+ */
+public interface FrameProcessor {
+    /** Short description including the settings, for the report. */
+    String describe();
+
+    /** Called before the first frame of a run and whenever the frame size changes. */
+    void init(int width, int height);
+
+    /** Processes one frame, adding what it found to {@code out} (already cleared). */
+    void process(Frame frame, Detections out);
+}
@@ -0,0 +1,264 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+/**
+ * Pure-Java re-implementation of the front half of the AprilTag detector, which is where its time
+ * goes and what decimation and resolution change: decimation by block averaging, adaptive
+ * thresholding over 4x4 tiles with a 3x3 tile neighbourhood, union-find segmentation of dark
+ * regions, and a filter for square-ish regions large enough to be a tag border and with light
+ * cells inside it (which rules out solid dark blobs). In place of the detector's quad fitting,
+ * a region must run along most of each side of its bounding box; FTC tags are mounted upright and
+ * the camera does not roll, so tags appear close to axis-aligned. Every surviving
+ * region is reported as a detection. It does not decode tag ids, so on real captures the counts
+ * include other dark squares; what it is for is comparing the cost of settings on the same frames.
+ */
+public class QuadCandidateProcessor implements FrameProcessor {
+    private static final int TILE = 4;
+    private static final int MIN_WHITE_BLACK_DIFF = 5;
+    private static final int MIN_CLUSTER_PIXELS = 24;
+    private static final int MIN_SIDE = 6;
+
+    private int decimation;
+    private int width, height;
+
+    private byte[] decimated;
+    private byte[] thresholded;
+    private int[] tileMin, tileMax, tileMinBlurred, tileMaxBlurred;
+    private int[] parent;
+    private int[] count, minX, minY, maxX, maxY;
+
+    public QuadCandidateProcessor(int decimation) {
+        this.decimation = decimation;
+    }
+
+    /** Takes effect from the next frame. */
+    public void setDecimation(int decimation) {
+        this.decimation = decimation;
+    }
+
+    public int getDecimation() {
+        return decimation;
+    }
+
+    @Override
+    public String describe() {
+        return "quads/d" + decimation;
+    }
+
+    @Override
+    public void init(int width, int height) {
+        this.width = width;
+        this.height = height;
+        // Sized for decimation 1 so decimation can change between frames without reallocating
+        int pixels = width * height;
+        decimated = new byte[pixels];
+        thresholded = new byte[pixels];
+        int tiles = (width / TILE + 1) * (height / TILE + 1);
+        tileMin = new int[tiles];
+        tileMax = new int[tiles];
+        tileMinBlurred = new int[tiles];
+        tileMaxBlurred = new int[tiles];
+        parent = new int[pixels];
+        count = new int[pixels];
+        minX = new int[pixels];
+        minY = new int[pixels];
+        maxX = new int[pixels];
+        maxY = new int[pixels];
+    }
+
+    @Override
+    public void process(Frame frame, Detections out) {
+        int d = Math.max(1, decimation);
+        int w = width / d;
+        int h = height / d;
+        decimate(frame.gray, d, w, h);
+        threshold(w, h);
+        segment(w, h);
+        collect(w, h, d, out);
+    }
+
+    private void decimate(byte[] source, int d, int w, int h) {
+        if (d == 1) {
+            System.arraycopy(source, 0, decimated, 0, w * h);
+            return;
+        }
+        int area = d * d;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int sum = 0;
+                for (int dy = 0; dy < d; dy++) {
+                    int row = (y * d + dy) * width + x * d;
+                    for (int dx = 0; dx < d; dx++) {
+                        sum += source[row + dx] & 0xff;
+                    }
+                }
+                decimated[y * w + x] = (byte) (sum / area);
+            }
+        }
+    }
+
+    private void threshold(int w, int h) {
+        int tilesX = w / TILE;
+        int tilesY = h / TILE;
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int lo = 255, hi = 0;
+                for (int y = 0; y < TILE; y++) {
+                    int row = (ty * TILE + y) * w + tx * TILE;
+                    for (int x = 0; x < TILE; x++) {
+                        int v = decimated[row + x] & 0xff;
+                        lo = Math.min(lo, v);
+                        hi = Math.max(hi, v);
+                    }
+                }
+                tileMin[ty * tilesX + tx] = lo;
+                tileMax[ty * tilesX + tx] = hi;
+            }
+        }
+        // Widen each tile's range to its 3x3 neighbourhood so edges on tile borders are not lost
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int lo = 255, hi = 0;
+                for (int ny = Math.max(0, ty - 1); ny <= Math.min(tilesY - 1, ty + 1); ny++) {
+                    for (int nx = Math.max(0, tx - 1); nx <= Math.min(tilesX - 1, tx + 1); nx++) {
+                        lo = Math.min(lo, tileMin[ny * tilesX + nx]);
+                        hi = Math.max(hi, tileMax[ny * tilesX + nx]);
+                    }
+                }
+                tileMinBlurred[ty * tilesX + tx] = lo;
+                tileMaxBlurred[ty * tilesX + tx] = hi;
+            }
+        }
+        for (int y = 0; y < h; y++) {
+            int ty = Math.min(tilesY - 1, y / TILE);
+            for (int x = 0; x < w; x++) {
+                int tx = Math.min(tilesX - 1, x / TILE);
+                int tile = ty * tilesX + tx;
+                int lo = tileMinBlurred[tile], hi = tileMaxBlurred[tile];
+                int i = y * w + x;
+                if (tilesX == 0 || tilesY == 0 || hi - lo < MIN_WHITE_BLACK_DIFF) {
+                    thresholded[i] = (byte) 127;
+                } else {
+                    thresholded[i] = (decimated[i] & 0xff) > (lo + hi) / 2 ? (byte) 255 : 0;
+                }
+            }
+        }
+    }
+
+    private void segment(int w, int h) {
+        for (int i = 0; i < w * h; i++) {
+            parent[i] = i;
+        }
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int i = y * w + x;
+                if (thresholded[i] != 0) {
+                    continue;
+                }
+                if (x > 0 && thresholded[i - 1] == 0) {
+                    union(i, i - 1);
+                }
+                if (y > 0 && thresholded[i - w] == 0) {
+                    union(i, i - w);
+                }
+            }
+        }
+    }
+
+    /** Whether the middle half of the region's box is partly not the region, as inside a tag border. */
+    private boolean hasLightInterior(int root, int w) {
+        int x0 = minX[root] + (maxX[root] - minX[root]) / 4;
+        int x1 = maxX[root] - (maxX[root] - minX[root]) / 4;
+        int y0 = minY[root] + (maxY[root] - minY[root]) / 4;
+        int y1 = maxY[root] - (maxY[root] - minY[root]) / 4;
+        int inside = 0, total = 0;
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                int i = y * w + x;
+                total++;
+                if (thresholded[i] == 0 && find(i) == root) {
+                    inside++;
+                }
+            }
+        }
+        return total > 0 && inside < total * 0.85;
+    }
+
+    /** Whether the region covers most of all four edges of its bounding box, as a quad border does. */
+    private boolean coversBoxEdges(int root, int w) {
+        int x0 = minX[root], x1 = maxX[root], y0 = minY[root], y1 = maxY[root];
+        int top = 0, bottom = 0, left = 0, right = 0;
+        for (int x = x0; x <= x1; x++) {
+            top += isRegion(x, y0, w, root) || isRegion(x, y0 + 1, w, root) ? 1 : 0;
+            bottom += isRegion(x, y1, w, root) || isRegion(x, y1 - 1, w, root) ? 1 : 0;
+        }
+        for (int y = y0; y <= y1; y++) {
+            left += isRegion(x0, y, w, root) || isRegion(x0 + 1, y, w, root) ? 1 : 0;
+            right += isRegion(x1, y, w, root) || isRegion(x1 - 1, y, w, root) ? 1 : 0;
+        }
+        double width = x1 - x0 + 1, height = y1 - y0 + 1;
+        return Math.min(top, bottom) > 0.6 * width && Math.min(left, right) > 0.6 * height;
+    }
+
+    private boolean isRegion(int x, int y, int w, int root) {
+        int i = y * w + x;
+        return thresholded[i] == 0 && find(i) == root;
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private void collect(int w, int h, int d, Detections out) {
+        int pixels = w * h;
+        for (int i = 0; i < pixels; i++) {
+            count[i] = 0;
+        }
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int i = y * w + x;
+                if (thresholded[i] != 0) {
+                    continue;
+                }
+                int root = find(i);
+                if (count[root]++ == 0) {
+                    minX[root] = maxX[root] = x;
+                    minY[root] = maxY[root] = y;
+                } else {
+                    minX[root] = Math.min(minX[root], x);
+                    maxX[root] = Math.max(maxX[root], x);
+                    minY[root] = Math.min(minY[root], y);
+                    maxY[root] = Math.max(maxY[root], y);
+                }
+            }
+        }
+        for (int i = 0; i < pixels; i++) {
+            int n = count[i];
+            if (n < MIN_CLUSTER_PIXELS) {
+                continue;
+            }
+            int boxW = maxX[i] - minX[i] + 1;
+            int boxH = maxY[i] - minY[i] + 1;
+            if (boxW < MIN_SIDE || boxH < MIN_SIDE || boxW > 2 * boxH || boxH > 2 * boxW) {
+                continue;
+            }
+            // A tag border with its dark data cells fills a good part of its box, but not all of it
+            double fill = (double) n / (boxW * boxH);
+            if (fill < 0.3 || fill > 0.9 || !hasLightInterior(i, w) || !coversBoxEdges(i, w)) {
+                continue;
+            }
+            out.add(minX[i] * d, minY[i] * d, (maxX[i] + 1) * d, (maxY[i] + 1) * d);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.firstinspires.ftc.teamcode.benchmarks.vision;
+
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds captured frames through vision pipelines with different settings and reports per-frame
+ * processing time (p50 / p99 / max), throughput and detection counts for each combination.
+ *
+ * <pre>
+ * ./gradlew -Pbenchmarks :Benchmarks:visionBenchmark -PvisionArgs="--frames /path/to/captures --resolution 640x480,320x240 --decimation 1,2,3"
+ * java ...VisionBenchmark [--frames DIR | --synthetic COUNT] [--resolution WxH,...] [--decimation N,...]
+ *                         [--adaptive] [--rounds N]
+ * </pre>
+ *
+ * Frames are decoded and scaled before timing starts. Every combination gets one untimed warm-up
+ * pass, then {@code rounds} timed passes over all frames.
+ */
+public final class VisionBenchmark {
+    private VisionBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File dir = null;
+        int synthetic = 300;
+        List<int[]> resolutions = new ArrayList<>();
+        List<Integer> decimations = new ArrayList<>();
+        boolean adaptive = false;
+        int rounds = 3;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--frames":
+                    dir = new File(args[++i]);
+                    break;
+                case "--synthetic":
+                    synthetic = Integer.parseInt(args[++i]);
+                    break;
+                case "--resolution":
+                    for (String resolution : args[++i].split(",")) {
+                        String[] parts = resolution.split("x");
+                        resolutions.add(new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])});
+                    }
+                    break;
+                case "--decimation":
+                    for (String decimation : args[++i].split(",")) {
+                        decimations.add(Integer.parseInt(decimation));
+                    }
+                    break;
+                case "--adaptive":
+                    adaptive = true;
+                    break;
+                case "--rounds":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (resolutions.isEmpty()) {
+            resolutions.add(new int[] {640, 480});
+        }
+        if (decimations.isEmpty()) {
+            decimations.add(1);
+            decimations.add(2);
+            decimations.add(3);
+        }
+
+        System.out.printf("%-12s %-10s %8s %10s %30s %8s %8s%n",
+                "resolution", "pipeline", "frames", "fps", "p50/p99/max", "det/frm", "hit %");
+        for (int[] resolution : resolutions) {
+            List<Frame> frames = dir != null
+                    ? FrameLoader.load(dir, resolution[0], resolution[1])
+                    : FrameLoader.synthetic(synthetic, resolution[0], resolution[1], 42);
+            List<FrameProcessor> processors = new ArrayList<>();
+            for (int decimation : decimations) {
+                processors.add(new QuadCandidateProcessor(decimation));
+            }
+            if (adaptive) {
+                processors.add(new AdaptiveFrameProcessor(new QuadCandidateProcessor(1)));
+            }
+            for (FrameProcessor processor : processors) {
+                run(processor, frames, rounds, resolution[0] + "x" + resolution[1]);
+            }
+        }
+    }
+
+    private static void run(FrameProcessor processor, List<Frame> frames, int rounds, String resolution) {
+        Frame first = frames.get(0);
+        Detections detections = new Detections();
+        processor.init(first.width, first.height);
+        for (Frame frame : frames) {
+            detections.clear();
+            processor.process(frame, detections);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        long totalDetections = 0;
+        long framesWithDetections = 0;
+        long totalNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            processor.init(first.width, first.height);
+            for (Frame frame : frames) {
+                detections.clear();
+                long start = System.nanoTime();
+                processor.process(frame, detections);
+                long elapsed = System.nanoTime() - start;
+                histogram.record(elapsed);
+                totalNanos += elapsed;
+                totalDetections += detections.size();
+                if (detections.size() > 0) {
+                    framesWithDetections++;
+                }
+            }
+        }
+
+        long processed = (long) frames.size() * rounds;
+        StringBuilder summary = LoopProfiler.formatSummary(histogram, new StringBuilder(32));
+        System.out.printf("%-12s %-10s %8d %10.1f %30s %8.2f %8.1f%n",
+                resolution, processor.describe(), processed, processed / (totalNanos / 1e9), summary,
+                (double) totalDetections / processed, 100.0 * framesWithDetections / processed);
+    }
+}
@@ -1,20 +1,110 @@
 package org.firstinspires.ftc.robotcontroller.internal;
 
 import android.os.Environment;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * CSV data logger for OpMode loops.
+ *
+ * Each row is built from {@code addData} calls and committed by {@link #update()}. Columns are
+ * either registered up front with {@link #registerColumns(String...)} or taken from the keys used
+ * in the first row; the schema is fixed once the first row is committed and written as the CSV
+ * header. Values for keys that are not part of the schema are counted and ignored.
+ *
+ * Primitive values are stored unformatted into a preallocated row, and {@link #update()} only
+ * copies that row into a bounded queue. A background thread formats the queued rows into a reused
+ * buffer and writes them out every flush interval, so the calling loop never waits on file I/O.
+ * If the queue is full the row is dropped and counted instead.
+ */
 public class Log {
     private static final String BASE_FOLDER_NAME = "FTCLogs"; // Adjust the folder name as needed
-    private FileWriter fileWriter;
-    private StringBuilder stringBuilder = new StringBuilder();
+    private static final String ELAPSED_TIME_COLUMN = "Elapsed Time";
+    private static final String NOTES_COLUMN = "Notes";
+    private static final int MAX_COLUMNS = 64;
+
+    public static final int DEFAULT_QUEUE_DEPTH = 256;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 100;
+
+    private static final byte TYPE_NONE = 0;
+    private static final byte TYPE_LONG = 1;
+    private static final byte TYPE_DOUBLE = 2;
+    private static final byte TYPE_BOOLEAN = 3;
+    private static final byte TYPE_CHAR = 4;
+    private static final byte TYPE_TEXT = 5;
+
     private final boolean logTime;
     private final long startTime;
+    private final long flushIntervalNanos;
+    private Writer writer;
+
+    // Schema. Written only by the logging thread before the first update(), read-only afterwards.
+    private final String[] columns = new String[MAX_COLUMNS];
+    private int columnCount;
+    private int notesColumn = -1;
+    private volatile boolean schemaFrozen;
+
+    private final Row pending = new Row();
+    private final Row[] queue;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private long droppedRows;
+    private long droppedValues;
+    private final AtomicLong writtenRows = new AtomicLong();
+    private volatile IOException error;
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+    private final StringBuilder line = new StringBuilder(256);
 
     public Log(String filename, boolean logTime) {
+        this(filename, logTime, DEFAULT_QUEUE_DEPTH, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    public Log(String filename, boolean logTime, int queueDepth, long flushIntervalMs) {
+        this(logFile(filename), logTime, queueDepth, flushIntervalMs);
+    }
+
+    /**
+     * @param queueDepth      rows that may be waiting for the flusher, rounded up to a power of two
+     * @param flushIntervalMs how often the background thread writes queued rows to the file
+     */
+    public Log(File logFile, boolean logTime, int queueDepth, long flushIntervalMs) {
         this.logTime = logTime;
         this.startTime = System.nanoTime();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+
+        int depth = Integer.highestOneBit(Math.max(2, queueDepth - 1)) << 1;
+        this.queue = new Row[depth];
+        for (int i = 0; i < depth; i++) {
+            queue[i] = new Row();
+        }
+        this.mask = depth - 1;
+
+        try {
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(logFile, false), Charset.forName("UTF-8")), 16 * 1024); // False to overwrite existing files
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        flusher = new Thread(this::flushLoop, "Log-" + logFile.getName());
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private static File logFile(String filename) {
         String directoryPath = Environment.getExternalStorageDirectory().getAbsolutePath() + "/" + BASE_FOLDER_NAME;
         File directory = new File(directoryPath);
         if (!directory.exists()) {
@@ -23,57 +113,305 @@ public class Log {
                 System.out.println("Failed to create directory for logs.");
             }
         }
-        try {
-            File logFile = new File(directoryPath, filename + ".csv");
-            this.fileWriter = new FileWriter(logFile, false); // False to overwrite existing files
-        } catch (IOException e) {
-            e.printStackTrace();
+        return new File(directoryPath, filename + ".csv");
+    }
+
+    /**
+     * Declares columns in the order they will appear in the file. Must be called before the first
+     * {@link #update()}; keys used in the first row that were not registered are appended.
+     */
+    public void registerColumns(String... keys) {
+        for (String key : keys) {
+            columnIndex(key);
         }
     }
 
     public void addData(String key, double value) {
-        addData(key + ": " + value);
+        int column = columnIndex(key);
+        if (column >= 0) {
+            pending.types[column] = TYPE_DOUBLE;
+            pending.bits[column] = Double.doubleToRawLongBits(value);
+        }
     }
 
+    /** Appends free-form text to the row's notes column. */
     public void addData(String data) {
-        if (stringBuilder.length() > 0) {
-            stringBuilder.append(", ");
+        int column = notesColumn >= 0 ? notesColumn : columnIndex(NOTES_COLUMN);
+        if (column >= 0) {
+            notesColumn = column;
+            StringBuilder text = pending.text(column);
+            if (pending.types[column] == TYPE_TEXT && text.length() > 0) {
+                text.append("; ");
+            }
+            pending.types[column] = TYPE_TEXT;
+            text.append(data);
         }
-        stringBuilder.append(data);
     }
 
     // Overloaded methods for supporting logging of all basic types directly
-    public void addData(String key, Object value) { addData(key + ": " + value); }
-    public void addData(String key, boolean value) { addData(key + ": " + value); }
-    public void addData(String key, byte value) { addData(key + ": " + value); }
-    public void addData(String key, char value) { addData(key + ": " + value); }
-    public void addData(String key, short value) { addData(key + ": " + value); }
-    public void addData(String key, int value) { addData(key + ": " + value); }
-    public void addData(String key, long value) { addData(key + ": " + value); }
-    public void addData(String key, float value) { addData(key + ": " + value); }
+    public void addData(String key, Object value) {
+        int column = columnIndex(key);
+        if (column >= 0) {
+            StringBuilder text = pending.text(column);
+            text.setLength(0);
+            if (value instanceof CharSequence) {
+                text.append((CharSequence) value);
+            } else {
+                text.append(value);
+            }
+            pending.types[column] = TYPE_TEXT;
+        }
+    }
+
+    public void addData(String key, boolean value) { putLong(key, TYPE_BOOLEAN, value ? 1 : 0); }
+    public void addData(String key, byte value) { putLong(key, TYPE_LONG, value); }
+    public void addData(String key, char value) { putLong(key, TYPE_CHAR, value); }
+    public void addData(String key, short value) { putLong(key, TYPE_LONG, value); }
+    public void addData(String key, int value) { putLong(key, TYPE_LONG, value); }
+    public void addData(String key, long value) { putLong(key, TYPE_LONG, value); }
+    public void addData(String key, float value) { addData(key, (double) value); }
+
+    private void putLong(String key, byte type, long value) {
+        int column = columnIndex(key);
+        if (column >= 0) {
+            pending.types[column] = type;
+            pending.bits[column] = value;
+        }
+    }
+
+    private int columnIndex(String key) {
+        for (int i = 0; i < columnCount; i++) {
+            if (columns[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (columns[i].equals(key)) {
+                return i;
+            }
+        }
+        if (schemaFrozen || columnCount == MAX_COLUMNS) {
+            droppedValues++;
+            return -1;
+        }
+        columns[columnCount] = key;
+        return columnCount++;
+    }
 
+    /** Commits the current row to the write queue and starts a new one. */
     public void update() {
-        try {
-            if (logTime) {
-                long currentTime = System.nanoTime();
-                double elapsedTimeInSeconds = (currentTime - startTime) / 1E9;
-                stringBuilder.insert(0, "Elapsed Time: " + elapsedTimeInSeconds + ", ");
-            }
-            fileWriter.write(stringBuilder.toString() + "\n");
-            fileWriter.flush();
-            stringBuilder.setLength(0); // Clear the StringBuilder for new data
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (!schemaFrozen) {
+            schemaFrozen = true;
+            LockSupport.unpark(flusher);
+        }
+        pending.elapsedNanos = System.nanoTime() - startTime;
+
+        long h = head.get();
+        if (running && h - tail.get() < queue.length) {
+            queue[(int) (h & mask)].copyFrom(pending, columnCount);
+            head.lazySet(h + 1);
+        } else {
+            droppedRows++;
         }
+        pending.clear(columnCount);
+    }
+
+    /** Rows discarded because the write queue was full. */
+    public long getDroppedRowCount() {
+        return droppedRows;
     }
 
+    /** Values discarded because their key is not part of the schema. */
+    public long getDroppedValueCount() {
+        return droppedValues;
+    }
+
+    public long getWrittenRowCount() {
+        return writtenRows.get();
+    }
+
+    public long getPendingRowCount() {
+        return head.get() - tail.get();
+    }
+
+    /** The last write failure of the flusher thread, or null. */
+    public IOException getError() {
+        return error;
+    }
+
+    private void flushLoop() {
+        boolean headerWritten = false;
+        while (true) {
+            boolean stopping = !running;
+            try {
+                if (writer != null && schemaFrozen) {
+                    if (!headerWritten) {
+                        writeHeader();
+                        headerWritten = true;
+                    }
+                    long end = head.get();
+                    long t = tail.get();
+                    for (; t < end; t++) {
+                        writeRow(queue[(int) (t & mask)]);
+                        tail.lazySet(t + 1);
+                    }
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                error = e;
+                e.printStackTrace();
+                running = false;
+                return;
+            }
+            if (stopping) {
+                return;
+            }
+            LockSupport.parkNanos(this, flushIntervalNanos);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        line.setLength(0);
+        if (logTime) {
+            line.append(ELAPSED_TIME_COLUMN);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (line.length() > 0) {
+                line.append(',');
+            }
+            appendText(line, columns[i]);
+        }
+        line.append('\n');
+        writer.append(line);
+    }
+
+    private void writeRow(Row row) throws IOException {
+        line.setLength(0);
+        if (logTime) {
+            line.append(row.elapsedNanos / 1E9);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (logTime || i > 0) {
+                line.append(',');
+            }
+            switch (row.types[i]) {
+                case TYPE_LONG:
+                    line.append(row.bits[i]);
+                    break;
+                case TYPE_DOUBLE:
+                    line.append(Double.longBitsToDouble(row.bits[i]));
+                    break;
+                case TYPE_BOOLEAN:
+                    line.append(row.bits[i] != 0);
+                    break;
+                case TYPE_CHAR:
+                    appendChar(line, (char) row.bits[i]);
+                    break;
+                case TYPE_TEXT:
+                    appendText(line, row.text(i));
+                    break;
+                default:
+                    break;
+            }
+        }
+        line.append('\n');
+        writer.append(line);
+        writtenRows.lazySet(writtenRows.get() + 1);
+    }
+
+    private static void appendChar(StringBuilder out, char c) {
+        if (c == ',' || c == '"' || c == '\n') {
+            out.append('"');
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c).append('"');
+        } else {
+            out.append(c);
+        }
+    }
+
+    private static void appendText(StringBuilder out, CharSequence text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n';
+        }
+        if (!quote) {
+            out.append(text);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /** Writes every queued row, stops the flusher thread and closes the file. */
     public void close() {
+        running = false;
+        schemaFrozen = true;
+        LockSupport.unpark(flusher);
+        // The flusher must be done with the writer before it is closed, even if this thread is interrupted
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
         try {
-            if (fileWriter != null) {
-                fileWriter.close();
+            if (writer != null) {
+                writer.close();
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /** One preallocated log row: raw value bits and a type tag per column. */
+    private static final class Row {
+        long elapsedNanos;
+        final byte[] types = new byte[MAX_COLUMNS];
+        final long[] bits = new long[MAX_COLUMNS];
+        private final StringBuilder[] text = new StringBuilder[MAX_COLUMNS];
+
+        StringBuilder text(int column) {
+            if (text[column] == null) {
+                text[column] = new StringBuilder(32);
+            }
+            return text[column];
+        }
+
+        void copyFrom(Row other, int columnCount) {
+            elapsedNanos = other.elapsedNanos;
+            System.arraycopy(other.types, 0, types, 0, columnCount);
+            System.arraycopy(other.bits, 0, bits, 0, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                if (other.types[i] == TYPE_TEXT) {
+                    StringBuilder target = text(i);
+                    target.setLength(0);
+                    target.append(other.text[i]);
+                }
+            }
+        }
+
+        void clear(int columnCount) {
+            Arrays.fill(types, 0, columnCount, TYPE_NONE);
+            for (int i = 0; i < columnCount; i++) {
+                if (text[i] != null) {
+                    text[i].setLength(0);
+                }
+            }
+        }
+    }
 }
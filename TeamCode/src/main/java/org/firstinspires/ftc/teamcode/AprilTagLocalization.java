@@ -0,0 +1,126 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+
+import org.firstinspires.ftc.teamcode.control.DriverInput;
+import org.firstinspires.ftc.teamcode.control.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.control.Pose;
+import org.firstinspires.ftc.teamcode.control.TeleopController;
+import org.firstinspires.ftc.teamcode.hardware.AprilTagCamera;
+import org.firstinspires.ftc.teamcode.hardware.BulkReadManager;
+import org.firstinspires.ftc.teamcode.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.hardware.ScheduledProcessor;
+import org.firstinspires.ftc.teamcode.hardware.SdkHardware;
+import org.firstinspires.ftc.teamcode.hardware.SensorPoller;
+import org.firstinspires.ftc.teamcode.hardware.TrackingTfodProcessor;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.FixedRateLoop;
+import org.firstinspires.ftc.teamcode.vision.TagLayout;
+import org.firstinspires.ftc.teamcode.vision.TagPoseFusion;
+import org.firstinspires.ftc.teamcode.vision.TrackSnapshot;
+import org.firstinspires.ftc.teamcode.vision.TrackedObject;
+import org.firstinspires.ftc.teamcode.vision.VisionScheduler;
+import org.firstinspires.ftc.vision.tfod.TfodProcessor;
+
+/**
+ * TeleOp driving with a field pose from odometry corrected by AprilTags. The pose updates every
+ * loop and keeps going between tag sightings; the camera only pulls it back into place.
+ *
+ * TFOD shares the camera, but only runs while gamepad 1 X is held (looking for game pieces), and
+ * then at a limited rate, so AprilTag keeps most of the frame budget. Its recognitions are tracked
+ * across frames, so the telemetry shows steady objects rather than each frame's raw boxes.
+ */
+@TeleOp(name="AprilTagLocalization", group="Linear Opmode")
+public class AprilTagLocalization extends LinearOpMode {
+    private static final double LOOP_FREQUENCY_HZ = 50;
+
+    // Camera 15 cm ahead of the robot center, on the centerline, looking forward
+    private static final Pose CAMERA_MOUNT = new Pose(0.15, 0, 0);
+    // The robot can be placed anywhere; the first tag sighting sets the pose
+    private static final double INITIAL_POSITION_SIGMA = 3.0;
+    private static final double INITIAL_HEADING_SIGMA = Math.PI;
+    private static final double TFOD_RATE_HZ = 5;
+    private static final double IMU_RATE_HZ = 100;
+
+    private RobotIO io;
+    private BulkReadManager bulkRead;
+    private OutputStage outputs;
+    private RobotIO control;
+    private TeleopController teleop;
+    private MecanumOdometry odometry;
+    private SensorPoller poller;
+    private AprilTagCamera camera;
+    private TagPoseFusion fusion;
+    private final VisionScheduler scheduler = new VisionScheduler();
+    private TrackingTfodProcessor tfod;
+    private VisionScheduler.Slot tfodSlot;
+    private final DriverInput input = new DriverInput();
+
+    @Override
+    public void runOpMode() {
+        io = SdkHardware.createRobotIO(hardwareMap);
+        bulkRead = new BulkReadManager(hardwareMap, io);
+        outputs = new OutputStage(io);
+        control = outputs.buffered();
+        teleop = new TeleopController(control);
+        // The IMU is read in the background, so odometry never waits on I2C
+        poller = new SensorPoller(Clock.SYSTEM);
+        odometry = new MecanumOdometry(io, SdkHardware.createPolledHeadingSource(hardwareMap, poller, IMU_RATE_HZ),
+                Clock.SYSTEM);
+        poller.start();
+        tfod = new TrackingTfodProcessor(TfodProcessor.easyCreateWithDefaults());
+        tfodSlot = scheduler.add("TFOD", TFOD_RATE_HZ);
+        tfodSlot.setEnabled(false);
+        camera = new AprilTagCamera(hardwareMap, "Webcam 1", scheduler, new ScheduledProcessor(tfod, tfodSlot));
+        fusion = new TagPoseFusion(odometry, TagLayout.centerStage(), CAMERA_MOUNT,
+                INITIAL_POSITION_SIGMA, INITIAL_HEADING_SIGMA);
+
+        waitForStart();
+        FixedRateLoop loop = new FixedRateLoop(LOOP_FREQUENCY_HZ, FixedRateLoop.CatchUpPolicy.SKIP);
+        FixedRateLoop.setLoopThreadPriority(Thread.NORM_PRIORITY + 2);
+        loop.start();
+        while (opModeIsActive() && loop.awaitNextTick()) {
+            bulkRead.update();
+            odometry.update();
+            int observations = camera.poll();
+            for (int i = 0; i < observations; i++) {
+                fusion.addObservation(camera.getObservation(i));
+            }
+
+            tfodSlot.setEnabled(gamepad1.x);
+
+            SdkHardware.readDriverInput(input, gamepad1, gamepad2);
+            teleop.update(input);
+            outputs.flush();
+
+            telemetry.addData("Pose", odometry.getPose());
+            telemetry.addData("Uncertainty", "%.3f m, %.1f deg",
+                    fusion.getPositionSigma(), Math.toDegrees(fusion.getHeadingSigma()));
+            telemetry.addData("Tags", "%d accepted, %d rejected, %d too old",
+                    fusion.getAcceptedCount(), fusion.getRejectedCount(), fusion.getStaleCount());
+            if (fusion.getLastAcceptedNanos() != 0) {
+                telemetry.addData("Last tag", "%.1f s ago", (System.nanoTime() - fusion.getLastAcceptedNanos()) / 1e9);
+            }
+            if (tfodSlot.isEnabled()) {
+                TrackSnapshot objects = tfod.getTracker().getSnapshot();
+                telemetry.addData("Objects", "%d, %.1f s old", objects.size(),
+                        objects.frameNanos == 0 ? 0 : (System.nanoTime() - objects.frameNanos) / 1e9);
+                for (int i = 0; i < objects.size(); i++) {
+                    TrackedObject object = objects.get(i);
+                    telemetry.addLine(object.toString());
+                }
+            }
+            LoopTelemetry.addDetection(telemetry, camera.getDetectionController());
+            LoopTelemetry.addVisionSchedule(telemetry, scheduler);
+            LoopTelemetry.addJitter(telemetry, loop);
+            telemetry.update();
+        }
+        teleop.stop();
+        control.stopAll();
+        outputs.flush();
+        camera.close();
+        poller.close();
+    }
+}
@@ -2,100 +2,229 @@ package org.firstinspires.ftc.teamcode;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-import com.qualcomm.robotcore.hardware.CRServo;
-import com.qualcomm.robotcore.hardware.DcMotor;
 
-import java.io.BufferedReader;
+import org.firstinspires.ftc.teamcode.control.Trajectory;
+import org.firstinspires.ftc.teamcode.control.TrajectoryFollower;
+import org.firstinspires.ftc.teamcode.hardware.BatteryMonitor;
+import org.firstinspires.ftc.teamcode.hardware.BulkReadManager;
+import org.firstinspires.ftc.teamcode.hardware.HeadingSource;
+import org.firstinspires.ftc.teamcode.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.hardware.SdkHardware;
+import org.firstinspires.ftc.teamcode.hardware.SensorPoller;
+import org.firstinspires.ftc.teamcode.hardware.VoltageCompensation;
+import org.firstinspires.ftc.teamcode.recording.ColumnarReader;
+import org.firstinspires.ftc.teamcode.recording.RecordingCsv;
+import org.firstinspires.ftc.teamcode.recording.RecordingFormat;
+import org.firstinspires.ftc.teamcode.recording.RecordingReader;
+import org.firstinspires.ftc.teamcode.replay.ColumnarReplaySource;
+import org.firstinspires.ftc.teamcode.replay.RecordingReplaySource;
+import org.firstinspires.ftc.teamcode.replay.ReplayScheduler;
+import org.firstinspires.ftc.teamcode.replay.ReplaySink;
+import org.firstinspires.ftc.teamcode.replay.ReplaySource;
+import org.firstinspires.ftc.teamcode.replay.VoltageCompensatedSink;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.FixedRateLoop;
+
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
 @Autonomous(name="AutonomousFromLog", group="Linear Opmode")
 public class AutonomousFromLog extends LinearOpMode {
-    private DcMotor frontLeft, frontRight, backLeft, backRight, chainDrive, frontArm;
-    private CRServo armRotator, dropper;
+    private RobotIO io;
+    private BulkReadManager bulkRead;
+    private OutputStage outputs;
+    private HeadingSource heading;
+    private SensorPoller poller;
+    private BatteryMonitor battery;
+    private VoltageCompensation compensation;
+
+    private static final String CONTROL_DATA_FILE_PATH = "/storage/emulated/0/FIRST/ControlData.bin";
+    private static final String LEGACY_CONTROL_DATA_FILE_PATH = "/storage/emulated/0/FIRST/ControlData.txt";
 
-    private static final String CONTROL_DATA_FILE_PATH = "/storage/emulated/0/FIRST/ControlData.txt";
+    // Same rate ControlRecorder records at
+    private static final double LOOP_FREQUENCY_HZ = 50;
+    private static final double IMU_RATE_HZ = 100;
 
     @Override
     public void runOpMode() {
         initializeHardware();
-        waitForStart();
-        if (opModeIsActive()) {
-            playBackControlData();
+        try {
+            waitForStart();
+            if (opModeIsActive()) {
+                playBackControlData();
+            }
+        } finally {
+            poller.close();
         }
     }
 
     private void initializeHardware() {
-        frontLeft = hardwareMap.get(DcMotor.class, "front_left_motor");
-        frontRight = hardwareMap.get(DcMotor.class, "front_right_motor");
-        backLeft = hardwareMap.get(DcMotor.class, "back_left_motor");
-        backRight = hardwareMap.get(DcMotor.class, "back_right_motor");
-        chainDrive = hardwareMap.get(DcMotor.class, "chain_drive");
-        frontArm = hardwareMap.get(DcMotor.class, "front_arm_motor");
-        armRotator = hardwareMap.get(CRServo.class, "arm_rotator_servo");
-        dropper = hardwareMap.get(CRServo.class, "drop_servo");
-
-        frontLeft.setDirection(DcMotor.Direction.REVERSE);
-        backLeft.setDirection(DcMotor.Direction.REVERSE);
-        frontArm.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        frontArm.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        frontArm.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        io = SdkHardware.createRobotIO(hardwareMap);
+        bulkRead = new BulkReadManager(hardwareMap, io);
+        outputs = new OutputStage(io);
+        // Started now so the smoothed voltage has settled by the time replay starts; the follower
+        // reads the IMU heading from the poller instead of the bus
+        poller = new SensorPoller(Clock.SYSTEM);
+        heading = SdkHardware.createPolledHeadingSource(hardwareMap, poller, IMU_RATE_HZ);
+        battery = SdkHardware.createBatteryMonitor(hardwareMap, poller);
+        compensation = new VoltageCompensation(battery);
+        poller.start();
     }
 
     private void playBackControlData() {
         File controlDataFile = new File(CONTROL_DATA_FILE_PATH);
-        if (controlDataFile.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(controlDataFile))) {
-                String line;
-                while ((line = reader.readLine()) != null && opModeIsActive()) {
-                    if (!line.isEmpty()) {
-                        String[] tokens = line.split(",");
-                        if (tokens.length >= 9) {
-                            long timestamp = Long.parseLong(tokens[0]);
-                            double frontLeftPower = Double.parseDouble(tokens[1]);
-                            double frontRightPower = Double.parseDouble(tokens[2]);
-                            double backLeftPower = Double.parseDouble(tokens[3]);
-                            double backRightPower = Double.parseDouble(tokens[4]);
-                            double armPower = Double.parseDouble(tokens[5]);
-                            double chainPower = Double.parseDouble(tokens[6]);
-                            double armRotatorPower = Double.parseDouble(tokens[7]);
-                            double dropperPower = Double.parseDouble(tokens[8]);
-
-                            frontLeft.setPower(frontLeftPower);
-                            frontRight.setPower(frontRightPower);
-                            backLeft.setPower(backLeftPower);
-                            backRight.setPower(backRightPower);
-                            frontArm.setPower(armPower);
-                            chainDrive.setPower(chainPower);
-                            armRotator.setPower(armRotatorPower);
-                            dropper.setPower(dropperPower);
-
-                            // Wait for the recorded time interval before applying the next set of values
-                            long waitTime = timestamp - System.currentTimeMillis();
-                            if (waitTime > 0) {
-                                sleep(waitTime);
-                            }
-                        } else {
-                            telemetry.addData("Error", "Not enough data in line: " + line);
-                            telemetry.update();
-                        }
-                    } else {
-                        telemetry.addData("Error", "Empty line in file");
-                        telemetry.update();
-                    }
+        if (!controlDataFile.exists() && !convertLegacyControlData(controlDataFile)) {
+            telemetry.addData("Error", "Control data file not found");
+            telemetry.update();
+            return;
+        }
+
+        try {
+            if (ColumnarReader.isColumnar(controlDataFile)) {
+                try (ColumnarReader reader = new ColumnarReader(controlDataFile)) {
+                    play(reader::channelIndex,
+                            channels -> new ColumnarReplaySource(reader, TimeUnit.MILLISECONDS, channels));
+                }
+            } else {
+                try (RecordingReader reader = new RecordingReader(controlDataFile)) {
+                    play(reader::channelIndex,
+                            channels -> new RecordingReplaySource(reader, TimeUnit.MILLISECONDS, channels));
                 }
-            } catch (IOException e) {
-                telemetry.addData("Error", "Failed to read control data: " + e.getMessage());
-                telemetry.update();
-            } catch (NumberFormatException e) {
-                telemetry.addData("Error", "Invalid format in control data file: " + e.getMessage());
-                telemetry.update();
             }
+        } catch (IOException | IllegalArgumentException e) {
+            telemetry.addData("Error", "Failed to read control data: " + e.getMessage());
+            telemetry.update();
+        }
+    }
+
+    /**
+     * Plays a recording in either format back.
+     *
+     * @param channelIndex index of a channel in the recording, -1 if it has none of that name
+     * @param open         a source of the named channels, in the given order
+     */
+    private void play(ToIntFunction<String> channelIndex, SourceOpener open) throws IOException {
+        boolean hasVoltage = channelIndex.applyAsInt(RecordingFormat.VOLTAGE_CHANNEL) >= 0;
+        if (channelIndex.applyAsInt(RecordingFormat.DRIVE_ENCODER_CHANNELS[0]) >= 0) {
+            followTrajectory(open.open(
+                    hasVoltage ? RecordingFormat.RECORDED_CHANNELS : RecordingFormat.TRAJECTORY_CHANNELS));
         } else {
-            telemetry.addData("Error", "Control data file not found");
+            replayPowers(open, hasVoltage);
+        }
+    }
+
+    /**
+     * Drives the recorded encoder (and, if recorded, heading) trajectory closed-loop, using the
+     * recorded powers, scaled to the current battery voltage if it was recorded, as feedforward.
+     */
+    private void followTrajectory(ReplaySource source) {
+        Trajectory trajectory = Trajectory.fromSource(source);
+        RobotIO control = outputs.buffered();
+        TrajectoryFollower follower = new TrajectoryFollower(trajectory, control, heading, Clock.SYSTEM);
+        follower.setVoltageCompensation(compensation);
+
+        FixedRateLoop loop = new FixedRateLoop(LOOP_FREQUENCY_HZ, FixedRateLoop.CatchUpPolicy.SKIP);
+        FixedRateLoop.setLoopThreadPriority(Thread.NORM_PRIORITY + 2);
+        bulkRead.update();
+        follower.start();
+        loop.start();
+        while (opModeIsActive() && loop.awaitNextTick()) {
+            bulkRead.update();
+            boolean following = follower.update();
+            outputs.flush();
+            if (!following) {
+                break;
+            }
+        }
+        control.stopAll();
+        outputs.flush();
+
+        telemetry.addData("Trajectory", "%d samples, %.1f s%s", trajectory.size(),
+                trajectory.getDurationNanos() / 1e9, trajectory.hasHeading() && heading != null ? ", heading hold" : "");
+        telemetry.addData("Max position error", "%.0f ticks", follower.getMaxPositionError());
+        addCompensation(trajectory.hasVoltage());
+        telemetry.addData("Motor writes", "%d issued, %d skipped", outputs.getWritesIssued(), outputs.getWritesSkipped());
+        LoopTelemetry.addJitter(telemetry, loop);
+        telemetry.update();
+    }
+
+    /**
+     * Replays the recorded powers open-loop, for recordings made before encoders were recorded.
+     * Motor powers are scaled to the current battery voltage if the recording has one.
+     */
+    private void replayPowers(SourceOpener open, boolean hasVoltage) throws IOException {
+        String[] channels = RecordingFormat.CONTROL_CHANNELS;
+        if (hasVoltage) {
+            channels = Arrays.copyOf(channels, channels.length + 1);
+            channels[RobotIO.OUTPUT_COUNT] = RecordingFormat.VOLTAGE_CHANNEL;
+        }
+        ReplaySource source = open.open(channels);
+        RobotIO control = outputs.buffered();
+        ReplaySink sink = control::applyPowers;
+        if (hasVoltage) {
+            sink = new VoltageCompensatedSink(sink, compensation, RobotIO.MOTOR_COUNT, RobotIO.OUTPUT_COUNT);
+        }
+        ReplayScheduler scheduler = new ReplayScheduler(source, sink, Clock.SYSTEM, ReplayScheduler.Mode.SKIP);
+
+        FixedRateLoop loop = new FixedRateLoop(LOOP_FREQUENCY_HZ, FixedRateLoop.CatchUpPolicy.SKIP);
+        FixedRateLoop.setLoopThreadPriority(Thread.NORM_PRIORITY + 2);
+        scheduler.start();
+        loop.start();
+        while (opModeIsActive() && loop.awaitNextTick()) {
+            boolean replaying = scheduler.step();
+            outputs.flush();
+            if (!replaying) {
+                break;
+            }
+        }
+        control.stopAll();
+        outputs.flush();
+
+        telemetry.addData("Replay", "%d samples applied, %d skipped",
+                scheduler.getAppliedCount(), scheduler.getSkippedCount());
+        telemetry.addData("Lateness", "mean %.2f ms, max %.2f ms",
+                scheduler.getMeanLatenessNanos() / 1e6, scheduler.getMaxLatenessNanos() / 1e6);
+        addCompensation(hasVoltage);
+        telemetry.addData("Motor writes", "%d issued, %d skipped", outputs.getWritesIssued(), outputs.getWritesSkipped());
+        LoopTelemetry.addJitter(telemetry, loop);
+        telemetry.update();
+    }
+
+    private void addCompensation(boolean recorded) {
+        if (!recorded) {
+            telemetry.addData("Battery", "%.2f V, not recorded: powers replayed as recorded", battery.getVolts());
+            return;
+        }
+        telemetry.addData("Battery", "%.2f V, last scale %.3f, %d powers clipped", battery.getVolts(),
+                compensation.getLastScale(), compensation.getClippedCount());
+    }
+
+    /**
+     * Converts a CSV recording left over from before the binary format into the binary file,
+     * so old recordings can still be replayed. Returns false if there is nothing to convert.
+     */
+    private boolean convertLegacyControlData(File controlDataFile) {
+        File legacyFile = new File(LEGACY_CONTROL_DATA_FILE_PATH);
+        if (!legacyFile.exists()) {
+            return false;
+        }
+        try {
+            RecordingCsv.csvToBinary(legacyFile, controlDataFile, RecordingFormat.CONTROL_CHANNELS);
+            return true;
+        } catch (IOException e) {
+            controlDataFile.delete();
+            telemetry.addData("Error", "Failed to convert control data: " + e.getMessage());
             telemetry.update();
+            return false;
         }
     }
-}
 
+    /** Opens a source of the named channels, in the given order, from the recording being played. */
+    private interface SourceOpener {
+        ReplaySource open(String[] channels) throws IOException;
+    }
+}
@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.TelemetryBuffer;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TelemetryBuffer} sending to the SDK telemetry. Lines are kept as retained items: only
+ * the changed ones get a new value, and the item list is only rebuilt when lines are shown or
+ * hidden. Call {@link #flush()} once per loop instead of {@code telemetry.update()}, and do not use
+ * the SDK telemetry directly while this is in use.
+ */
+public class BufferedTelemetry extends TelemetryBuffer implements TelemetryBuffer.Output {
+    private final Telemetry telemetry;
+    private Telemetry.Item[] items = new Telemetry.Item[0];
+
+    public BufferedTelemetry(Telemetry telemetry, Clock clock) {
+        super(clock);
+        this.telemetry = telemetry;
+        telemetry.setAutoClear(false);
+        setIntervalNanos(getIntervalNanos());
+    }
+
+    /** Also sets the SDK's transmission interval, so it never drops a message this sends. */
+    @Override
+    public void setIntervalNanos(long intervalNanos) {
+        super.setIntervalNanos(intervalNanos);
+        telemetry.setMsTransmissionInterval((int) TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+    }
+
+    /** Sends the lines if due and changed; see {@link TelemetryBuffer#flush(Output)}. */
+    public boolean flush() {
+        return flush(this);
+    }
+
+    @Override
+    public void send(String[] captions, String[] texts, int count, boolean layoutChanged, boolean[] changed) {
+        if (layoutChanged) {
+            telemetry.clearAll();
+            if (items.length < count) {
+                items = Arrays.copyOf(items, captions.length);
+            }
+            for (int i = 0; i < count; i++) {
+                items[i] = telemetry.addData(captions[i], texts[i]);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (changed[i]) {
+                    items[i].setValue(texts[i]);
+                }
+            }
+        }
+        telemetry.update();
+    }
+}
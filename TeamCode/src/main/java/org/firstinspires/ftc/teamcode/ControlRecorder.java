@@ -2,194 +2,235 @@ package org.firstinspires.ftc.teamcode;
 
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-import com.qualcomm.robotcore.hardware.CRServo;
-import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.firstinspires.ftc.teamcode.control.DriverInput;
+import org.firstinspires.ftc.teamcode.control.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.control.Pose;
+import org.firstinspires.ftc.teamcode.control.TeleopController;
+import org.firstinspires.ftc.teamcode.hardware.BatteryMonitor;
+import org.firstinspires.ftc.teamcode.hardware.BulkReadManager;
+import org.firstinspires.ftc.teamcode.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.hardware.SdkHardware;
+import org.firstinspires.ftc.teamcode.hardware.SensorPoller;
+import org.firstinspires.ftc.teamcode.recording.ChannelType;
+import org.firstinspires.ftc.teamcode.recording.RecordingFormat;
+import org.firstinspires.ftc.teamcode.recording.RecordingSchema;
+import org.firstinspires.ftc.teamcode.recording.StreamingRecorder;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.FixedRateLoop;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
 
 import android.os.Environment;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 @TeleOp(name="ControlRecorder", group="Linear Opmode")
 public class ControlRecorder extends LinearOpMode {
-    private DcMotor frontLeft, frontRight, backLeft, backRight, chainDrive, frontArm;
-    private CRServo armRotator, dropper;
-
-    private int upperLimit = -45;
-    private int lowerLimit = -130;
-    private double armSpeed = 0.75;
-
-    private List<ControlData> controlDataList = new ArrayList<>();
-
-    private static final String CONTROL_DATA_FILE_NAME = "ControlData.txt";
+    private RobotIO io;
+    private BulkReadManager bulkRead;
+    private OutputStage outputs;
+    private RobotIO control;
+    private MecanumOdometry odometry;
+    private TeleopController teleop;
+    private SensorPoller poller;
+    private BatteryMonitor battery;
+    private final DriverInput input = new DriverInput();
+    private final LoopProfiler profiler = new LoopProfiler();
+
+    private static final double LOOP_FREQUENCY_HZ = 50;
+    private static final double IMU_RATE_HZ = 100;
+    private final FixedRateLoop loop = new FixedRateLoop(LOOP_FREQUENCY_HZ, FixedRateLoop.CatchUpPolicy.SKIP);
+
+    private static final String CONTROL_DATA_FILE_NAME = "ControlData.bin";
+    /** Where a run is recorded until it is saved; the last unsaved run stays here. */
+    private static final String RECORDING_FILE_NAME = "ControlData.recording.bin";
     private static final String CONTROL_DATA_DIR = Environment.getExternalStorageDirectory() + "/FIRST";
-    private static final String CONTROL_DATA_FILE_PATH = CONTROL_DATA_DIR + "/" + CONTROL_DATA_FILE_NAME;
-
-    private static class ControlData {
-        long timestamp;
-        double frontLeftPower, frontRightPower, backLeftPower, backRightPower;
-        double armPower, chainPower, armRotatorPower, dropperPower;
-
-        ControlData(long timestamp, double fl, double fr, double bl, double br,
-                    double armP, double chainP, double armRotatorP, double dropperP) {
-            this.timestamp = timestamp;
-            frontLeftPower = fl;
-            frontRightPower = fr;
-            backLeftPower = bl;
-            backRightPower = br;
-            armPower = armP;
-            chainPower = chainP;
-            armRotatorPower = armRotatorP;
-            dropperPower = dropperP;
-        }
-    }
+
+    private StreamingRecorder recorder;
+    private boolean saved;
+    private BufferedTelemetry display;
+    private int statusLine, errorLine, savedLine, droppedLine, poseLine, batteryLine, writesLine;
+    private final RecordingSchema schema = createSchema();
+    private final int ticksChannels = schema.indexOf(RecordingFormat.DRIVE_ENCODER_CHANNELS[0]);
+    private final int headingChannel = schema.indexOf(RecordingFormat.HEADING_CHANNEL);
+    private final int voltageChannel = schema.indexOf(RecordingFormat.VOLTAGE_CHANNEL);
+    private final int inputChannels = schema.indexOf(RecordingFormat.DRIVER_INPUT_CHANNELS[0]);
+    private final float[] sample = new float[schema.getChannelCount()];
 
     @Override
     public void runOpMode() {
         initializeHardware();
         waitForStart();
-        while (opModeIsActive()) {
+        startRecording();
+        FixedRateLoop.setLoopThreadPriority(Thread.NORM_PRIORITY + 2);
+        loop.start();
+        while (opModeIsActive() && loop.awaitNextTick()) {
+            profiler.startLoop();
             processInputs();
             recordInputs();
-            if (gamepad1.y) {
-                telemetry.clear();
-                telemetry.addData("Status", "Saving...");
-                telemetry.update();
-                saveControlData();
-                telemetry.clear();
-                telemetry.addData("Status", "Control data saved!");
-                telemetry.update();
+            profiler.endPhase(LoopProfiler.Phase.LOGGING);
+            if (recorder != null && gamepad1.y) {
+                saveRecording();
+            }
+            if (recorder != null) {
+                display.set(statusLine, "Recording. Press 'Y' to save control data.");
+            } else if (saved) {
+                display.set(statusLine, "Control data saved!");
             } else {
-                telemetry.clear();
-                telemetry.addData("Status", "Press 'Y' to save control data.");
-                telemetry.update();
+                display.set(statusLine, "Not recording.");
+            }
+            if (recorder != null) {
+                display.set(savedLine, "%.0f of %.0f samples", recorder.getWrittenCount(), recorder.getRecordedCount());
+                if (recorder.getDroppedCount() > 0) {
+                    display.set(droppedLine, "%.0f", recorder.getDroppedCount());
+                }
             }
+            Pose pose = odometry.getPose();
+            display.set(poseLine, "(%.3f m, %.3f m, %.1f deg)", pose.x, pose.y, Math.toDegrees(pose.heading));
+            display.set(batteryLine, "%.2f V", battery.getVolts());
+            display.set(writesLine, "%.0f issued, %.0f skipped", outputs.getWritesIssued(), outputs.getWritesSkipped());
+            LoopTelemetry.addProfile(display, profiler);
+            LoopTelemetry.addJitter(display, loop);
+            display.flush();
+            profiler.endPhase(LoopProfiler.Phase.TELEMETRY);
         }
+        stopRecording();
+        poller.close();
+        showTelemetrySavings();
     }
 
     private void initializeHardware() {
-        frontLeft = hardwareMap.get(DcMotor.class, "front_left_motor");
-        frontRight = hardwareMap.get(DcMotor.class, "front_right_motor");
-        backLeft = hardwareMap.get(DcMotor.class, "back_left_motor");
-        backRight = hardwareMap.get(DcMotor.class, "back_right_motor");
-        chainDrive = hardwareMap.get(DcMotor.class, "chain_drive");
-        frontArm = hardwareMap.get(DcMotor.class, "front_arm_motor");
-        armRotator = hardwareMap.get(CRServo.class, "arm_rotator_servo");
-        dropper = hardwareMap.get(CRServo.class, "drop_servo");
-
-        frontLeft.setDirection(DcMotor.Direction.REVERSE);
-        backLeft.setDirection(DcMotor.Direction.REVERSE);
-        frontArm.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-
-        frontArm.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        frontArm.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        io = SdkHardware.createRobotIO(hardwareMap);
+        bulkRead = new BulkReadManager(hardwareMap, io);
+        outputs = new OutputStage(io);
+        control = outputs.buffered();
+        teleop = new TeleopController(control);
+        // The IMU and the battery voltage (recorded so replay can make up for a different charge) are
+        // read in the background, so the loop never waits on I2C
+        poller = new SensorPoller(Clock.SYSTEM);
+        odometry = new MecanumOdometry(io, SdkHardware.createPolledHeadingSource(hardwareMap, poller, IMU_RATE_HZ),
+                Clock.SYSTEM);
+        battery = SdkHardware.createBatteryMonitor(hardwareMap, poller);
+        poller.start();
+
+        // Lines only change a few times a second; send them at most that often, and only when changed
+        display = new BufferedTelemetry(telemetry, Clock.SYSTEM);
+        statusLine = display.slot("Status");
+        errorLine = display.slot("Error");
+        savedLine = display.slot("Saved");
+        droppedLine = display.slot("Dropped");
+        poseLine = display.slot("Pose");
+        batteryLine = display.slot("Battery");
+        writesLine = display.slot("Motor writes");
     }
 
     private void processInputs() {
-        double drive = -gamepad1.left_stick_y;
-        double strafe = gamepad1.left_stick_x;
-        double rotate = gamepad1.right_stick_x;
-        double frontLeftPower = drive + strafe + rotate;
-        double frontRightPower = drive - strafe - rotate;
-        double backLeftPower = drive - strafe + rotate;
-        double backRightPower = drive + strafe - rotate;
-
-        double max = Math.max(Math.max(Math.abs(frontLeftPower), Math.abs(frontRightPower)),
-                Math.max(Math.abs(backLeftPower), Math.abs(backRightPower)));
-        if (max > 1.0) {
-            frontLeftPower /= max;
-            frontRightPower /= max;
-            backLeftPower /= max;
-            backRightPower /= max;
-        }
+        bulkRead.update(); // the only encoder reads this cycle; io returns the cached values afterwards
+        odometry.update();
+        SdkHardware.readDriverInput(input, gamepad1, gamepad2);
+        profiler.endPhase(LoopProfiler.Phase.HARDWARE_READ);
+
+        teleop.update(input);
+        profiler.endPhase(LoopProfiler.Phase.COMPUTE);
+        outputs.flush();
+        profiler.endPhase(LoopProfiler.Phase.HARDWARE_WRITE);
+    }
 
-        frontLeft.setPower(frontLeftPower);
-        frontRight.setPower(frontRightPower);
-        backLeft.setPower(backLeftPower);
-        backRight.setPower(backRightPower);
-
-        double armPower = 0;
-        int armPosition = frontArm.getCurrentPosition();
-        if (armPosition >= upperLimit && gamepad1.right_trigger > 0) {
-            armPower = 0;
-        } else if (armPosition <= lowerLimit && gamepad1.left_trigger > 0) {
-            armPower = (gamepad1.right_trigger - gamepad1.left_trigger) * armSpeed * 0.25;
-        } else {
-            armPower = (gamepad1.right_trigger - gamepad1.left_trigger) * armSpeed;
-        }
-        frontArm.setPower(armPower);
-
-        double chainPower = gamepad2.right_trigger - gamepad2.left_trigger;
-        chainDrive.setPower(chainPower);
-
-        double armRotatorPower = gamepad2.left_stick_y * 0.65;
-        armRotator.setPower(armRotatorPower);
-
-        if (gamepad2.a) {
-            dropper.setPower(-1.0);
-            sleep(400);
-            dropper.setPower(0);
-            sleep(250);
-            dropper.setPower(1.0);
-            sleep(400);
-            dropper.setPower(0);
-        }
+    /**
+     * The recorded channels, powers first where {@link RobotIO#readPowers} puts them. Each type is
+     * stored as compactly as its resolution allows.
+     */
+    private static RecordingSchema createSchema() {
+        RecordingSchema schema = new RecordingSchema();
+        schema.addAll(RecordingFormat.CONTROL_CHANNELS, ChannelType.POWER);
+        schema.addAll(RecordingFormat.DRIVE_ENCODER_CHANNELS, ChannelType.TICKS);
+        schema.add(RecordingFormat.HEADING_CHANNEL, ChannelType.ANGLE);
+        schema.add(RecordingFormat.VOLTAGE_CHANNEL, ChannelType.VOLTS);
+        schema.addAll(RecordingFormat.DRIVER_INPUT_CHANNELS, ChannelType.AXIS);
+        return schema;
+    }
 
-        if (gamepad2.right_bumper) {
-            dropper.setPower(0.75);
-        } else if (gamepad2.left_bumper) {
-            dropper.setPower(-0.75);
-        } else {
-            dropper.setPower(0);
+    private void startRecording() {
+        try {
+            recorder = new StreamingRecorder(new File(CONTROL_DATA_DIR, RECORDING_FILE_NAME), schema);
+        } catch (IOException e) {
+            display.set(errorLine, "Failed to open control data file: " + e.getMessage());
         }
     }
 
     private void recordInputs() {
-        long currentTime = System.currentTimeMillis();
-        controlDataList.add(new ControlData(
-                currentTime,
-                frontLeft.getPower(), frontRight.getPower(), backLeft.getPower(), backRight.getPower(),
-                frontArm.getPower(), chainDrive.getPower(), armRotator.getPower(), dropper.getPower()
-        ));
+        if (recorder == null) {
+            return;
+        }
+        control.readPowers(sample);
+        // Encoder positions come from this cycle's bulk read, so recording them costs no bus traffic
+        sample[ticksChannels] = io.frontLeft.getCurrentPosition();
+        sample[ticksChannels + 1] = io.frontRight.getCurrentPosition();
+        sample[ticksChannels + 2] = io.backLeft.getCurrentPosition();
+        sample[ticksChannels + 3] = io.backRight.getCurrentPosition();
+        sample[headingChannel] = (float) odometry.getImuHeading(); // as the odometry saw it this cycle
+        sample[voltageChannel] = (float) battery.getVolts();
+        int channel = inputChannels;
+        sample[channel++] = (float) input.driveY;
+        sample[channel++] = (float) input.driveX;
+        sample[channel++] = (float) input.turn;
+        sample[channel++] = (float) input.armUp;
+        sample[channel++] = (float) input.armDown;
+        sample[channel++] = (float) input.chainForward;
+        sample[channel++] = (float) input.chainReverse;
+        sample[channel++] = (float) input.armRotator;
+        sample[channel++] = (float) input.dropperStick;
+        sample[channel++] = input.dropperForward ? 1 : 0;
+        sample[channel++] = input.dropperReverse ? 1 : 0;
+        sample[channel] = input.dropperCycle ? 1 : 0;
+        recorder.record(System.currentTimeMillis(), sample);
     }
 
-    private void saveControlData() {
-        File file = new File(CONTROL_DATA_DIR, CONTROL_DATA_FILE_NAME);
-        if (!file.getParentFile().exists()) {
-            file.getParentFile().mkdirs();
+    /**
+     * Ends the recording and moves it over the saved control data, so a run only replaces the
+     * saved autonomous when the driver asks for it.
+     */
+    private void saveRecording() {
+        display.set(statusLine, "Saving...");
+        display.flush();
+        if (!stopRecording()) {
+            return;
+        }
+        File recording = new File(CONTROL_DATA_DIR, RECORDING_FILE_NAME);
+        if (recording.renameTo(new File(CONTROL_DATA_DIR, CONTROL_DATA_FILE_NAME))) {
+            saved = true;
+        } else {
+            display.set(errorLine, "Failed to save control data file: " + recording);
         }
+    }
 
-        int dataSize = controlDataList.size();
-        int progress = 0;
-        int step = 0;
-        int stepSize = dataSize / 100; // Step size for 1% progress, avoid division by zero if dataSize is less than 100
-
-        try (FileWriter writer = new FileWriter(file, false)) {
-            for (int i = 0; i < dataSize; i++) {
-                ControlData data = controlDataList.get(i);
-                writer.write(String.format("%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f%n",
-                        data.timestamp,
-                        data.frontLeftPower, data.frontRightPower, data.backLeftPower, data.backRightPower,
-                        data.armPower, data.chainPower, data.armRotatorPower, data.dropperPower));
-                // Update progress bar every stepSize records
-                if (i >= step * stepSize) {
-                    progress = (i + 1) * 100 / dataSize;
-                    telemetry.clear();
-                    telemetry.addData("Saving", "Progress: %d%%", progress);
-                    telemetry.update();
-                    step++;
-                }
-            }
-            // Ensure the progress bar is full when the save operation completes
-            telemetry.clear();
-            telemetry.addData("Saving", "Progress: %d%%", 100);
-            telemetry.update();
+    /** Closes the recording, if any; returns false if it could not be written completely. */
+    private boolean stopRecording() {
+        if (recorder == null) {
+            return false;
+        }
+        try {
+            recorder.close();
+            return true;
         } catch (IOException e) {
-            telemetry.clear();
-            telemetry.addData("Error", "Failed to save recorded data: " + e.getMessage());
-            telemetry.update();
+            display.set(errorLine, "Failed to save recorded data: " + e.getMessage());
+            return false;
+        } finally {
+            recorder = null;
         }
     }
+
+    /** Replaces the loop's lines with the recording result and what buffering the telemetry saved. */
+    private void showTelemetrySavings() {
+        display.hide(statusLine);
+        display.hide(poseLine);
+        display.hide(batteryLine);
+        display.set(display.slot("Telemetry sent"), "%.0f messages, %.1f kB",
+                display.getTransmitCount(), display.getBytesSent() / 1e3);
+        display.set(display.slot("Telemetry saved"), "%.1f kB, %.0f ms of loop time",
+                display.getBytesSaved() / 1e3, display.getEstimatedTimeSavedNanos() / 1e6);
+        display.setIntervalNanos(0);
+        display.flush();
+    }
 }
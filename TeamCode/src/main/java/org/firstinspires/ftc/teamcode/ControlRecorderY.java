@@ -2,67 +2,71 @@ package org.firstinspires.ftc.teamcode;
 
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-import com.qualcomm.robotcore.hardware.CRServo;
-import com.qualcomm.robotcore.hardware.DcMotor;
 import org.firstinspires.ftc.robotcontroller.internal.Log;
-
-import java.util.ArrayList;
-import java.util.List;
+import org.firstinspires.ftc.teamcode.control.DriverInput;
+import org.firstinspires.ftc.teamcode.hardware.BulkReadManager;
+import org.firstinspires.ftc.teamcode.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.hardware.SdkHardware;
+import org.firstinspires.ftc.teamcode.replay.ReplayScheduler;
+import org.firstinspires.ftc.teamcode.replay.SampleBuffer;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.FixedRateLoop;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
 
 @TeleOp(name="ControlRecorderY", group="Linear Opmode")
 public class ControlRecorderY extends LinearOpMode {
 
-    private DcMotor frontLeft, frontRight, backLeft, backRight, chainDrive, frontArm;
-    private CRServo armRotator, dropper;
+    private RobotIO io;
+    private BulkReadManager bulkRead;
+    private OutputStage outputs;
+    private RobotIO control;
+    private final DriverInput input = new DriverInput();
     private Log logger;
+    private final LoopProfiler profiler = new LoopProfiler();
+
+    private static final double LOOP_FREQUENCY_HZ = 50;
+    // Every 5 s, a log row also carries the p50/p99/max of the loop and its phases so far
+    private static final int LOG_SUMMARY_INTERVAL_ROWS = 250;
+    private long loggedRows;
+    private final FixedRateLoop loop = new FixedRateLoop(LOOP_FREQUENCY_HZ, FixedRateLoop.CatchUpPolicy.SKIP);
 
     private int upperLimit = -45;
     private int lowerLimit = -130;
     private double armSpeed = 0.75;
     private int armPosition;
 
-    private List<ControlData> controlDataList = new ArrayList<>();
+    private static final int CHANNEL_COUNT = RobotIO.OUTPUT_COUNT;
+    private final SampleBuffer recordedControls = new SampleBuffer(CHANNEL_COUNT, 4096);
+    private final float[] sample = new float[CHANNEL_COUNT];
+    private ReplayScheduler replayScheduler;
     private boolean replayMode = false;
-    private int replayIndex = 0;
     private long replayStartTime;
 
-    private static class ControlData {
-        long timestamp;
-        double frontLeftPower, frontRightPower, backLeftPower, backRightPower;
-        double armPower, chainPower, armRotatorPower, dropperPower;
-        int armPosition;
-
-        ControlData(long timestamp, double fl, double fr, double bl, double br,
-                    double armP, double chainP, double armRotatorP, double dropperP, int armPos) {
-            this.timestamp = timestamp;
-            frontLeftPower = fl;
-            frontRightPower = fr;
-            backLeftPower = bl;
-            backRightPower = br;
-            armPower = armP;
-            chainPower = chainP;
-            armRotatorPower = armRotatorP;
-            dropperPower = dropperP;
-            armPosition = armPos;
-        }
-    }
-
     @Override
     public void runOpMode() {
         // Initialize hardware and logger
         initializeHardware();
         logger = new Log("teleop_log", true);
+        logger.registerColumns("Timestamp", "FL", "FR", "BL", "BR", "Arm", "Chain", "Rotator", "Dropper", "Arm Position");
+        profiler.registerLogColumns(logger);
 
         waitForStart();
         replayStartTime = System.nanoTime();
 
-        while (opModeIsActive()) {
+        // Record and replay on the same fixed tick, so recorded timestamps are evenly spaced
+        FixedRateLoop.setLoopThreadPriority(Thread.NORM_PRIORITY + 2);
+        loop.start();
+        while (opModeIsActive() && loop.awaitNextTick()) {
+            profiler.startLoop();
+            boolean logging = !replayMode;
             if (!replayMode) {
                 // Process gamepad inputs
                 processInputs();
 
                 // Log inputs
                 logInputs();
+                profiler.endPhase(LoopProfiler.Phase.LOGGING);
 
                 // Start replay if 'Y' is pressed
                 if (gamepad1.y) {
@@ -71,132 +75,125 @@ public class ControlRecorderY extends LinearOpMode {
             } else {
                 // Replay recorded inputs
                 replayControls();
+                profiler.endPhase(LoopProfiler.Phase.HARDWARE_WRITE);
             }
 
             // Update telemetry
+            LoopTelemetry.addProfile(telemetry, profiler);
+            LoopTelemetry.addJitter(telemetry, loop);
             telemetry.update();
+            profiler.endPhase(LoopProfiler.Phase.TELEMETRY);
+
+            // Committed after the telemetry phase, so the row has the time of every phase of this loop
+            if (logging) {
+                profiler.addLogData(logger);
+                if (++loggedRows % LOG_SUMMARY_INTERVAL_ROWS == 0) {
+                    profiler.addLogSummary(logger);
+                }
+                logger.update();
+            }
         }
 
-        // Close the logger when done
+        // A last row with the summary of the whole run, then close the logger
+        profiler.addLogSummary(logger);
+        logger.update();
         logger.close();
     }
 
     private void initializeHardware() {
-        frontLeft = hardwareMap.get(DcMotor.class, "front_left_motor");
-        frontRight = hardwareMap.get(DcMotor.class, "front_right_motor");
-        backLeft = hardwareMap.get(DcMotor.class, "back_left_motor");
-        backRight = hardwareMap.get(DcMotor.class, "back_right_motor");
-        chainDrive = hardwareMap.get(DcMotor.class, "chain_drive");
-        frontArm = hardwareMap.get(DcMotor.class, "front_arm_motor");
-        armRotator = hardwareMap.get(CRServo.class, "arm_rotator_servo");
-        dropper = hardwareMap.get(CRServo.class, "drop_servo");
-
-        frontLeft.setDirection(DcMotor.Direction.REVERSE);
-        backLeft.setDirection(DcMotor.Direction.REVERSE);
-        frontArm.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-
-        frontArm.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        frontArm.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        io = SdkHardware.createRobotIO(hardwareMap);
+        bulkRead = new BulkReadManager(hardwareMap, io);
+        outputs = new OutputStage(io);
+        control = outputs.buffered();
     }
 
     private void processInputs() {
-        double drive = -gamepad1.left_stick_y;
-        double strafe = gamepad1.left_stick_x;
-        double rotate = gamepad1.right_stick_x;
+        bulkRead.update(); // the only encoder reads this cycle; io returns the cached values afterwards
+        SdkHardware.readDriverInput(input, gamepad1, gamepad2);
+        double drive = input.driveY;
+        double strafe = input.driveX;
+        double rotate = input.turn;
         double frontLeftPower = drive + strafe + rotate;
         double frontRightPower = drive - strafe - rotate;
         double backLeftPower = drive - strafe + rotate;
         double backRightPower = drive + strafe - rotate;
 
-        armPosition = frontArm.getCurrentPosition();
-        double armPower = (gamepad1.right_trigger - gamepad1.left_trigger) * armSpeed;
-        if ((armPosition >= upperLimit && gamepad1.right_trigger > 0)
-                || (armPosition <= lowerLimit && gamepad1.left_trigger > 0)) {
+        armPosition = io.frontArm.getCurrentPosition();
+        profiler.endPhase(LoopProfiler.Phase.HARDWARE_READ);
+
+        double armPower = (input.armUp - input.armDown) * armSpeed;
+        if ((armPosition >= upperLimit && input.armUp > 0)
+                || (armPosition <= lowerLimit && input.armDown > 0)) {
             armPower = 0;
         }
 
-        double chainPower = gamepad2.right_trigger - gamepad2.left_trigger;
-        double armRotatorPower = gamepad2.left_stick_y;
-        double dropperPower = gamepad2.right_stick_y;
-
-        frontLeft.setPower(frontLeftPower);
-        frontRight.setPower(frontRightPower);
-        backLeft.setPower(backLeftPower);
-        backRight.setPower(backRightPower);
-        frontArm.setPower(armPower);
-        chainDrive.setPower(chainPower);
-        armRotator.setPower(armRotatorPower);
-        dropper.setPower(dropperPower);
+        double chainPower = input.chainForward - input.chainReverse;
+        double armRotatorPower = input.armRotator;
+        double dropperPower = input.dropperStick;
+        profiler.endPhase(LoopProfiler.Phase.COMPUTE);
+
+        control.frontLeft.setPower(frontLeftPower);
+        control.frontRight.setPower(frontRightPower);
+        control.backLeft.setPower(backLeftPower);
+        control.backRight.setPower(backRightPower);
+        control.frontArm.setPower(armPower);
+        control.chainDrive.setPower(chainPower);
+        control.armRotator.setPower(armRotatorPower);
+        control.dropper.setPower(dropperPower);
+        outputs.flush();
+        profiler.endPhase(LoopProfiler.Phase.HARDWARE_WRITE);
 
         // Record the control inputs
         long timestamp = System.nanoTime() - replayStartTime;
-        controlDataList.add(new ControlData(timestamp, frontLeftPower, frontRightPower, backLeftPower, backRightPower,
-                armPower, chainPower, armRotatorPower, dropperPower, armPosition));
+        sample[0] = (float) frontLeftPower;
+        sample[1] = (float) frontRightPower;
+        sample[2] = (float) backLeftPower;
+        sample[3] = (float) backRightPower;
+        sample[4] = (float) armPower;
+        sample[5] = (float) chainPower;
+        sample[6] = (float) armRotatorPower;
+        sample[7] = (float) dropperPower;
+        recordedControls.add(timestamp, sample);
     }
 
     private void logInputs() {
         // Capture the current time and data, then log it
         long timestamp = System.nanoTime() - replayStartTime;
         logger.addData("Timestamp", timestamp);
-        logger.addData("FL", frontLeft.getPower());
-        logger.addData("FR", frontRight.getPower());
-        logger.addData("BL", backLeft.getPower());
-        logger.addData("BR", backRight.getPower());
-        logger.addData("Arm", frontArm.getPower());
-        logger.addData("Chain", chainDrive.getPower());
-        logger.addData("Rotator", armRotator.getPower());
-        logger.addData("Dropper", dropper.getPower());
+        logger.addData("FL", control.frontLeft.getPower());
+        logger.addData("FR", control.frontRight.getPower());
+        logger.addData("BL", control.backLeft.getPower());
+        logger.addData("BR", control.backRight.getPower());
+        logger.addData("Arm", control.frontArm.getPower());
+        logger.addData("Chain", control.chainDrive.getPower());
+        logger.addData("Rotator", control.armRotator.getPower());
+        logger.addData("Dropper", control.dropper.getPower());
         logger.addData("Arm Position", armPosition);
-
-        // Update the log file with the recorded data
-        logger.update();
     }
 
     private void startReplay() {
         replayMode = true;
-        replayIndex = 0;
-        replayStartTime = System.nanoTime(); // Reset the start time for replay
+        replayScheduler = new ReplayScheduler(recordedControls, control::applyPowers, Clock.SYSTEM, ReplayScheduler.Mode.SKIP);
+        replayScheduler.start(); // Rebases the recorded timestamps onto the replay start time
     }
 
     private void replayControls() {
-        if (replayIndex < controlDataList.size()) {
-            ControlData data = controlDataList.get(replayIndex);
-
-            // Calculate the elapsed time since replay started
-            long currentTime = System.nanoTime();
-            long elapsedTime = currentTime - replayStartTime;
-
-            // Check if we should apply the next set of saved inputs
-            if (elapsedTime >= data.timestamp) {
-                // Set motors and servos to recorded values
-                frontLeft.setPower(data.frontLeftPower);
-                frontRight.setPower(data.frontRightPower);
-                backLeft.setPower(data.backLeftPower);
-                backRight.setPower(data.backRightPower);
-                frontArm.setPower(data.armPower);
-                chainDrive.setPower(data.chainPower);
-                armRotator.setPower(data.armRotatorPower);
-                dropper.setPower(data.dropperPower);
-
-                // Increment the replay index to the next set of saved inputs
-                replayIndex++;
-            }
-        } else {
+        // Apply whichever recorded sample is due now, skipping any the loop was too slow to reach
+        boolean replaying = replayScheduler.step();
+        outputs.flush();
+        if (!replaying) {
             // Replay finished, stop all motion and exit replay mode
             stopAllMotion();
             replayMode = false;
-            telemetry.addData("Replay", "Finished");
+            telemetry.addData("Replay", "Finished: %d applied, %d skipped",
+                    replayScheduler.getAppliedCount(), replayScheduler.getSkippedCount());
+            telemetry.addData("Lateness", "mean %.2f ms, max %.2f ms",
+                    replayScheduler.getMeanLatenessNanos() / 1e6, replayScheduler.getMaxLatenessNanos() / 1e6);
         }
     }
 
     private void stopAllMotion() {
-        frontLeft.setPower(0);
-        frontRight.setPower(0);
-        backLeft.setPower(0);
-        backRight.setPower(0);
-        frontArm.setPower(0);
-        chainDrive.setPower(0);
-        armRotator.setPower(0);
-        dropper.setPower(0);
+        control.stopAll();
+        outputs.flush();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.hardware.SensorPoller;
+import org.firstinspires.ftc.teamcode.util.FixedRateLoop;
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.firstinspires.ftc.teamcode.util.TelemetryBuffer;
+import org.firstinspires.ftc.teamcode.vision.AdaptiveDetectionController;
+import org.firstinspires.ftc.teamcode.vision.CameraSwitcher;
+import org.firstinspires.ftc.teamcode.vision.VisionScheduler;
+
+/** Shows {@link LoopProfiler}, {@link FixedRateLoop} and vision statistics on the Driver Station. */
+public final class LoopTelemetry {
+    private static final LoopProfiler.Phase[] PHASES = LoopProfiler.Phase.values();
+
+    private LoopTelemetry() {
+    }
+
+    /** Adds one "p50 / p99 / max" line for the whole loop and for every phase that has samples. */
+    public static void addProfile(Telemetry telemetry, LoopProfiler profiler) {
+        StringBuilder line = new StringBuilder(32);
+        telemetry.addData("Loop p50/p99/max", LoopProfiler.formatSummary(profiler.getLoopHistogram(), line).toString());
+        for (LoopProfiler.Phase phase : PHASES) {
+            LatencyHistogram histogram = profiler.getHistogram(phase);
+            if (histogram.getCount() > 0) {
+                line.setLength(0);
+                telemetry.addData(phase.label, LoopProfiler.formatSummary(histogram, line).toString());
+            }
+        }
+    }
+
+    /** {@link #addProfile(Telemetry, LoopProfiler)} for a {@link TelemetryBuffer}; allocates nothing. */
+    public static void addProfile(TelemetryBuffer telemetry, LoopProfiler profiler) {
+        telemetry.set(telemetry.slot("Loop p50/p99/max"), profiler.getLoopHistogram());
+        for (LoopProfiler.Phase phase : PHASES) {
+            LatencyHistogram histogram = profiler.getHistogram(phase);
+            if (histogram.getCount() > 0) {
+                telemetry.set(telemetry.slot(phase.label), histogram);
+            }
+        }
+    }
+
+    /** Adds the tick start jitter and overrun counts of a fixed-rate loop. */
+    public static void addJitter(Telemetry telemetry, FixedRateLoop loop) {
+        StringBuilder line = new StringBuilder(32);
+        telemetry.addData("Tick jitter p50/p99/max", LoopProfiler.formatSummary(loop.getJitter(), line).toString());
+        telemetry.addData("Ticks", "%d, %d overrun, %d skipped",
+                loop.getTickCount(), loop.getOverrunCount(), loop.getSkippedTicks());
+    }
+
+    /** {@link #addJitter(Telemetry, FixedRateLoop)} for a {@link TelemetryBuffer}; allocates nothing. */
+    public static void addJitter(TelemetryBuffer telemetry, FixedRateLoop loop) {
+        telemetry.set(telemetry.slot("Tick jitter p50/p99/max"), loop.getJitter());
+        telemetry.set(telemetry.slot("Ticks"), "%.0f, %.0f overrun, %.0f skipped",
+                loop.getTickCount(), loop.getOverrunCount(), loop.getSkippedTicks());
+    }
+
+    /** Adds the frame rate, decimation, region of interest and capture-to-result latency of a camera. */
+    public static void addDetection(Telemetry telemetry, AdaptiveDetectionController detection) {
+        StringBuilder line = new StringBuilder(32);
+        telemetry.addData("Vision", "%.1f fps, decimation %d, %s", detection.getFramesPerSecond(),
+                detection.getDecimation(), detection.hasRoi() ? "ROI" : "full frame");
+        telemetry.addData("Detect p50/p99/max", LoopProfiler.formatSummary(detection.getProcessingTime(), line).toString());
+        line.setLength(0);
+        telemetry.addData("Latency p50/p99/max", LoopProfiler.formatSummary(detection.getLatency(), line).toString());
+    }
+
+    /** Adds, per vision processor, how often it ran and its CPU time per run. */
+    public static void addVisionSchedule(Telemetry telemetry, VisionScheduler scheduler) {
+        StringBuilder line = new StringBuilder(48);
+        for (VisionScheduler.Slot slot : scheduler.getSlots()) {
+            line.setLength(0);
+            line.append(String.format("%.1f Hz, cpu ", slot.getRunRate()));
+            LoopProfiler.formatSummary(slot.getCpuTime(), line);
+            telemetry.addData(slot.name, line.toString());
+        }
+    }
+
+    /** Adds the active camera, the switch latency and how many frames each camera has processed. */
+    public static void addCameraSwitch(Telemetry telemetry, CameraSwitcher switcher) {
+        StringBuilder line = new StringBuilder(32);
+        telemetry.addData("Camera", "%d%s", switcher.getActive() + 1, switcher.isSwitching() ? " (switching)" : "");
+        telemetry.addData("Switch p50/p99/max", LoopProfiler.formatSummary(switcher.getSwitchLatency(), line).toString());
+        line.setLength(0);
+        for (int i = 0; i < switcher.getCameraCount(); i++) {
+            line.append(i == 0 ? "" : ", ").append(switcher.getProcessedFrames(i));
+        }
+        telemetry.addData("Frames processed", line.toString());
+    }
+
+    /** Adds, per polled sensor, the bus time of its reads, the age of its values and its error count. */
+    public static void addSensorPoller(Telemetry telemetry, SensorPoller poller) {
+        StringBuilder line = new StringBuilder(64);
+        long now = System.nanoTime();
+        for (SensorPoller.Slot slot : poller.getSlots()) {
+            line.setLength(0);
+            line.append("read ");
+            LoopProfiler.formatSummary(slot.getReadTime(), line);
+            if (slot.hasValue()) {
+                line.append(String.format(", %.0f ms old", (now - slot.getTimestampNanos()) / 1e6));
+            }
+            if (slot.getErrorCount() > 0) {
+                line.append(", ").append(slot.getErrorCount()).append(" errors");
+            }
+            telemetry.addData(slot.name, line.toString());
+        }
+    }
+}
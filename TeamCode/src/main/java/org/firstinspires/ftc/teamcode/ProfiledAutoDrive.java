@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+
+import org.firstinspires.ftc.teamcode.control.ActionScheduler;
+import org.firstinspires.ftc.teamcode.control.ActionSequence;
+import org.firstinspires.ftc.teamcode.control.ProfiledDrive;
+import org.firstinspires.ftc.teamcode.control.ProfiledMotorMove;
+import org.firstinspires.ftc.teamcode.control.ProfiledTurn;
+import org.firstinspires.ftc.teamcode.hardware.BulkReadManager;
+import org.firstinspires.ftc.teamcode.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.hardware.PolledHeading;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.hardware.SdkHardware;
+import org.firstinspires.ftc.teamcode.hardware.SensorPoller;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.FixedRateLoop;
+
+/**
+ * The drive / turn / hold / drive path of {@code RobotAutoDriveByGyro_Linear}, run as profiled
+ * actions on the fixed-rate loop instead of blocking inner loops, with the arm raised at the same
+ * time. Needs the IMU, which is read in the background at its update rate (see
+ * {@link PolledHeading}) rather than once per heading query as the sample does.
+ */
+@Autonomous(name="ProfiledAutoDrive", group="Linear Opmode")
+public class ProfiledAutoDrive extends LinearOpMode {
+    private static final double LOOP_FREQUENCY_HZ = 50;
+    private static final int ARM_RAISED_TICKS = 300;
+    // Arm motor encoder speed at full power
+    private static final double ARM_MAX_TICKS_PER_SECOND = 400;
+    private static final double IMU_RATE_HZ = 100;
+
+    @Override
+    public void runOpMode() {
+        RobotIO io = SdkHardware.createRobotIO(hardwareMap);
+        BulkReadManager bulkRead = new BulkReadManager(hardwareMap, io);
+        OutputStage outputs = new OutputStage(io);
+        RobotIO control = outputs.buffered();
+        SensorPoller poller = new SensorPoller(Clock.SYSTEM);
+        PolledHeading heading = SdkHardware.createPolledHeadingSource(hardwareMap, poller, IMU_RATE_HZ);
+        if (heading == null) {
+            telemetry.addData("Error", "IMU not found");
+            telemetry.update();
+            waitForStart();
+            return;
+        }
+
+        ProfiledTurn holdLeft = new ProfiledTurn(control, heading, Math.toRadians(45));
+        holdLeft.holdNanos = 500_000_000L;
+        ActionSequence path = new ActionSequence()
+                .then(new ProfiledDrive(control, heading, 1.2, 0))
+                .then(new ProfiledTurn(control, heading, Math.toRadians(-45)))
+                .then(new ProfiledDrive(control, heading, 0.4, Math.toRadians(-45)))
+                .then(holdLeft)
+                .then(new ProfiledDrive(control, heading, 0.4, Math.toRadians(45)))
+                .then(new ProfiledTurn(control, heading, 0))
+                .then(new ProfiledDrive(control, heading, -1.2, 0));
+        ActionScheduler actions = new ActionScheduler(Clock.SYSTEM);
+        poller.start();
+
+        waitForStart();
+        FixedRateLoop loop = new FixedRateLoop(LOOP_FREQUENCY_HZ, FixedRateLoop.CatchUpPolicy.SKIP);
+        FixedRateLoop.setLoopThreadPriority(Thread.NORM_PRIORITY + 2);
+        bulkRead.update();
+        actions.schedule(path);
+        actions.schedule(new ProfiledMotorMove(control.frontArm, ARM_RAISED_TICKS, ARM_MAX_TICKS_PER_SECOND));
+        long startNanos = System.nanoTime();
+        loop.start();
+        while (opModeIsActive() && loop.awaitNextTick() && actions.getRunningCount() > 0) {
+            bulkRead.update();
+            actions.update();
+            outputs.flush();
+
+            telemetry.addData("Step", "%d, %.1f s", path.getStep(), (System.nanoTime() - startNanos) / 1e9);
+            telemetry.update();
+        }
+        boolean finished = actions.getRunningCount() == 0;
+        actions.cancelAll();
+        control.stopAll();
+        outputs.flush();
+
+        telemetry.addData("Path", "%s in %.1f s", finished ? "finished" : "stopped",
+                (System.nanoTime() - startNanos) / 1e9);
+        telemetry.addData("Heading", "%d queries, %d IMU reads", heading.getQueryCount(), heading.getReadCount());
+        LoopTelemetry.addSensorPoller(telemetry, poller);
+        LoopTelemetry.addJitter(telemetry, loop);
+        telemetry.update();
+        poller.close();
+    }
+}
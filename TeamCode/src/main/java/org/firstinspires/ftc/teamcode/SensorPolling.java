@@ -0,0 +1,104 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.hardware.dfrobot.HuskyLens;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.NormalizedColorSensor;
+
+import org.firstinspires.ftc.teamcode.control.DriverInput;
+import org.firstinspires.ftc.teamcode.control.TeleopController;
+import org.firstinspires.ftc.teamcode.hardware.BulkReadManager;
+import org.firstinspires.ftc.teamcode.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.hardware.SdkHardware;
+import org.firstinspires.ftc.teamcode.hardware.SdkSensors;
+import org.firstinspires.ftc.teamcode.hardware.SensorPoller;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.FixedRateLoop;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+
+/**
+ * TeleOp driving with the I2C sensors of the sensor samples (REV 2m distance "distance", color
+ * sensor "color", HuskyLens "huskylens", IMU "imu", whichever are configured) read by a
+ * {@link SensorPoller} in the background. The loop only copies their latest values, so its timing
+ * shows no I2C reads at all; the poller's own read times are shown per sensor.
+ */
+@TeleOp(name="SensorPolling", group="Linear Opmode")
+public class SensorPolling extends LinearOpMode {
+    private static final double LOOP_FREQUENCY_HZ = 50;
+    private static final double DISTANCE_RATE_HZ = 20;
+    private static final double COLOR_RATE_HZ = 10;
+    // HuskyLens answers slowly; SensorHuskyLens reads it once a second
+    private static final double HUSKY_RATE_HZ = 5;
+    private static final double IMU_RATE_HZ = 100;
+
+    private final double[] color = new double[SdkSensors.COLOR_VALUES];
+    private final double[] husky = new double[SdkSensors.HUSKY_VALUES];
+    private final DriverInput input = new DriverInput();
+    private final LoopProfiler profiler = new LoopProfiler();
+
+    @Override
+    public void runOpMode() {
+        RobotIO io = SdkHardware.createRobotIO(hardwareMap);
+        BulkReadManager bulkRead = new BulkReadManager(hardwareMap, io);
+        OutputStage outputs = new OutputStage(io);
+        RobotIO control = outputs.buffered();
+        TeleopController teleop = new TeleopController(control);
+
+        SensorPoller poller = new SensorPoller(Clock.SYSTEM);
+        DistanceSensor distanceSensor = hardwareMap.tryGet(DistanceSensor.class, "distance");
+        SensorPoller.Slot distance = distanceSensor == null ? null
+                : SdkSensors.addDistance(poller, "Distance", distanceSensor, DISTANCE_RATE_HZ);
+        NormalizedColorSensor colorSensor = hardwareMap.tryGet(NormalizedColorSensor.class, "color");
+        SensorPoller.Slot colorSlot = colorSensor == null ? null
+                : SdkSensors.addColor(poller, "Color", colorSensor, COLOR_RATE_HZ);
+        HuskyLens huskyLens = hardwareMap.tryGet(HuskyLens.class, "huskylens");
+        SensorPoller.Slot huskySlot = huskyLens == null ? null
+                : SdkSensors.addHuskyLens(poller, "HuskyLens", huskyLens, HUSKY_RATE_HZ);
+        IMU imu = SdkHardware.initializeImu(hardwareMap);
+        SensorPoller.Slot imuSlot = imu == null ? null : SdkSensors.addImu(poller, "IMU", imu, IMU_RATE_HZ);
+        poller.start();
+
+        waitForStart();
+        FixedRateLoop loop = new FixedRateLoop(LOOP_FREQUENCY_HZ, FixedRateLoop.CatchUpPolicy.SKIP);
+        FixedRateLoop.setLoopThreadPriority(Thread.NORM_PRIORITY + 2);
+        loop.start();
+        while (opModeIsActive() && loop.awaitNextTick()) {
+            profiler.startLoop();
+            bulkRead.update();
+            SdkHardware.readDriverInput(input, gamepad1, gamepad2);
+            profiler.endPhase(LoopProfiler.Phase.HARDWARE_READ);
+            teleop.update(input);
+            profiler.endPhase(LoopProfiler.Phase.COMPUTE);
+            outputs.flush();
+            profiler.endPhase(LoopProfiler.Phase.HARDWARE_WRITE);
+
+            if (distance != null && distance.hasValue()) {
+                telemetry.addData("Distance", "%.1f cm", distance.get(SdkSensors.DISTANCE_METERS) * 100);
+            }
+            if (colorSlot != null && colorSlot.read(color) != 0) {
+                telemetry.addData("Color", "r %.3f g %.3f b %.3f, %.1f cm", color[SdkSensors.COLOR_RED],
+                        color[SdkSensors.COLOR_GREEN], color[SdkSensors.COLOR_BLUE],
+                        color[SdkSensors.COLOR_DISTANCE_METERS] * 100);
+            }
+            if (huskySlot != null && huskySlot.read(husky) != 0) {
+                telemetry.addData("Blocks", "%.0f, first id %.0f at %.0f/%.0f", husky[SdkSensors.HUSKY_BLOCK_COUNT],
+                        husky[SdkSensors.HUSKY_ID], husky[SdkSensors.HUSKY_X], husky[SdkSensors.HUSKY_Y]);
+            }
+            if (imuSlot != null && imuSlot.hasValue()) {
+                telemetry.addData("Heading", "%.1f deg", Math.toDegrees(imuSlot.get(SdkSensors.IMU_YAW)));
+            }
+            LoopTelemetry.addSensorPoller(telemetry, poller);
+            LoopTelemetry.addProfile(telemetry, profiler);
+            LoopTelemetry.addJitter(telemetry, loop);
+            telemetry.update();
+            profiler.endPhase(LoopProfiler.Phase.TELEMETRY);
+        }
+        teleop.stop();
+        control.stopAll();
+        outputs.flush();
+        poller.close();
+    }
+}
@@ -0,0 +1,61 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+
+import org.firstinspires.ftc.teamcode.hardware.MultiCameraManager;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+
+import java.util.List;
+
+/**
+ * AprilTag detection on two webcams, switched with gamepad 1's bumpers (left: Webcam 1, right:
+ * Webcam 2). Both cameras stream from init on and each has its own AprilTag processor, so a switch
+ * takes effect on the new camera's next frame; the switch latency is shown on the Driver Station.
+ */
+@TeleOp(name="SwitchableCameras", group="Linear Opmode")
+public class SwitchableCameras extends LinearOpMode {
+    private static final String[] WEBCAMS = { "Webcam 1", "Webcam 2" };
+
+    @Override
+    public void runOpMode() {
+        AprilTagProcessor[] aprilTags = new AprilTagProcessor[WEBCAMS.length];
+        VisionProcessor[][] processors = new VisionProcessor[WEBCAMS.length][];
+        for (int i = 0; i < WEBCAMS.length; i++) {
+            aprilTags[i] = new AprilTagProcessor.Builder().build();
+            processors[i] = new VisionProcessor[] { aprilTags[i] };
+        }
+        MultiCameraManager cameras = new MultiCameraManager(hardwareMap, WEBCAMS, processors);
+
+        while (opModeInInit()) {
+            telemetry.addData("Cameras", cameras.isReady() ? "streaming" : "starting...");
+            telemetry.update();
+            sleep(50);
+        }
+
+        while (opModeIsActive()) {
+            if (gamepad1.left_bumper) {
+                cameras.switchTo(0);
+            } else if (gamepad1.right_bumper) {
+                cameras.switchTo(1);
+            }
+
+            List<AprilTagDetection> detections = aprilTags[cameras.getActive()].getDetections();
+            telemetry.addData("AprilTags", detections.size());
+            for (AprilTagDetection detection : detections) {
+                if (detection.metadata != null) {
+                    telemetry.addLine(String.format("ID %d %s, range %.1f in", detection.id, detection.metadata.name,
+                            detection.ftcPose.range));
+                } else {
+                    telemetry.addLine(String.format("ID %d unknown", detection.id));
+                }
+            }
+            LoopTelemetry.addCameraSwitch(telemetry, cameras.getSwitcher());
+            telemetry.update();
+            sleep(20);
+        }
+        cameras.close();
+    }
+}
@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/**
+ * A unit of work that runs over several control cycles, driven by an {@link ActionScheduler}.
+ * Implementations must never block; they look at the time and do one cycle's worth of work.
+ */
+public interface Action {
+    /** Called once when the action is scheduled. */
+    void start(long nowNanos);
+
+    /**
+     * Called every cycle while the action is running.
+     *
+     * @return true to keep running, false when the action is finished
+     */
+    boolean update(long nowNanos);
+
+    /** Called if the action is cancelled before it finished. */
+    void cancel();
+}
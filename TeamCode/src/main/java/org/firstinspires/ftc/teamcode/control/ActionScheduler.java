@@ -0,0 +1,80 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Runs {@link Action}s alongside the control loop. Call {@link #update()} once per cycle, after
+ * the regular control code has written its outputs, so running actions take precedence for the
+ * actuators they drive. Scheduling and updating do not allocate.
+ */
+public class ActionScheduler {
+    private static final int MAX_ACTIONS = 16;
+
+    private final Clock clock;
+    private final Action[] running = new Action[MAX_ACTIONS];
+    private int runningCount;
+
+    public ActionScheduler(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** Starts {@code action} unless it is already running. */
+    public void schedule(Action action) {
+        if (isRunning(action)) {
+            return;
+        }
+        if (runningCount == MAX_ACTIONS) {
+            throw new IllegalStateException("Too many concurrent actions");
+        }
+        action.start(clock.nanoTime());
+        running[runningCount++] = action;
+    }
+
+    public boolean isRunning(Action action) {
+        for (int i = 0; i < runningCount; i++) {
+            if (running[i] == action) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Gives every running action one cycle and drops the ones that finished. */
+    public void update() {
+        long now = clock.nanoTime();
+        int kept = 0;
+        for (int i = 0; i < runningCount; i++) {
+            Action action = running[i];
+            if (action.update(now)) {
+                running[kept++] = action;
+            }
+        }
+        for (int i = kept; i < runningCount; i++) {
+            running[i] = null;
+        }
+        runningCount = kept;
+    }
+
+    public void cancel(Action action) {
+        for (int i = 0; i < runningCount; i++) {
+            if (running[i] == action) {
+                action.cancel();
+                System.arraycopy(running, i + 1, running, i, runningCount - i - 1);
+                running[--runningCount] = null;
+                return;
+            }
+        }
+    }
+
+    public void cancelAll() {
+        for (int i = 0; i < runningCount; i++) {
+            running[i].cancel();
+            running[i] = null;
+        }
+        runningCount = 0;
+    }
+
+    public int getRunningCount() {
+        return runningCount;
+    }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link Action} that runs other actions one after the other, each starting in the cycle the
+ * previous one finished. Schedule several sequences (or a sequence and single actions) to move
+ * mechanisms at the same time.
+ */
+public class ActionSequence implements Action {
+    private final List<Action> steps = new ArrayList<>();
+    private Action[] actions;
+    private int step;
+
+    public ActionSequence then(Action action) {
+        steps.add(action);
+        actions = null;
+        return this;
+    }
+
+    @Override
+    public void start(long nowNanos) {
+        if (actions == null) {
+            actions = steps.toArray(new Action[0]);
+        }
+        step = 0;
+        if (actions.length > 0) {
+            actions[0].start(nowNanos);
+        }
+    }
+
+    @Override
+    public boolean update(long nowNanos) {
+        while (step < actions.length) {
+            if (actions[step].update(nowNanos)) {
+                return true;
+            }
+            if (++step < actions.length) {
+                actions[step].start(nowNanos);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void cancel() {
+        if (step < actions.length) {
+            actions[step].cancel();
+        }
+    }
+
+    /** Index of the running step; equal to the number of steps once finished. */
+    public int getStep() {
+        return step;
+    }
+}
@@ -0,0 +1,25 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/** Angle helpers, all in radians. */
+public final class Angles {
+    public static final double TWO_PI = 2 * Math.PI;
+
+    private Angles() {
+    }
+
+    /** Wraps {@code angle} into (-pi, pi]. */
+    public static double normalize(double angle) {
+        angle %= TWO_PI;
+        if (angle > Math.PI) {
+            angle -= TWO_PI;
+        } else if (angle <= -Math.PI) {
+            angle += TWO_PI;
+        }
+        return angle;
+    }
+
+    /** Returns the angle equivalent to {@code wrapped} that is closest to {@code reference}. */
+    public static double unwrap(double wrapped, double reference) {
+        return reference + normalize(wrapped - reference);
+    }
+}
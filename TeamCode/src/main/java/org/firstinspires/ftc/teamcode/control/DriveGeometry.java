@@ -0,0 +1,19 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/** Physical constants of our drivetrain, shared by odometry and simulation. */
+public final class DriveGeometry {
+    // goBILDA 5203 312 rpm on 96 mm mecanum wheels
+    public static final double DRIVE_TICKS_PER_REV = 537.7;
+    public static final double DRIVE_MAX_RPM = 312;
+    public static final double WHEEL_DIAMETER_METERS = 0.096;
+    /** Half the track width plus half the wheelbase. */
+    public static final double TURN_RADIUS_METERS = 0.32;
+
+    public static final double METERS_PER_TICK = Math.PI * WHEEL_DIAMETER_METERS / DRIVE_TICKS_PER_REV;
+    public static final double DRIVE_MAX_TICKS_PER_SECOND = DRIVE_TICKS_PER_REV * DRIVE_MAX_RPM / 60;
+    /** Free speed of a wheel at full power. */
+    public static final double MAX_WHEEL_SPEED_METERS_PER_SECOND = DRIVE_MAX_TICKS_PER_SECOND * METERS_PER_TICK;
+
+    private DriveGeometry() {
+    }
+}
@@ -0,0 +1,19 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/**
+ * The driver controls used by our TeleOp, decoupled from the SDK {@code Gamepad} so the control
+ * logic can run headless. Stick values follow the "up/right is positive" convention
+ * ({@code driveY} is already negated from {@code gamepad1.left_stick_y}).
+ */
+public class DriverInput {
+    // gamepad1
+    public double driveY, driveX, turn;
+    public double armUp, armDown;
+
+    // gamepad2
+    public double chainForward, chainReverse;
+    public double armRotator;
+    public double dropperStick;
+    public boolean dropperForward, dropperReverse;
+    public boolean dropperCycle;
+}
@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/** Mecanum drive mixing shared by TeleOp, replay and simulation. */
+public final class MecanumKinematics {
+    public static final int FRONT_LEFT = 0;
+    public static final int FRONT_RIGHT = 1;
+    public static final int BACK_LEFT = 2;
+    public static final int BACK_RIGHT = 3;
+
+    private MecanumKinematics() {
+    }
+
+    /**
+     * Mixes drive (forward), strafe (right) and rotate (clockwise) commands into wheel powers,
+     * scaled down so no wheel exceeds 1.0.
+     *
+     * @param out receives front left, front right, back left, back right
+     */
+    public static void wheelPowers(double drive, double strafe, double rotate, double[] out) {
+        double frontLeft = drive + strafe + rotate;
+        double frontRight = drive - strafe - rotate;
+        double backLeft = drive - strafe + rotate;
+        double backRight = drive + strafe - rotate;
+
+        double max = Math.max(Math.max(Math.abs(frontLeft), Math.abs(frontRight)),
+                Math.max(Math.abs(backLeft), Math.abs(backRight)));
+        if (max > 1.0) {
+            frontLeft /= max;
+            frontRight /= max;
+            backLeft /= max;
+            backRight /= max;
+        }
+        out[FRONT_LEFT] = frontLeft;
+        out[FRONT_RIGHT] = frontRight;
+        out[BACK_LEFT] = backLeft;
+        out[BACK_RIGHT] = backRight;
+    }
+
+    /**
+     * Inverse of the mixing: recovers drive, strafe and rotate components from four wheel values
+     * (powers, velocities or distances).
+     *
+     * @param out receives drive, strafe, rotate
+     */
+    public static void chassisMotion(double frontLeft, double frontRight, double backLeft, double backRight,
+                                     double[] out) {
+        out[0] = (frontLeft + frontRight + backLeft + backRight) / 4;
+        out[1] = (frontLeft - frontRight - backLeft + backRight) / 4;
+        out[2] = (frontLeft - frontRight + backLeft - backRight) / 4;
+    }
+}
@@ -0,0 +1,248 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.HeadingSource;
+import org.firstinspires.ftc.teamcode.hardware.MotorChannel;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Field pose estimate from the four drive encoders and, if available, the IMU.
+ *
+ * Every {@link #update()} converts the encoder deltas since the last update into a robot-relative
+ * forward/strafe/rotation twist with the inverse of {@link MecanumKinematics}, replaces the rotation
+ * with the IMU's heading change when an IMU is present (wheel slip makes encoder rotation the least
+ * reliable part of mecanum odometry), and integrates the twist assuming constant velocity along an
+ * arc over the interval.
+ *
+ * Integration happens in an odometry frame that starts at the origin; a rigid transform maps it
+ * onto the field. {@link #setPose} and {@link #applyCorrection} only change that transform, so the
+ * {@link PoseHistory} of odometry poses stays valid and later latency-compensated corrections can
+ * still look up where the robot was when their measurement was taken.
+ *
+ * Call {@link #update()} once per loop, after the cycle's bulk read. It does not allocate.
+ */
+public class MecanumOdometry {
+    /** Two seconds of history at 50 Hz. */
+    public static final int DEFAULT_HISTORY_SIZE = 100;
+
+    private final MotorChannel[] wheels;
+    private final HeadingSource headingSource;
+    private final Clock clock;
+    private final double metersPerTick;
+    private final double turnRadius;
+    private final PoseHistory history;
+
+    private final int[] lastPositions = new int[4];
+    private final double[] chassis = new double[3];
+    private final Pose historical = new Pose();
+    private double rawX, rawY, rawHeading;
+    private double imuStartHeading;
+    private double lastImuHeading = Double.NaN;
+    private long lastNanos;
+    private boolean initialized;
+
+    // Odometry frame to field frame: rotate by frameRotation, then translate
+    private double frameRotation, frameCos = 1, frameSin, frameX, frameY;
+    private final Pose pose = new Pose();
+
+    private double forwardVelocity, leftVelocity, angularVelocity;
+    private double distanceTraveled, rotationTraveled;
+
+    /** @param headingSource may be null to estimate heading from the encoders alone */
+    public MecanumOdometry(RobotIO io, HeadingSource headingSource, Clock clock) {
+        this(io, headingSource, clock, DriveGeometry.METERS_PER_TICK, DriveGeometry.TURN_RADIUS_METERS,
+                DEFAULT_HISTORY_SIZE);
+    }
+
+    public MecanumOdometry(RobotIO io, HeadingSource headingSource, Clock clock,
+                           double metersPerTick, double turnRadiusMeters, int historySize) {
+        this.wheels = new MotorChannel[] {io.frontLeft, io.frontRight, io.backLeft, io.backRight};
+        this.headingSource = headingSource;
+        this.clock = clock;
+        this.metersPerTick = metersPerTick;
+        this.turnRadius = turnRadiusMeters;
+        this.history = new PoseHistory(historySize);
+    }
+
+    /** Reads the sensors and advances the pose estimate. */
+    public void update() {
+        long now = clock.nanoTime();
+        double imuHeading = headingSource != null ? headingSource.getHeadingRadians() : Double.NaN;
+        if (!initialized) {
+            for (int w = 0; w < 4; w++) {
+                lastPositions[w] = wheels[w].getCurrentPosition();
+            }
+            lastImuHeading = imuHeading;
+            imuStartHeading = Double.isNaN(imuHeading) ? 0 : imuHeading;
+            lastNanos = now;
+            initialized = true;
+            history.add(now, rawX, rawY, rawHeading);
+            return;
+        }
+
+        int fl = delta(MecanumKinematics.FRONT_LEFT);
+        int fr = delta(MecanumKinematics.FRONT_RIGHT);
+        int bl = delta(MecanumKinematics.BACK_LEFT);
+        int br = delta(MecanumKinematics.BACK_RIGHT);
+        MecanumKinematics.chassisMotion(fl, fr, bl, br, chassis);
+        double forward = chassis[0] * metersPerTick;
+        double left = -chassis[1] * metersPerTick;
+        double turn = -chassis[2] * metersPerTick / turnRadius;
+        if (!Double.isNaN(imuHeading)) {
+            // The IMU heading wraps at +/-pi; unwrap it against the previous reading
+            imuHeading = Angles.unwrap(imuHeading, lastImuHeading);
+            turn = imuHeading - lastImuHeading;
+            lastImuHeading = imuHeading;
+        }
+
+        integrate(forward, left, turn);
+        distanceTraveled += Math.hypot(forward, left);
+        rotationTraveled += Math.abs(turn);
+        if (!Double.isNaN(imuHeading)) {
+            // Pin the heading to the IMU instead of accumulating rounding error
+            rawHeading = imuHeading - imuStartHeading;
+        }
+
+        double dt = (now - lastNanos) / 1e9;
+        if (dt > 0) {
+            forwardVelocity = forward / dt;
+            leftVelocity = left / dt;
+            angularVelocity = turn / dt;
+        }
+        lastNanos = now;
+        history.add(now, rawX, rawY, rawHeading);
+        toField(rawX, rawY, rawHeading, pose);
+    }
+
+    private int delta(int wheel) {
+        int position = wheels[wheel].getCurrentPosition();
+        int delta = position - lastPositions[wheel];
+        lastPositions[wheel] = position;
+        return delta;
+    }
+
+    /**
+     * Applies a robot-relative twist, moving along the arc it describes rather than in a straight
+     * line, which keeps the estimate accurate while driving and turning at the same time.
+     */
+    private void integrate(double forward, double left, double turn) {
+        double sinTerm, cosTerm;
+        if (Math.abs(turn) < 1e-6) {
+            sinTerm = 1 - turn * turn / 6;
+            cosTerm = turn / 2;
+        } else {
+            sinTerm = Math.sin(turn) / turn;
+            cosTerm = (1 - Math.cos(turn)) / turn;
+        }
+        double dx = forward * sinTerm - left * cosTerm;
+        double dy = forward * cosTerm + left * sinTerm;
+        double cos = Math.cos(rawHeading);
+        double sin = Math.sin(rawHeading);
+        rawX += dx * cos - dy * sin;
+        rawY += dx * sin + dy * cos;
+        rawHeading += turn;
+    }
+
+    private void toField(double x, double y, double heading, Pose out) {
+        out.set(frameX + x * frameCos - y * frameSin,
+                frameY + x * frameSin + y * frameCos,
+                heading + frameRotation);
+    }
+
+    /** Points the odometry frame so that odometry pose {@code (x, y)} lands on field pose {@code target}. */
+    private void setFrame(double rotation, double x, double y, double targetX, double targetY) {
+        frameRotation = rotation;
+        frameCos = Math.cos(rotation);
+        frameSin = Math.sin(rotation);
+        frameX = targetX - (x * frameCos - y * frameSin);
+        frameY = targetY - (x * frameSin + y * frameCos);
+        toField(rawX, rawY, rawHeading, pose);
+    }
+
+    /** Current field pose estimate; the instance is updated in place. */
+    public Pose getPose() {
+        return pose;
+    }
+
+    /** Declares the robot to be at {@code x, y, heading} on the field now. */
+    public void setPose(double x, double y, double heading) {
+        setFrame(heading - rawHeading, rawX, rawY, x, y);
+    }
+
+    /** Field pose at an earlier time (same clock as the constructor's), interpolated from the history. */
+    public boolean getPoseAt(long timestampNanos, Pose out) {
+        if (!history.getPoseAt(timestampNanos, historical)) {
+            return false;
+        }
+        toField(historical.x, historical.y, historical.heading, out);
+        return true;
+    }
+
+    /**
+     * Corrects the estimate with an absolute field pose measured at {@code timestampNanos}, e.g.
+     * from a camera frame captured some time ago. The estimate at that time is moved towards the
+     * measurement and the motion odometry saw since then is replayed on top of it. {@code weight}
+     * between 0 and 1 blends between ignoring and fully trusting the measurement.
+     *
+     * @return false if the timestamp is not covered by the history
+     */
+    public boolean applyCorrection(long timestampNanos, Pose measured, double weight) {
+        return applyCorrection(timestampNanos, measured, weight, weight);
+    }
+
+    /**
+     * {@link #applyCorrection(long, Pose, double)} with separate weights for position and heading,
+     * for measurements (or filters) that trust one more than the other.
+     */
+    public boolean applyCorrection(long timestampNanos, Pose measured, double positionWeight, double headingWeight) {
+        if (!history.getPoseAt(timestampNanos, historical)) {
+            return false;
+        }
+        double rawHistoricalX = historical.x, rawHistoricalY = historical.y;
+        toField(rawHistoricalX, rawHistoricalY, historical.heading, historical);
+        double headingError = Angles.normalize(measured.heading - historical.heading);
+        setFrame(frameRotation + headingError * headingWeight, rawHistoricalX, rawHistoricalY,
+                historical.x + (measured.x - historical.x) * positionWeight,
+                historical.y + (measured.y - historical.y) * positionWeight);
+        return true;
+    }
+
+    /** {@link #applyCorrection(long, Pose, double)} with full trust in the measurement. */
+    public boolean applyCorrection(long timestampNanos, Pose measured) {
+        return applyCorrection(timestampNanos, measured, 1.0);
+    }
+
+    public PoseHistory getHistory() {
+        return history;
+    }
+
+    /** Last heading read from the IMU in radians, wrapped as the IMU reports it; NaN without an IMU. */
+    public double getImuHeading() {
+        return Double.isNaN(lastImuHeading) ? Double.NaN : Angles.normalize(lastImuHeading);
+    }
+
+    /** Total path length integrated so far, meters. */
+    public double getDistanceTraveled() {
+        return distanceTraveled;
+    }
+
+    /** Total absolute rotation integrated so far, radians. */
+    public double getRotationTraveled() {
+        return rotationTraveled;
+    }
+
+    /** Robot-relative forward velocity over the last update, m/s. */
+    public double getForwardVelocity() {
+        return forwardVelocity;
+    }
+
+    /** Robot-relative leftward velocity over the last update, m/s. */
+    public double getLeftVelocity() {
+        return leftVelocity;
+    }
+
+    /** Rotation rate over the last update, rad/s counter-clockwise. */
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+}
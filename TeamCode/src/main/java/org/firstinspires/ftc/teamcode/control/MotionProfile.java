@@ -0,0 +1,142 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/**
+ * A one-dimensional move from 0 to a distance, limited in velocity, acceleration and jerk.
+ *
+ * With a finite jerk limit the velocity follows an S-curve (acceleration ramps up and down instead
+ * of stepping), which keeps wheels from slipping and mechanisms from jolting at the start and end
+ * of the acceleration; with an infinite jerk limit it is the classic trapezoid. Moves too short to
+ * reach the velocity or acceleration limit use the highest peak that still fits.
+ *
+ * {@link #plan} and {@link #sample} do not allocate, so an action can re-plan on every start.
+ */
+public class MotionProfile {
+    /** Setpoint at one point in time. Filled in place by {@link #sample}. */
+    public static final class State {
+        public double position, velocity, acceleration;
+        public boolean finished;
+    }
+
+    private double distance;
+    private double sign;
+    private double peakVelocity;
+    private double peakAcceleration;
+    private double jerk;
+    /** Durations: acceleration ramp, constant acceleration, whole acceleration phase, cruise. */
+    private double rampTime, constantAccelerationTime, accelerationTime, cruiseTime;
+    private double accelerationDistance;
+    private double duration;
+
+    /**
+     * Plans a move over {@code distance} (either sign) that starts and ends at rest.
+     *
+     * @param maxJerk {@link Double#POSITIVE_INFINITY} for a trapezoidal profile
+     */
+    public MotionProfile plan(double distance, double maxVelocity, double maxAcceleration, double maxJerk) {
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0) || !(maxJerk > 0)) {
+            throw new IllegalArgumentException("Limits must be positive");
+        }
+        this.distance = Math.abs(distance);
+        this.sign = distance < 0 ? -1 : 1;
+        this.jerk = maxJerk;
+        double d = this.distance;
+        double a = maxAcceleration;
+        double v = maxVelocity;
+        if (d == 0) {
+            v = 0;
+            a = 0;
+        }
+        // Ramping to full acceleration and back down gains a * a / j of velocity
+        if (a * a / maxJerk > v) {
+            // The velocity limit is reached before full acceleration
+            a = Math.sqrt(v * maxJerk);
+        }
+        if (d > 0 && v * accelerationTime(v, a) > d) {
+            // Too short to cruise: the largest peak velocity whose acceleration and deceleration fit
+            double rampRatio = a / maxJerk;
+            v = a / 2 * (-rampRatio + Math.sqrt(rampRatio * rampRatio + 4 * d / a));
+            if (v < a * rampRatio) {
+                // Too short to reach full acceleration either
+                v = Math.pow(d * Math.sqrt(maxJerk) / 2, 2.0 / 3);
+                a = Math.sqrt(v * maxJerk);
+            }
+        }
+        peakVelocity = v;
+        peakAcceleration = a;
+        rampTime = a / maxJerk;
+        accelerationTime = v > 0 ? accelerationTime(v, a) : 0;
+        constantAccelerationTime = Math.max(0, accelerationTime - 2 * rampTime);
+        accelerationDistance = v * accelerationTime / 2;
+        cruiseTime = v > 0 ? Math.max(0, d - 2 * accelerationDistance) / v : 0;
+        duration = 2 * accelerationTime + cruiseTime;
+        return this;
+    }
+
+    /** Time to reach {@code v} from rest with acceleration up to {@code a}. */
+    private double accelerationTime(double v, double a) {
+        return v / a + a / jerk;
+    }
+
+    /** Fills {@code out} with the setpoint {@code t} seconds into the move. */
+    public void sample(double t, State out) {
+        out.finished = t >= duration;
+        if (t <= 0 || distance == 0) {
+            out.position = 0;
+            out.velocity = 0;
+            out.acceleration = 0;
+        } else if (t < accelerationTime) {
+            sampleAcceleration(t, out);
+        } else if (t < accelerationTime + cruiseTime) {
+            out.position = accelerationDistance + peakVelocity * (t - accelerationTime);
+            out.velocity = peakVelocity;
+            out.acceleration = 0;
+        } else if (t < duration) {
+            // Deceleration mirrors acceleration
+            sampleAcceleration(duration - t, out);
+            out.position = distance - out.position;
+            out.acceleration = -out.acceleration;
+        } else {
+            out.position = distance;
+            out.velocity = 0;
+            out.acceleration = 0;
+        }
+        out.position *= sign;
+        out.velocity *= sign;
+        out.acceleration *= sign;
+    }
+
+    private void sampleAcceleration(double t, State out) {
+        double a = peakAcceleration;
+        if (t < rampTime) {
+            out.acceleration = jerk * t;
+            out.velocity = jerk * t * t / 2;
+            out.position = jerk * t * t * t / 6;
+        } else if (t < rampTime + constantAccelerationTime) {
+            double tau = t - rampTime;
+            double rampVelocity = a * rampTime / 2;
+            out.acceleration = a;
+            out.velocity = rampVelocity + a * tau;
+            out.position = a * rampTime * rampTime / 6 + rampVelocity * tau + a * tau * tau / 2;
+        } else {
+            // The ramp down mirrors the ramp up about the end of the phase
+            double s = accelerationTime - t;
+            out.acceleration = jerk * s;
+            out.velocity = peakVelocity - jerk * s * s / 2;
+            out.position = accelerationDistance - (peakVelocity * s - jerk * s * s * s / 6);
+        }
+    }
+
+    /** Length of the move in seconds. */
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getDistance() {
+        return distance * sign;
+    }
+
+    /** Highest velocity reached; below the limit for short moves. */
+    public double getPeakVelocity() {
+        return peakVelocity;
+    }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/**
+ * PID controller with the derivative taken on a separately measured rate (e.g. encoder velocity)
+ * instead of differentiating the error, which avoids derivative kick and noise amplification.
+ */
+public class PidController {
+    public double kP, kI, kD;
+    /** Limit on the magnitude of the integral contribution. */
+    public double integralLimit = 0.25;
+
+    private double integral;
+
+    public PidController(double kP, double kI, double kD) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+    }
+
+    /**
+     * @param error     setpoint minus measurement
+     * @param rateError setpoint rate minus measured rate
+     * @param dt        seconds since the previous update
+     */
+    public double update(double error, double rateError, double dt) {
+        if (kI != 0) {
+            integral += error * dt;
+            double limit = integralLimit / kI;
+            integral = Math.max(-Math.abs(limit), Math.min(Math.abs(limit), integral));
+        }
+        return kP * error + kI * integral + kD * rateError;
+    }
+
+    public void reset() {
+        integral = 0;
+    }
+}
@@ -0,0 +1,32 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/**
+ * Mutable field pose: x forward and y left of the field origin in meters, heading counter-clockwise
+ * in radians (not wrapped). Mutable so the estimators can fill caller-owned instances every loop.
+ */
+public final class Pose {
+    public double x, y, heading;
+
+    public Pose() {
+    }
+
+    public Pose(double x, double y, double heading) {
+        set(x, y, heading);
+    }
+
+    public Pose set(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        return this;
+    }
+
+    public Pose set(Pose other) {
+        return set(other.x, other.y, other.heading);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.3f m, %.3f m, %.1f deg)", x, y, Math.toDegrees(heading));
+    }
+}
@@ -0,0 +1,94 @@
+package org.firstinspires.ftc.teamcode.control;
+
+/**
+ * Fixed-size ring buffer of timestamped poses, so a measurement that describes the robot some time
+ * ago (e.g. a camera frame) can be compared with where odometry thought the robot was at that time.
+ * Timestamps must be added in increasing order. Not thread-safe; use it from the loop thread.
+ */
+public class PoseHistory {
+    private final long[] times;
+    private final double[] xs, ys, headings;
+    private int next;
+    private int size;
+
+    public PoseHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        times = new long[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        headings = new double[capacity];
+    }
+
+    public void add(long timestampNanos, double x, double y, double heading) {
+        times[next] = timestampNanos;
+        xs[next] = x;
+        ys[next] = y;
+        headings[next] = heading;
+        next = (next + 1) % times.length;
+        if (size < times.length) {
+            size++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        next = 0;
+    }
+
+    /** Timestamp of the oldest pose still held; only meaningful if {@link #size()} > 0. */
+    public long getOldestTimestamp() {
+        return times[index(0)];
+    }
+
+    public long getNewestTimestamp() {
+        return times[index(size - 1)];
+    }
+
+    /**
+     * Interpolates the pose at {@code timestampNanos} into {@code out}.
+     *
+     * @return false, leaving {@code out} unchanged, if the time is outside the span held
+     */
+    public boolean getPoseAt(long timestampNanos, Pose out) {
+        if (size == 0 || timestampNanos < getOldestTimestamp() || timestampNanos > getNewestTimestamp()) {
+            return false;
+        }
+        // Binary search for the last entry at or before the timestamp
+        int lo = 0, hi = size - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (times[index(mid)] <= timestampNanos) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int a = index(lo);
+        if (lo == size - 1) {
+            out.set(xs[a], ys[a], headings[a]);
+            return true;
+        }
+        int b = index(lo + 1);
+        double alpha = times[b] > times[a] ? (double) (timestampNanos - times[a]) / (times[b] - times[a]) : 0;
+        out.set(xs[a] + (xs[b] - xs[a]) * alpha,
+                ys[a] + (ys[b] - ys[a]) * alpha,
+                headings[a] + (headings[b] - headings[a]) * alpha);
+        return true;
+    }
+
+    /** Physical slot of the {@code i}-th oldest entry. */
+    private int index(int i) {
+        int start = next - size;
+        if (start < 0) {
+            start += times.length;
+        }
+        int slot = start + i;
+        return slot >= times.length ? slot - times.length : slot;
+    }
+}
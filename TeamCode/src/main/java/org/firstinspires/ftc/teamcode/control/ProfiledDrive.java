@@ -0,0 +1,150 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.HeadingSource;
+import org.firstinspires.ftc.teamcode.hardware.MotorChannel;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+
+/**
+ * An {@link Action} that drives straight forward (or backward) a set distance while holding a
+ * heading, the non-blocking counterpart of {@code RobotAutoDriveByGyro_Linear.driveStraight()}.
+ *
+ * Every wheel follows a {@link MotionProfile}: velocity and acceleration feedforward plus a PID
+ * correction on its encoder position error, so the robot accelerates as hard as the limits allow
+ * instead of crawling at a fixed power. The heading correction is mixed in as in
+ * {@link TrajectoryFollower}. The action finishes once the profile has ended and the wheels are
+ * within {@link #tolerance} of the target, or {@link #settleTimeoutNanos} after the profile ended,
+ * and then stops the drive motors.
+ *
+ * {@link #update} allocates nothing.
+ */
+public class ProfiledDrive implements Action {
+    public static final double DEFAULT_MAX_VELOCITY = 1.2;
+    public static final double DEFAULT_MAX_ACCELERATION = 1.5;
+    public static final double DEFAULT_MAX_JERK = 6;
+    /** Power per meter/second of setpoint velocity. */
+    public static final double DEFAULT_VELOCITY_FEEDFORWARD = 1 / DriveGeometry.MAX_WHEEL_SPEED_METERS_PER_SECOND;
+    /** Power per meter/second^2 of setpoint acceleration; covers motor lag (about 80 ms). */
+    public static final double DEFAULT_ACCELERATION_FEEDFORWARD = 0.08 / DriveGeometry.MAX_WHEEL_SPEED_METERS_PER_SECOND;
+
+    private static final int WHEELS = 4;
+
+    private final MotorChannel[] wheels;
+    private final HeadingSource heading;
+    private final double distance;
+    private final double targetHeading;
+    private final MotionProfile profile = new MotionProfile();
+    private final MotionProfile.State setpoint = new MotionProfile.State();
+    private final PidController[] wheelControllers = new PidController[WHEELS];
+    private final int[] startPositions = new int[WHEELS];
+    private final double[] wheelPowers = new double[WHEELS];
+
+    public double maxVelocity = DEFAULT_MAX_VELOCITY;
+    public double maxAcceleration = DEFAULT_MAX_ACCELERATION;
+    /** {@link Double#POSITIVE_INFINITY} for a trapezoidal profile. */
+    public double maxJerk = DEFAULT_MAX_JERK;
+    public double velocityFeedforward = DEFAULT_VELOCITY_FEEDFORWARD;
+    public double accelerationFeedforward = DEFAULT_ACCELERATION_FEEDFORWARD;
+    public double headingP = TrajectoryFollower.DEFAULT_HEADING_P;
+    public double maxTurn = TrajectoryFollower.DEFAULT_MAX_TURN;
+    /** Meters of average wheel travel error at which the move counts as done. */
+    public double tolerance = 0.01;
+    public long settleTimeoutNanos = 500_000_000L;
+
+    private long startNanos;
+    private long lastNanos;
+    private double positionError;
+
+    /**
+     * @param heading        may be null to drive on encoders only
+     * @param distanceMeters negative to drive backward
+     * @param headingRadians heading to hold, in the frame of {@code heading}
+     */
+    public ProfiledDrive(RobotIO io, HeadingSource heading, double distanceMeters, double headingRadians) {
+        this.wheels = new MotorChannel[] {io.frontLeft, io.frontRight, io.backLeft, io.backRight};
+        this.heading = heading;
+        this.distance = distanceMeters;
+        this.targetHeading = headingRadians;
+        for (int w = 0; w < WHEELS; w++) {
+            wheelControllers[w] = new PidController(TrajectoryFollower.DEFAULT_POSITION_P, 0,
+                    TrajectoryFollower.DEFAULT_VELOCITY_D);
+        }
+    }
+
+    public PidController getWheelController(int wheel) {
+        return wheelControllers[wheel];
+    }
+
+    @Override
+    public void start(long nowNanos) {
+        profile.plan(distance, maxVelocity, maxAcceleration, maxJerk);
+        for (int w = 0; w < WHEELS; w++) {
+            startPositions[w] = wheels[w].getCurrentPosition();
+            wheelControllers[w].reset();
+        }
+        startNanos = nowNanos;
+        lastNanos = nowNanos;
+    }
+
+    @Override
+    public boolean update(long nowNanos) {
+        double dt = Math.max(1e-3, (nowNanos - lastNanos) / 1e9);
+        lastNanos = nowNanos;
+        double elapsed = (nowNanos - startNanos) / 1e9;
+        profile.sample(elapsed, setpoint);
+
+        double targetTicks = setpoint.position / DriveGeometry.METERS_PER_TICK;
+        double targetRate = setpoint.velocity / DriveGeometry.METERS_PER_TICK;
+        double feedforward = setpoint.velocity * velocityFeedforward + setpoint.acceleration * accelerationFeedforward;
+        double errorSum = 0;
+        for (int w = 0; w < WHEELS; w++) {
+            double error = targetTicks - (wheels[w].getCurrentPosition() - startPositions[w]);
+            errorSum += error;
+            wheelPowers[w] = feedforward
+                    + wheelControllers[w].update(error, targetRate - wheels[w].getVelocity(), dt);
+        }
+        positionError = errorSum / WHEELS * DriveGeometry.METERS_PER_TICK;
+
+        if (setpoint.finished && (Math.abs(positionError) < tolerance
+                || elapsed > profile.getDuration() + settleTimeoutNanos / 1e9)) {
+            stop();
+            return false;
+        }
+
+        double turn = 0;
+        if (heading != null) {
+            double headingError = Angles.normalize(targetHeading - heading.getHeadingRadians());
+            turn = Math.max(-maxTurn, Math.min(maxTurn, headingError * headingP));
+        }
+        double max = 1.0;
+        for (int w = 0; w < WHEELS; w++) {
+            // A positive (counter-clockwise) heading error needs the left wheels slower and the right faster
+            wheelPowers[w] += (w == MecanumKinematics.FRONT_LEFT || w == MecanumKinematics.BACK_LEFT) ? -turn : turn;
+            max = Math.max(max, Math.abs(wheelPowers[w]));
+        }
+        for (int w = 0; w < WHEELS; w++) {
+            wheels[w].setPower(wheelPowers[w] / max);
+        }
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        stop();
+    }
+
+    private void stop() {
+        for (MotorChannel wheel : wheels) {
+            wheel.setPower(0);
+        }
+    }
+
+    /** Average wheel travel behind the setpoint at the last update, meters. */
+    public double getPositionError() {
+        return positionError;
+    }
+
+    /** Planned length of the move in seconds; valid once started. */
+    public double getProfileDuration() {
+        return profile.getDuration();
+    }
+}
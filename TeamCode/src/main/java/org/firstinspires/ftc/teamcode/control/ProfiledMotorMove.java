@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.MotorChannel;
+
+/**
+ * An {@link Action} that moves one motor with an encoder (the arm, the chain drive) to a position
+ * along a {@link MotionProfile}, with velocity and acceleration feedforward and a PD correction on
+ * the encoder. It runs alongside drive actions on the same {@link ActionScheduler}. The motor is
+ * stopped when the move finishes or is cancelled.
+ *
+ * {@link #update} allocates nothing.
+ */
+public class ProfiledMotorMove implements Action {
+    private final MotorChannel motor;
+    private final int targetTicks;
+    private final double maxTicksPerSecond;
+    private final MotionProfile profile = new MotionProfile();
+    private final MotionProfile.State setpoint = new MotionProfile.State();
+    private final PidController controller = new PidController(TrajectoryFollower.DEFAULT_POSITION_P, 0,
+            TrajectoryFollower.DEFAULT_VELOCITY_D);
+
+    /** Profile limits in ticks per second (squared, cubed); default to fractions of the motor's top speed. */
+    public double maxVelocity, maxAcceleration, maxJerk;
+    /** Seconds of motor lag covered by acceleration feedforward. */
+    public double lagSeconds = 0.05;
+    public double tolerance = 10;
+    public long settleTimeoutNanos = 500_000_000L;
+
+    private int startTicks;
+    private long startNanos;
+    private long lastNanos;
+    private double positionError;
+
+    /** @param maxTicksPerSecond the motor's encoder speed at full power */
+    public ProfiledMotorMove(MotorChannel motor, int targetTicks, double maxTicksPerSecond) {
+        this.motor = motor;
+        this.targetTicks = targetTicks;
+        this.maxTicksPerSecond = maxTicksPerSecond;
+        this.maxVelocity = 0.8 * maxTicksPerSecond;
+        this.maxAcceleration = 2 * maxTicksPerSecond;
+        this.maxJerk = 10 * maxTicksPerSecond;
+    }
+
+    public PidController getController() {
+        return controller;
+    }
+
+    @Override
+    public void start(long nowNanos) {
+        startTicks = motor.getCurrentPosition();
+        profile.plan(targetTicks - startTicks, maxVelocity, maxAcceleration, maxJerk);
+        controller.reset();
+        startNanos = nowNanos;
+        lastNanos = nowNanos;
+    }
+
+    @Override
+    public boolean update(long nowNanos) {
+        double dt = Math.max(1e-3, (nowNanos - lastNanos) / 1e9);
+        lastNanos = nowNanos;
+        double elapsed = (nowNanos - startNanos) / 1e9;
+        profile.sample(elapsed, setpoint);
+        positionError = startTicks + setpoint.position - motor.getCurrentPosition();
+        if (setpoint.finished && (Math.abs(positionError) < tolerance
+                || elapsed > profile.getDuration() + settleTimeoutNanos / 1e9)) {
+            motor.setPower(0);
+            return false;
+        }
+        double power = (setpoint.velocity + setpoint.acceleration * lagSeconds) / maxTicksPerSecond
+                + controller.update(positionError, setpoint.velocity - motor.getVelocity(), dt);
+        motor.setPower(Math.max(-1, Math.min(1, power)));
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        motor.setPower(0);
+    }
+
+    /** Ticks behind the setpoint at the last update. */
+    public double getPositionError() {
+        return positionError;
+    }
+}
@@ -0,0 +1,128 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.HeadingSource;
+import org.firstinspires.ftc.teamcode.hardware.MotorChannel;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+
+/**
+ * An {@link Action} that turns in place to a heading along a {@link MotionProfile}, the
+ * non-blocking counterpart of {@code RobotAutoDriveByGyro_Linear.turnToHeading()} and
+ * {@code holdHeading()}.
+ *
+ * The turn takes the short way round. The wheels get velocity and acceleration feedforward for the
+ * profiled turn rate plus a PD correction on the IMU heading error, with the measured turn rate
+ * taken from the wheel encoders. After the profile has ended the heading is held until it has been
+ * within {@link #tolerance} for {@link #holdNanos} (set this to hold a heading for a while), or
+ * until {@link #settleTimeoutNanos} have passed; then the drive motors are stopped.
+ *
+ * {@link #update} allocates nothing.
+ */
+public class ProfiledTurn implements Action {
+    public static final double DEFAULT_MAX_VELOCITY = 3;
+    public static final double DEFAULT_MAX_ACCELERATION = 6;
+    public static final double DEFAULT_MAX_JERK = 30;
+    /** Power per radian/second of turn rate error. */
+    public static final double DEFAULT_RATE_D = 0.1;
+
+    private final MotorChannel[] wheels;
+    private final HeadingSource heading;
+    private final double targetHeading;
+    private final MotionProfile profile = new MotionProfile();
+    private final MotionProfile.State setpoint = new MotionProfile.State();
+    private final PidController controller = new PidController(TrajectoryFollower.DEFAULT_HEADING_P, 0, DEFAULT_RATE_D);
+    private final double[] chassis = new double[3];
+    private final double[] wheelPowers = new double[4];
+
+    public double maxVelocity = DEFAULT_MAX_VELOCITY;
+    public double maxAcceleration = DEFAULT_MAX_ACCELERATION;
+    /** {@link Double#POSITIVE_INFINITY} for a trapezoidal profile. */
+    public double maxJerk = DEFAULT_MAX_JERK;
+    public double velocityFeedforward = ProfiledDrive.DEFAULT_VELOCITY_FEEDFORWARD;
+    public double accelerationFeedforward = ProfiledDrive.DEFAULT_ACCELERATION_FEEDFORWARD;
+    /** Radians of heading error at which the turn counts as done. */
+    public double tolerance = Math.toRadians(1);
+    public long holdNanos;
+    public long settleTimeoutNanos = 500_000_000L;
+
+    private long startNanos;
+    private long lastNanos;
+    private long settledSinceNanos;
+    private double startHeading;
+    private double headingError;
+
+    /** @param headingRadians heading to turn to, in the frame of {@code heading} */
+    public ProfiledTurn(RobotIO io, HeadingSource heading, double headingRadians) {
+        this.wheels = new MotorChannel[] {io.frontLeft, io.frontRight, io.backLeft, io.backRight};
+        this.heading = heading;
+        this.targetHeading = headingRadians;
+    }
+
+    public PidController getController() {
+        return controller;
+    }
+
+    @Override
+    public void start(long nowNanos) {
+        startHeading = heading.getHeadingRadians();
+        profile.plan(Angles.normalize(targetHeading - startHeading), maxVelocity, maxAcceleration, maxJerk);
+        controller.reset();
+        startNanos = nowNanos;
+        lastNanos = nowNanos;
+        settledSinceNanos = -1;
+    }
+
+    @Override
+    public boolean update(long nowNanos) {
+        double dt = Math.max(1e-3, (nowNanos - lastNanos) / 1e9);
+        lastNanos = nowNanos;
+        long elapsed = nowNanos - startNanos;
+        profile.sample(elapsed / 1e9, setpoint);
+        double current = heading.getHeadingRadians();
+
+        if (setpoint.finished) {
+            headingError = Angles.normalize(targetHeading - current);
+            if (Math.abs(headingError) >= tolerance) {
+                settledSinceNanos = -1;
+            } else if (settledSinceNanos < 0) {
+                settledSinceNanos = nowNanos;
+            }
+            if ((settledSinceNanos >= 0 && nowNanos - settledSinceNanos >= holdNanos)
+                    || elapsed / 1e9 > profile.getDuration() + (holdNanos + settleTimeoutNanos) / 1e9) {
+                stop();
+                return false;
+            }
+        } else {
+            headingError = Angles.normalize(startHeading + setpoint.position - current);
+        }
+
+        MecanumKinematics.chassisMotion(wheels[0].getVelocity(), wheels[1].getVelocity(),
+                wheels[2].getVelocity(), wheels[3].getVelocity(), chassis);
+        double rate = -chassis[2] * DriveGeometry.METERS_PER_TICK / DriveGeometry.TURN_RADIUS_METERS;
+        double wheelSpeed = setpoint.velocity * DriveGeometry.TURN_RADIUS_METERS;
+        double wheelAcceleration = setpoint.acceleration * DriveGeometry.TURN_RADIUS_METERS;
+        double turn = wheelSpeed * velocityFeedforward + wheelAcceleration * accelerationFeedforward
+                + controller.update(headingError, setpoint.velocity - rate, dt);
+        // wheelPowers takes clockwise rotation
+        MecanumKinematics.wheelPowers(0, 0, -turn, wheelPowers);
+        for (int w = 0; w < 4; w++) {
+            wheels[w].setPower(wheelPowers[w]);
+        }
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        stop();
+    }
+
+    private void stop() {
+        for (MotorChannel wheel : wheels) {
+            wheel.setPower(0);
+        }
+    }
+
+    /** Heading error of the last update, radians. */
+    public double getHeadingError() {
+        return headingError;
+    }
+}
@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * The TeleOp mapping from driver controls to actuator powers used by ControlRecorder, free of any
+ * SDK types so it can run against simulated hardware.
+ *
+ * Pressing the dropper cycle button starts a timed reverse / pause / forward dropper sequence
+ * that runs alongside normal driving instead of blocking the loop.
+ */
+public class TeleopController {
+    private int upperLimit = -45;
+    private int lowerLimit = -130;
+    private double armSpeed = 0.75;
+
+    private final RobotIO io;
+    private final double[] wheelPowers = new double[4];
+    private final ActionScheduler actions;
+    private final TimedSequence dropperCycle;
+    private boolean dropperCyclePressed;
+
+    public TeleopController(RobotIO io) {
+        this(io, Clock.SYSTEM);
+    }
+
+    public TeleopController(RobotIO io, Clock clock) {
+        this.io = io;
+        this.actions = new ActionScheduler(clock);
+        this.dropperCycle = new TimedSequence()
+                .then(io.dropper, -1.0, 400)
+                .then(io.dropper, 0, 250)
+                .then(io.dropper, 1.0, 400);
+    }
+
+    /** Computes and applies one cycle of actuator powers from {@code input}. */
+    public void update(DriverInput input) {
+        MecanumKinematics.wheelPowers(input.driveY, input.driveX, input.turn, wheelPowers);
+        io.frontLeft.setPower(wheelPowers[MecanumKinematics.FRONT_LEFT]);
+        io.frontRight.setPower(wheelPowers[MecanumKinematics.FRONT_RIGHT]);
+        io.backLeft.setPower(wheelPowers[MecanumKinematics.BACK_LEFT]);
+        io.backRight.setPower(wheelPowers[MecanumKinematics.BACK_RIGHT]);
+
+        double armPower;
+        int armPosition = io.frontArm.getCurrentPosition();
+        if (armPosition >= upperLimit && input.armUp > 0) {
+            armPower = 0;
+        } else if (armPosition <= lowerLimit && input.armDown > 0) {
+            armPower = (input.armUp - input.armDown) * armSpeed * 0.25;
+        } else {
+            armPower = (input.armUp - input.armDown) * armSpeed;
+        }
+        io.frontArm.setPower(armPower);
+
+        io.chainDrive.setPower(input.chainForward - input.chainReverse);
+        io.armRotator.setPower(input.armRotator * 0.65);
+
+        if (input.dropperForward) {
+            io.dropper.setPower(0.75);
+        } else if (input.dropperReverse) {
+            io.dropper.setPower(-0.75);
+        } else {
+            io.dropper.setPower(0);
+        }
+
+        if (input.dropperCycle && !dropperCyclePressed) {
+            actions.schedule(dropperCycle);
+        }
+        dropperCyclePressed = input.dropperCycle;
+        actions.update();
+    }
+
+    public boolean isDropperCycleRunning() {
+        return actions.isRunning(dropperCycle);
+    }
+
+    /** Cancels any running macros and leaves their actuators stopped. */
+    public void stop() {
+        actions.cancelAll();
+    }
+}
@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.PowerOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link Action} that holds actuators at fixed powers for fixed durations, one step after the
+ * other, e.g. the dropper's reverse / pause / forward cycle. Every step's power is re-applied each
+ * cycle so other code writing the same actuator cannot interrupt it, and every actuator used is
+ * set to zero when the sequence ends or is cancelled.
+ */
+public class TimedSequence implements Action {
+    private final List<PowerOutput> outputs = new ArrayList<>();
+    private final List<Double> powers = new ArrayList<>();
+    private final List<Long> durations = new ArrayList<>();
+
+    private PowerOutput[] stepOutputs;
+    private double[] stepPowers;
+    private long[] stepEnds;
+    private long startNanos;
+    private int step;
+
+    /** Appends a step that holds {@code output} at {@code power} for {@code durationMs}. */
+    public TimedSequence then(PowerOutput output, double power, long durationMs) {
+        outputs.add(output);
+        powers.add(power);
+        durations.add(TimeUnit.MILLISECONDS.toNanos(durationMs));
+        stepOutputs = null;
+        return this;
+    }
+
+    @Override
+    public void start(long nowNanos) {
+        if (stepOutputs == null) {
+            int count = outputs.size();
+            stepOutputs = outputs.toArray(new PowerOutput[count]);
+            stepPowers = new double[count];
+            stepEnds = new long[count];
+            long end = 0;
+            for (int i = 0; i < count; i++) {
+                stepPowers[i] = powers.get(i);
+                end += durations.get(i);
+                stepEnds[i] = end;
+            }
+        }
+        startNanos = nowNanos;
+        step = 0;
+    }
+
+    @Override
+    public boolean update(long nowNanos) {
+        long elapsed = nowNanos - startNanos;
+        while (step < stepOutputs.length && elapsed >= stepEnds[step]) {
+            step++;
+        }
+        if (step == stepOutputs.length) {
+            stopAll();
+            return false;
+        }
+        stepOutputs[step].setPower(stepPowers[step]);
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        stopAll();
+    }
+
+    private void stopAll() {
+        for (PowerOutput output : stepOutputs) {
+            output.setPower(0);
+        }
+    }
+}
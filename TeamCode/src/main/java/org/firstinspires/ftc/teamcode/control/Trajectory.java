@@ -0,0 +1,159 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.replay.ReplaySource;
+
+/**
+ * Time-parameterized drive trajectory built from a recording.
+ *
+ * Everything the follower needs per sample is precomputed when the trajectory is built: times
+ * rebased to zero, wheel positions relative to the first sample, wheel velocities from central
+ * differences, an unwrapped heading, and the battery voltage if it was recorded.
+ * {@link #sample(long, Point)} then only interpolates between two neighbouring samples into a
+ * caller-owned {@link Point}, so evaluating the trajectory every loop costs a few array reads and
+ * allocates nothing.
+ */
+public final class Trajectory {
+    public static final int WHEELS = 4;
+
+    /** The source channel layout expected by {@link #fromSource(ReplaySource)}. */
+    public static final int POWER_CHANNEL = 0;
+    public static final int TICKS_CHANNEL = RobotIO.OUTPUT_COUNT;
+    public static final int HEADING_CHANNEL = TICKS_CHANNEL + WHEELS;
+    public static final int CHANNEL_COUNT = HEADING_CHANNEL + 1;
+    /** Optional channel after the required ones: battery volts the powers were recorded at. */
+    public static final int VOLTAGE_CHANNEL = CHANNEL_COUNT;
+
+    private final long[] times;
+    private final float[] powers;
+    private final float[] positions;
+    private final float[] velocities;
+    private final double[] headings;
+    private final float[] volts;
+    private final boolean hasHeading;
+    private int cursor;
+
+    /** Interpolated trajectory state at one instant. */
+    public static final class Point {
+        public final double[] powers = new double[RobotIO.OUTPUT_COUNT];
+        /** Wheel positions in ticks relative to the start of the trajectory. */
+        public final double[] positions = new double[WHEELS];
+        /** Wheel velocities in ticks per second. */
+        public final double[] velocities = new double[WHEELS];
+        /** Unwrapped heading relative to the start, radians counter-clockwise; 0 if not recorded. */
+        public double heading;
+        /** Battery volts the powers were recorded at; NaN if not recorded. */
+        public double volts;
+        public boolean finished;
+    }
+
+    private Trajectory(int size, boolean hasHeading, boolean hasVoltage) {
+        times = new long[size];
+        powers = new float[size * RobotIO.OUTPUT_COUNT];
+        positions = new float[size * WHEELS];
+        velocities = new float[size * WHEELS];
+        headings = new double[size];
+        volts = hasVoltage ? new float[size] : null;
+        this.hasHeading = hasHeading;
+    }
+
+    /**
+     * Builds a trajectory from a source whose channels are the {@link RobotIO#OUTPUT_COUNT} powers,
+     * then four wheel encoder positions, then heading in radians (NaN if unavailable), and
+     * optionally the battery voltage.
+     */
+    public static Trajectory fromSource(ReplaySource source) {
+        if (source.channelCount() < CHANNEL_COUNT) {
+            throw new IllegalArgumentException("Recording has no trajectory channels");
+        }
+        int size = source.size();
+        if (size == 0) {
+            throw new IllegalArgumentException("Recording is empty");
+        }
+        boolean hasHeading = !Float.isNaN(source.value(0, HEADING_CHANNEL));
+        boolean hasVoltage = source.channelCount() > VOLTAGE_CHANNEL;
+        Trajectory trajectory = new Trajectory(size, hasHeading, hasVoltage);
+
+        long t0 = source.timestampNanos(0);
+        double startHeading = hasHeading ? source.value(0, HEADING_CHANNEL) : 0;
+        double previousHeading = 0;
+        for (int i = 0; i < size; i++) {
+            trajectory.times[i] = source.timestampNanos(i) - t0;
+            for (int c = 0; c < RobotIO.OUTPUT_COUNT; c++) {
+                trajectory.powers[i * RobotIO.OUTPUT_COUNT + c] = source.value(i, POWER_CHANNEL + c);
+            }
+            for (int w = 0; w < WHEELS; w++) {
+                trajectory.positions[i * WHEELS + w] = source.value(i, TICKS_CHANNEL + w) - source.value(0, TICKS_CHANNEL + w);
+            }
+            if (hasHeading) {
+                previousHeading = Angles.unwrap(source.value(i, HEADING_CHANNEL) - startHeading, previousHeading);
+                trajectory.headings[i] = previousHeading;
+            }
+            if (hasVoltage) {
+                trajectory.volts[i] = source.value(i, VOLTAGE_CHANNEL);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int before = Math.max(0, i - 1);
+            int after = Math.min(size - 1, i + 1);
+            double dt = (trajectory.times[after] - trajectory.times[before]) / 1e9;
+            for (int w = 0; w < WHEELS; w++) {
+                trajectory.velocities[i * WHEELS + w] = dt > 0
+                        ? (float) ((trajectory.positions[after * WHEELS + w] - trajectory.positions[before * WHEELS + w]) / dt)
+                        : 0f;
+            }
+        }
+        return trajectory;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public long getDurationNanos() {
+        return times[times.length - 1];
+    }
+
+    public boolean hasHeading() {
+        return hasHeading;
+    }
+
+    public boolean hasVoltage() {
+        return volts != null;
+    }
+
+    /**
+     * Evaluates the trajectory {@code t} nanoseconds after its start. Successive calls with
+     * increasing times are O(1); powers and voltage are held from the sample at or before
+     * {@code t}, everything else is linearly interpolated. Past the end, the last sample is
+     * returned with {@link Point#finished} set.
+     */
+    public void sample(long t, Point out) {
+        int last = times.length - 1;
+        if (cursor > 0 && times[cursor] > t) {
+            cursor = 0;
+        }
+        while (cursor < last && times[cursor + 1] <= t) {
+            cursor++;
+        }
+        int i = cursor;
+        int j = Math.min(i + 1, last);
+        double alpha = 0;
+        if (j > i && t > times[i]) {
+            alpha = Math.min(1.0, (double) (t - times[i]) / (times[j] - times[i]));
+        }
+
+        for (int c = 0; c < RobotIO.OUTPUT_COUNT; c++) {
+            out.powers[c] = powers[i * RobotIO.OUTPUT_COUNT + c];
+        }
+        for (int w = 0; w < WHEELS; w++) {
+            double p0 = positions[i * WHEELS + w];
+            out.positions[w] = p0 + (positions[j * WHEELS + w] - p0) * alpha;
+            double v0 = velocities[i * WHEELS + w];
+            out.velocities[w] = v0 + (velocities[j * WHEELS + w] - v0) * alpha;
+        }
+        out.heading = headings[i] + (headings[j] - headings[i]) * alpha;
+        out.volts = volts != null ? volts[i] : Double.NaN;
+        out.finished = t >= times[last];
+    }
+}
@@ -0,0 +1,158 @@
+package org.firstinspires.ftc.teamcode.control;
+
+import org.firstinspires.ftc.teamcode.hardware.HeadingSource;
+import org.firstinspires.ftc.teamcode.hardware.MotorChannel;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+import org.firstinspires.ftc.teamcode.hardware.VoltageCompensation;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Closed-loop replay of a recorded {@link Trajectory}.
+ *
+ * Each drive wheel gets the power that was recorded at this point in time as feedforward, plus a
+ * PID correction on its encoder position error (with the velocity error as the derivative term),
+ * so battery level, wheel slip or loop timing no longer shift where the robot ends up. If the
+ * trajectory and the robot both have a heading, a proportional steering correction is mixed in the
+ * same way as {@code RobotAutoDriveByGyro_Linear.getSteeringCorrection()}: the heading error is
+ * normalized to +/-180 degrees, multiplied by a gain and clipped. The non-drive actuators are
+ * replayed open-loop.
+ *
+ * With a {@link VoltageCompensation} and a trajectory that recorded the battery voltage, the
+ * recorded motor powers are scaled to the current battery first, so the feedforward does the same
+ * work at any charge and the PID only corrects what is left.
+ *
+ * {@link #update()} allocates nothing.
+ */
+public class TrajectoryFollower {
+    /** Proportional gain in power per tick of position error. */
+    public static final double DEFAULT_POSITION_P = 0.002;
+    /** Power per tick/second of velocity error. */
+    public static final double DEFAULT_VELOCITY_D = 0.0002;
+    /** Power per radian of heading error (0.02 per degree, as in RobotAutoDriveByGyro_Linear). */
+    public static final double DEFAULT_HEADING_P = 0.02 * 180 / Math.PI;
+    public static final double DEFAULT_MAX_TURN = 0.3;
+
+    private final Trajectory trajectory;
+    private final RobotIO io;
+    private final MotorChannel[] wheels;
+    private final HeadingSource heading;
+    private final Clock clock;
+    private final PidController[] wheelControllers = new PidController[Trajectory.WHEELS];
+    private final Trajectory.Point target = new Trajectory.Point();
+    private final double[] wheelPowers = new double[Trajectory.WHEELS];
+    private final int[] startPositions = new int[Trajectory.WHEELS];
+    private VoltageCompensation compensation;
+
+    public double headingP = DEFAULT_HEADING_P;
+    public double maxTurn = DEFAULT_MAX_TURN;
+
+    private long startNanos;
+    private long lastNanos;
+    private double startHeading;
+    private double headingError;
+    private double maxPositionError;
+    private boolean running;
+
+    /** @param heading may be null to follow encoders only */
+    public TrajectoryFollower(Trajectory trajectory, RobotIO io, HeadingSource heading, Clock clock) {
+        this.trajectory = trajectory;
+        this.io = io;
+        this.wheels = new MotorChannel[] {io.frontLeft, io.frontRight, io.backLeft, io.backRight};
+        this.heading = trajectory.hasHeading() ? heading : null;
+        this.clock = clock;
+        for (int w = 0; w < Trajectory.WHEELS; w++) {
+            wheelControllers[w] = new PidController(DEFAULT_POSITION_P, 0, DEFAULT_VELOCITY_D);
+        }
+    }
+
+    /**
+     * Scales the recorded motor powers to the current battery. Null (the default) replays them as
+     * recorded, as does a trajectory without a recorded voltage.
+     */
+    public void setVoltageCompensation(VoltageCompensation compensation) {
+        this.compensation = trajectory.hasVoltage() ? compensation : null;
+    }
+
+    public PidController getWheelController(int wheel) {
+        return wheelControllers[wheel];
+    }
+
+    /** Anchors the trajectory at the robot's current encoder positions, heading and time. */
+    public void start() {
+        for (int w = 0; w < Trajectory.WHEELS; w++) {
+            startPositions[w] = wheels[w].getCurrentPosition();
+            wheelControllers[w].reset();
+        }
+        startHeading = heading != null ? heading.getHeadingRadians() : 0;
+        startNanos = clock.nanoTime();
+        lastNanos = startNanos;
+        maxPositionError = 0;
+        running = true;
+    }
+
+    /**
+     * Computes and applies one cycle of corrected powers.
+     *
+     * @return false once the end of the trajectory has been reached (outputs are then stopped)
+     */
+    public boolean update() {
+        if (!running) {
+            return false;
+        }
+        long now = clock.nanoTime();
+        double dt = Math.max(1e-3, (now - lastNanos) / 1e9);
+        lastNanos = now;
+        trajectory.sample(now - startNanos, target);
+        if (target.finished) {
+            io.stopAll();
+            running = false;
+            return false;
+        }
+
+        double turn = 0;
+        if (heading != null) {
+            headingError = Angles.normalize(target.heading - (heading.getHeadingRadians() - startHeading));
+            turn = Math.max(-maxTurn, Math.min(maxTurn, headingError * headingP));
+        }
+
+        double scale = compensation != null ? compensation.scale(target.volts) : 1;
+        double max = 1.0;
+        for (int w = 0; w < Trajectory.WHEELS; w++) {
+            MotorChannel wheel = wheels[w];
+            double error = target.positions[w] - (wheel.getCurrentPosition() - startPositions[w]);
+            double rateError = target.velocities[w] - wheel.getVelocity();
+            maxPositionError = Math.max(maxPositionError, Math.abs(error));
+            double power = target.powers[w] * scale + wheelControllers[w].update(error, rateError, dt);
+            // A positive (counter-clockwise) heading error needs the left wheels slower and the right faster
+            power += (w == MecanumKinematics.FRONT_LEFT || w == MecanumKinematics.BACK_LEFT) ? -turn : turn;
+            wheelPowers[w] = power;
+            max = Math.max(max, Math.abs(power));
+        }
+        for (int w = 0; w < Trajectory.WHEELS; w++) {
+            wheels[w].setPower(wheelPowers[w] / max);
+        }
+        io.frontArm.setPower(scaled(target.powers[4], scale));
+        io.chainDrive.setPower(scaled(target.powers[5], scale));
+        io.armRotator.setPower(target.powers[6]);
+        io.dropper.setPower(target.powers[7]);
+        return true;
+    }
+
+    private double scaled(double power, double scale) {
+        return compensation != null ? compensation.clip(power * scale) : power;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Heading error of the last update, radians. */
+    public double getHeadingError() {
+        return headingError;
+    }
+
+    /** Largest wheel position error seen since {@link #start()}, in ticks. */
+    public double getMaxPositionError() {
+        return maxPositionError;
+    }
+}
@@ -0,0 +1,111 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import android.graphics.Canvas;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.vision.AdaptiveDetectionController;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+
+import java.util.List;
+
+/**
+ * Runs an {@link AprilTagProcessor} under an {@link AdaptiveDetectionController}: after each frame
+ * the processor's decimation is set from what was found, and while tags are being tracked the
+ * AprilTag processor only sees the predicted region of interest.
+ *
+ * The AprilTag processor has no way to search only part of a frame without breaking its pose
+ * solution (the lens intrinsics are fixed when it is built), so the region is applied by handing it
+ * a copy of the frame that is black outside the region: tag coordinates and poses stay in
+ * full-frame pixels, and the segmentation and quad fitting, the most expensive steps on a
+ * cluttered field, have nothing to work on there. The frame itself is left alone, so processors
+ * added to the portal after this one still see all of it.
+ *
+ * Add this processor to the portal instead of the AprilTag processor itself; detections are still
+ * read from the AprilTag processor.
+ */
+public class AdaptiveAprilTagProcessor implements VisionProcessor {
+    private static final Scalar BLANK = new Scalar(0, 0, 0, 0);
+
+    private final AprilTagProcessor delegate;
+    private final AdaptiveDetectionController controller = new AdaptiveDetectionController(640, 480);
+    /** The frame as the AprilTag processor sees it while a region is in use; other processors share the frame. */
+    private final Mat roiFrame = new Mat();
+    private int appliedDecimation;
+
+    /** Whether the AprilTag processor only sees the region of interest while tags are tracked. */
+    public volatile boolean useRoi = true;
+
+    public AdaptiveAprilTagProcessor(AprilTagProcessor delegate) {
+        this.delegate = delegate;
+        this.appliedDecimation = controller.getDecimation();
+        delegate.setDecimation(appliedDecimation);
+    }
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        controller.setFrameSize(width, height);
+        delegate.init(width, height, calibration);
+    }
+
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        Mat input = useRoi && controller.hasRoi() ? copyRoi(frame) : frame;
+        long start = System.nanoTime();
+        Object result = delegate.processFrame(input, captureTimeNanos);
+        long end = System.nanoTime();
+
+        List<AprilTagDetection> detections = delegate.getDetections();
+        if (detections != null) {
+            for (int i = 0; i < detections.size(); i++) {
+                Point[] corners = detections.get(i).corners;
+                if (corners == null || corners.length == 0) {
+                    continue;
+                }
+                double minX = corners[0].x, maxX = corners[0].x, minY = corners[0].y, maxY = corners[0].y;
+                for (int c = 1; c < corners.length; c++) {
+                    minX = Math.min(minX, corners[c].x);
+                    maxX = Math.max(maxX, corners[c].x);
+                    minY = Math.min(minY, corners[c].y);
+                    maxY = Math.max(maxY, corners[c].y);
+                }
+                controller.addDetection(minX, minY, maxX, maxY);
+            }
+        }
+        controller.endFrame(captureTimeNanos, start, end);
+
+        int decimation = controller.getDecimation();
+        if (decimation != appliedDecimation) {
+            delegate.setDecimation(decimation);
+            appliedDecimation = decimation;
+        }
+        return result;
+    }
+
+    /** Returns a copy of {@code frame} that is black outside the region of interest. */
+    private Mat copyRoi(Mat frame) {
+        int top = controller.getRoiY();
+        int bottom = top + controller.getRoiHeight();
+        int left = controller.getRoiX();
+        int right = left + controller.getRoiWidth();
+        roiFrame.create(frame.rows(), frame.cols(), frame.type());
+        roiFrame.setTo(BLANK);
+        frame.submat(top, bottom, left, right).copyTo(roiFrame.submat(top, bottom, left, right));
+        return roiFrame;
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight, float scaleBmpPxToCanvasPx,
+                            float scaleCanvasDensity, Object userContext) {
+        delegate.onDrawFrame(canvas, onscreenWidth, onscreenHeight, scaleBmpPxToCanvasPx, scaleCanvasDensity,
+                userContext);
+    }
+
+    public AdaptiveDetectionController getController() {
+        return controller;
+    }
+}
@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.vision.AdaptiveDetectionController;
+import org.firstinspires.ftc.teamcode.vision.TagObservation;
+import org.firstinspires.ftc.teamcode.vision.VisionScheduler;
+import org.firstinspires.ftc.vision.VisionPortal;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+
+import java.util.List;
+
+/**
+ * A webcam running the SDK's AprilTag processor, converted to {@link TagObservation}s.
+ * Decimation and region of interest adapt to the tags in view (see
+ * {@link AdaptiveAprilTagProcessor}).
+ *
+ * The processor reports in meters and radians, and each observation carries the frame's
+ * acquisition time so consumers can compensate for pipeline latency. {@link #poll()} only returns
+ * detections from frames that have not been returned before.
+ *
+ * Other processors can share the camera through a {@link VisionScheduler}; the AprilTag processor
+ * then gets a slot that runs on every frame and is added to the portal first, so its detections
+ * are not delayed by slower processors on the frames they run.
+ */
+public class AprilTagCamera {
+    private static final int MAX_OBSERVATIONS = 16;
+
+    private final VisionPortal portal;
+    private final AprilTagProcessor processor;
+    private final AdaptiveAprilTagProcessor adaptive;
+    private final VisionScheduler.Slot slot;
+    private final TagObservation[] observations = new TagObservation[MAX_OBSERVATIONS];
+    private int count;
+
+    public AprilTagCamera(HardwareMap hardwareMap, String webcamName) {
+        this(hardwareMap, webcamName, null);
+    }
+
+    /**
+     * @param scheduler        schedules the processors sharing the camera, or null if AprilTag is
+     *                         the only one
+     * @param sharedProcessors further processors for the same camera, usually
+     *                         {@link ScheduledProcessor}s on {@code scheduler}
+     */
+    public AprilTagCamera(HardwareMap hardwareMap, String webcamName, VisionScheduler scheduler,
+                          VisionProcessor... sharedProcessors) {
+        processor = new AprilTagProcessor.Builder()
+                .setOutputUnits(DistanceUnit.METER, AngleUnit.RADIANS)
+                .build();
+        adaptive = new AdaptiveAprilTagProcessor(processor);
+        slot = scheduler != null ? scheduler.add("AprilTag", 0) : null;
+        VisionPortal.Builder builder = new VisionPortal.Builder()
+                .setCamera(hardwareMap.get(WebcamName.class, webcamName))
+                .addProcessor(slot != null ? new ScheduledProcessor(adaptive, slot) : adaptive);
+        for (VisionProcessor shared : sharedProcessors) {
+            builder.addProcessor(shared);
+        }
+        portal = builder.build();
+        for (int i = 0; i < MAX_OBSERVATIONS; i++) {
+            observations[i] = new TagObservation();
+        }
+    }
+
+    /**
+     * Collects the detections of frames processed since the last call.
+     *
+     * @return how many observations are available through {@link #getObservation(int)}
+     */
+    public int poll() {
+        count = 0;
+        List<AprilTagDetection> detections = processor.getFreshDetections();
+        if (detections == null) {
+            return 0;
+        }
+        for (int i = 0; i < detections.size() && count < MAX_OBSERVATIONS; i++) {
+            AprilTagDetection detection = detections.get(i);
+            if (detection.metadata == null) {
+                continue; // not in the tag library, so no pose was computed
+            }
+            TagObservation observation = observations[count++];
+            observation.tagId = detection.id;
+            // ftcPose has x to the right of the camera and y out of the lens
+            observation.forward = detection.ftcPose.y;
+            observation.left = -detection.ftcPose.x;
+            observation.yaw = detection.ftcPose.yaw;
+            observation.captureNanos = detection.frameAcquisitionNanoTime;
+        }
+        return count;
+    }
+
+    /** The {@code i}-th observation of the last {@link #poll()}; overwritten by the next poll. */
+    public TagObservation getObservation(int i) {
+        return observations[i];
+    }
+
+    public AprilTagProcessor getProcessor() {
+        return processor;
+    }
+
+    /** Decimation, region of interest, frame rate and latency statistics. */
+    public AdaptiveDetectionController getDetectionController() {
+        return adaptive.getController();
+    }
+
+    /** The AprilTag processor's scheduler slot, or null without a scheduler. */
+    public VisionScheduler.Slot getSlot() {
+        return slot;
+    }
+
+    public VisionPortal getPortal() {
+        return portal;
+    }
+
+    public void close() {
+        portal.close();
+    }
+}
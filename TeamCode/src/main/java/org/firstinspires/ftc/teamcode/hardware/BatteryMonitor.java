@@ -0,0 +1,81 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smoothed battery voltage from a {@link SensorPoller} slot, so reading it costs the loop no bus
+ * time.
+ *
+ * The poller reads the hub voltage a few times a second ({@link #DEFAULT_RATE_HZ}). Each new read
+ * is blended into an exponential average with a time constant of {@link #timeConstantNanos}, so the
+ * brief sags of motors starting do not show, while the slow discharge over a match does. The first
+ * read is taken as is.
+ *
+ * Queries do not allocate. Single-threaded: query from the loop thread only.
+ */
+public class BatteryMonitor implements VoltageSource {
+    /** Voltage changes slowly; a few reads a second are plenty and keep the bus free. */
+    public static final double DEFAULT_RATE_HZ = 5;
+    public static final long DEFAULT_TIME_CONSTANT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public long timeConstantNanos = DEFAULT_TIME_CONSTANT_NANOS;
+
+    private final SensorPoller.Slot slot;
+    private final int voltsIndex;
+
+    private long readNanos;
+    private double lastReadVolts = Double.NaN;
+    private double volts = Double.NaN;
+    private long readCount;
+
+    /** @param voltsIndex index of the voltage in the slot's values */
+    public BatteryMonitor(SensorPoller.Slot slot, int voltsIndex) {
+        this.slot = slot;
+        this.voltsIndex = voltsIndex;
+    }
+
+    /** Smoothed volts, or NaN before the first valid read. */
+    @Override
+    public double getVolts() {
+        update();
+        return volts;
+    }
+
+    /** Takes the poller's latest read if it is new. */
+    private void update() {
+        long timestamp = slot.getTimestampNanos();
+        if (timestamp == readNanos) {
+            return;
+        }
+        double read = slot.get(voltsIndex);
+        long elapsed = timestamp - readNanos;
+        boolean first = readNanos == 0 || Double.isNaN(volts);
+        readNanos = timestamp;
+        lastReadVolts = read;
+        readCount++;
+        if (!(read > 0)) {
+            // No sensor answered; keep the average
+            return;
+        }
+        if (first) {
+            volts = read;
+        } else {
+            double alpha = timeConstantNanos > 0 ? 1 - Math.exp(-(double) elapsed / timeConstantNanos) : 1;
+            volts += (read - volts) * alpha;
+        }
+    }
+
+    /** The latest read, unsmoothed. */
+    public double getLastReadVolts() {
+        update();
+        return lastReadVolts;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    public SensorPoller.Slot getSlot() {
+        return slot;
+    }
+}
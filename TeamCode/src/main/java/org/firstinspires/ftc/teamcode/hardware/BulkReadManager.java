@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.List;
+
+/**
+ * Reads every encoder over the bus at most once per control cycle.
+ *
+ * Switches all hubs to {@link LynxModule.BulkCachingMode#MANUAL} (see ConceptMotorBulkRead for
+ * why that gives the shortest cycle times), and in {@link #update()} clears the bulk caches once
+ * and captures positions, velocities and commanded powers of every actuator in a
+ * {@link RobotIO} into a shared {@link SensorSnapshot}. From then until the next update, encoder
+ * reads through the RobotIO return the snapshot values instead of going to the hub.
+ */
+public class BulkReadManager {
+    private final List<LynxModule> hubs;
+    private final PowerOutput[] outputs;
+    private final SensorSnapshot snapshot;
+
+    public BulkReadManager(HardwareMap hardwareMap, RobotIO io) {
+        hubs = hardwareMap.getAll(LynxModule.class);
+        for (LynxModule hub : hubs) {
+            hub.setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+        }
+        outputs = io.outputs();
+        snapshot = new SensorSnapshot(outputs.length);
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] instanceof SdkHardware.Motor) {
+                ((SdkHardware.Motor) outputs[i]).useSnapshot(snapshot, i);
+            }
+        }
+    }
+
+    /** Clears the hub caches, performs this cycle's bulk reads and refreshes the snapshot. */
+    public SensorSnapshot update() {
+        for (int i = 0; i < hubs.size(); i++) {
+            hubs.get(i).clearBulkCache();
+        }
+        for (int i = 0; i < outputs.length; i++) {
+            PowerOutput output = outputs[i];
+            if (output instanceof SdkHardware.Motor) {
+                SdkHardware.Motor motor = (SdkHardware.Motor) output;
+                snapshot.set(i, motor.readPosition(), motor.readVelocity(), motor.getPower());
+            } else {
+                snapshot.set(i, 0, 0, output.getPower());
+            }
+        }
+        snapshot.commit(System.nanoTime());
+        return snapshot;
+    }
+
+    public SensorSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,7 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/** Robot heading from an IMU or a model of one. */
+public interface HeadingSource {
+    /** Yaw in radians, counter-clockwise positive. */
+    double getHeadingRadians();
+}
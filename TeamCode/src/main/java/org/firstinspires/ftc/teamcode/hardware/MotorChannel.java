@@ -0,0 +1,9 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/** A motor with an encoder. */
+public interface MotorChannel extends PowerOutput {
+    int getCurrentPosition();
+
+    /** Encoder velocity in ticks per second. */
+    double getVelocity();
+}
@@ -0,0 +1,128 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import android.graphics.Canvas;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.vision.CameraSwitcher;
+import org.firstinspires.ftc.vision.VisionPortal;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Mat;
+
+/**
+ * Several webcams, each streaming from init on through its own portal with its own processors,
+ * of which one camera's processors run at a time (see {@link CameraSwitcher}). Switching costs at
+ * most one frame period instead of a stream restart.
+ *
+ * Every camera's processors are wrapped into one processor per portal that runs them in order on
+ * the active camera's frames and skips the inactive cameras' frames entirely. Each portal gets its
+ * own pane of the live view.
+ */
+public class MultiCameraManager {
+    private final VisionPortal[] portals;
+    private final CameraSwitcher switcher;
+
+    /**
+     * @param processors the processors of each camera, in the order of {@code webcamNames}; a
+     *                   processor instance must not be shared between cameras
+     */
+    public MultiCameraManager(HardwareMap hardwareMap, String[] webcamNames, VisionProcessor[][] processors) {
+        if (webcamNames.length != processors.length) {
+            throw new IllegalArgumentException("Need one processor list per camera");
+        }
+        int count = webcamNames.length;
+        switcher = new CameraSwitcher(count, Clock.SYSTEM);
+        portals = new VisionPortal[count];
+        int[] viewIds = VisionPortal.makeMultiPortalView(count, VisionPortal.MultiPortalLayout.HORIZONTAL);
+        for (int i = 0; i < count; i++) {
+            portals[i] = new VisionPortal.Builder()
+                    .setCamera(hardwareMap.get(WebcamName.class, webcamNames[i]))
+                    .setLiveViewContainerId(viewIds[i])
+                    .addProcessor(new SwitchedProcessors(switcher, i, processors[i]))
+                    .build();
+        }
+    }
+
+    /** Makes {@code camera}'s processors the ones that run, from its next frame on. */
+    public void switchTo(int camera) {
+        switcher.switchTo(camera);
+    }
+
+    public int getActive() {
+        return switcher.getActive();
+    }
+
+    /** Whether every camera is streaming, i.e. any switch will take effect within one frame. */
+    public boolean isReady() {
+        for (VisionPortal portal : portals) {
+            if (portal.getCameraState() != VisionPortal.CameraState.STREAMING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Switch latency and per-camera frame counts. */
+    public CameraSwitcher getSwitcher() {
+        return switcher;
+    }
+
+    public VisionPortal getPortal(int camera) {
+        return portals[camera];
+    }
+
+    public void close() {
+        for (VisionPortal portal : portals) {
+            portal.close();
+        }
+    }
+
+    /** One camera's processors, run only while the camera is active. */
+    private static final class SwitchedProcessors implements VisionProcessor {
+        private final CameraSwitcher switcher;
+        private final int camera;
+        private final VisionProcessor[] delegates;
+
+        SwitchedProcessors(CameraSwitcher switcher, int camera, VisionProcessor[] delegates) {
+            this.switcher = switcher;
+            this.camera = camera;
+            this.delegates = delegates;
+        }
+
+        @Override
+        public void init(int width, int height, CameraCalibration calibration) {
+            for (VisionProcessor delegate : delegates) {
+                delegate.init(width, height, calibration);
+            }
+        }
+
+        @Override
+        public Object processFrame(Mat frame, long captureTimeNanos) {
+            if (!switcher.shouldProcess(camera)) {
+                return null;
+            }
+            // A fresh array per frame, since the live view draws it on another thread
+            Object[] frameResults = new Object[delegates.length];
+            for (int i = 0; i < delegates.length; i++) {
+                frameResults[i] = delegates[i].processFrame(frame, captureTimeNanos);
+            }
+            return frameResults;
+        }
+
+        @Override
+        public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight, float scaleBmpPxToCanvasPx,
+                                float scaleCanvasDensity, Object userContext) {
+            if (userContext == null) {
+                return;
+            }
+            Object[] frameResults = (Object[]) userContext;
+            for (int i = 0; i < delegates.length; i++) {
+                delegates[i].onDrawFrame(canvas, onscreenWidth, onscreenHeight, scaleBmpPxToCanvasPx,
+                        scaleCanvasDensity, frameResults[i]);
+            }
+        }
+    }
+}
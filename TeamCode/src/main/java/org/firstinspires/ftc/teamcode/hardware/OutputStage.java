@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * Write-coalescing layer in front of a {@link RobotIO}.
+ *
+ * Control code writes to the {@link #buffered()} RobotIO, which only remembers the commanded
+ * powers. {@link #flush()}, called once at the end of the cycle, then issues a bus write only for
+ * channels whose command moved by more than the deadband since the last write. A command of
+ * exactly zero is always honoured so motors stop precisely. Encoder reads on the buffered motors
+ * pass straight through to the underlying ones.
+ */
+public class OutputStage {
+    public static final double DEFAULT_DEADBAND = 0.005;
+
+    private final PowerOutput[] targets;
+    private final double[] commanded;
+    private final double[] written;
+    private final RobotIO buffered;
+    private double deadband;
+
+    private long writesIssued;
+    private long writesSkipped;
+
+    public OutputStage(RobotIO target) {
+        this(target, DEFAULT_DEADBAND);
+    }
+
+    public OutputStage(RobotIO target, double deadband) {
+        this.targets = target.outputs();
+        this.commanded = new double[targets.length];
+        this.written = new double[targets.length];
+        this.deadband = deadband;
+        for (int i = 0; i < targets.length; i++) {
+            commanded[i] = targets[i].getPower();
+            written[i] = Double.NaN; // force the first write of every channel
+        }
+        this.buffered = new RobotIO(
+                new BufferedMotor(0, target.frontLeft), new BufferedMotor(1, target.frontRight),
+                new BufferedMotor(2, target.backLeft), new BufferedMotor(3, target.backRight),
+                new BufferedMotor(4, target.frontArm), new BufferedMotor(5, target.chainDrive),
+                new BufferedOutput(6), new BufferedOutput(7));
+    }
+
+    /** The RobotIO control code should write to. */
+    public RobotIO buffered() {
+        return buffered;
+    }
+
+    public void setDeadband(double deadband) {
+        this.deadband = deadband;
+    }
+
+    /** Writes every channel whose command changed by more than the deadband since its last write. */
+    public void flush() {
+        for (int i = 0; i < targets.length; i++) {
+            double power = commanded[i];
+            double last = written[i];
+            if (Double.isNaN(last) || Math.abs(power - last) > deadband || (power == 0 && last != 0)) {
+                targets[i].setPower(power);
+                written[i] = power;
+                writesIssued++;
+            } else {
+                writesSkipped++;
+            }
+        }
+    }
+
+    /** Forgets what was last written, so the next {@link #flush()} writes every channel. */
+    public void invalidate() {
+        for (int i = 0; i < written.length; i++) {
+            written[i] = Double.NaN;
+        }
+    }
+
+    public long getWritesIssued() {
+        return writesIssued;
+    }
+
+    /** Bus writes avoided because the command had not changed. */
+    public long getWritesSkipped() {
+        return writesSkipped;
+    }
+
+    private class BufferedOutput implements PowerOutput {
+        final int channel;
+
+        BufferedOutput(int channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void setPower(double power) {
+            commanded[channel] = power;
+        }
+
+        @Override
+        public double getPower() {
+            return commanded[channel];
+        }
+    }
+
+    private class BufferedMotor extends BufferedOutput implements MotorChannel {
+        private final MotorChannel motor;
+
+        BufferedMotor(int channel, MotorChannel motor) {
+            super(channel);
+            this.motor = motor;
+        }
+
+        @Override
+        public int getCurrentPosition() {
+            return motor.getCurrentPosition();
+        }
+
+        @Override
+        public double getVelocity() {
+            return motor.getVelocity();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import org.firstinspires.ftc.teamcode.control.Angles;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heading from an IMU read by a {@link SensorPoller}, so heading control never waits on the IMU's
+ * I2C transaction.
+ *
+ * The poller reads yaw and yaw rate at the IMU's update rate. A query copies the latest read out of
+ * its slot, unwraps the yaw against the previous read, and extrapolates it by the yaw rate over the
+ * time since the read, so the heading stays current between reads. Extrapolation stops after
+ * {@link #maxExtrapolationNanos}, so a stalled IMU holds the last heading instead of drifting away.
+ *
+ * The heading is continuous: it keeps counting past +/-pi instead of wrapping (one full turn to the
+ * left reads 2 pi). Consumers take differences through {@link Angles#normalize}, so either works
+ * for them. Before the first read the heading is 0, which is what the IMU reads after a yaw reset.
+ *
+ * Queries do not allocate. Single-threaded: query from the loop thread only.
+ */
+public class PolledHeading implements HeadingSource {
+    /** Three periods at the IMU's 100 Hz: a missed read or two is bridged, a stall is not. */
+    public static final long DEFAULT_MAX_EXTRAPOLATION_NANOS = TimeUnit.MILLISECONDS.toNanos(30);
+
+    public long maxExtrapolationNanos = DEFAULT_MAX_EXTRAPOLATION_NANOS;
+
+    private final SensorPoller.Slot slot;
+    private final int yawIndex;
+    private final int yawRateIndex;
+    private final Clock clock;
+    private final double[] values;
+
+    private long readNanos;
+    private double yaw;
+    private double yawRate;
+    private long readCount;
+    private long queryCount;
+    private long lastAgeNanos;
+
+    /**
+     * @param slot         the IMU's slot, e.g. from {@code SdkSensors.addImu}
+     * @param yawIndex     index of the yaw in radians, counter-clockwise positive
+     * @param yawRateIndex index of the yaw rate in radians per second
+     */
+    public PolledHeading(SensorPoller.Slot slot, int yawIndex, int yawRateIndex, Clock clock) {
+        this.slot = slot;
+        this.yawIndex = yawIndex;
+        this.yawRateIndex = yawRateIndex;
+        this.clock = clock;
+        this.values = new double[slot.getValueCount()];
+    }
+
+    @Override
+    public double getHeadingRadians() {
+        queryCount++;
+        update();
+        if (readNanos == 0) {
+            return 0;
+        }
+        long age = clock.nanoTime() - readNanos;
+        lastAgeNanos = age;
+        long extrapolate = Math.max(0, Math.min(age, maxExtrapolationNanos));
+        return yaw + yawRate * (extrapolate / 1e9);
+    }
+
+    /** Takes the poller's latest read if it is new. */
+    private void update() {
+        if (slot.getTimestampNanos() == readNanos) {
+            return;
+        }
+        long timestamp = slot.read(values);
+        if (timestamp == readNanos) {
+            return;
+        }
+        double wrapped = values[yawIndex];
+        yaw = readNanos == 0 ? wrapped : Angles.unwrap(wrapped, yaw);
+        yawRate = values[yawRateIndex];
+        readNanos = timestamp;
+        readCount++;
+    }
+
+    /** The continuous yaw of the latest read, without extrapolation. */
+    public double getLastReadRadians() {
+        update();
+        return yaw;
+    }
+
+    /** Yaw rate of the latest read, radians per second. */
+    public double getYawRate() {
+        update();
+        return yawRate;
+    }
+
+    public boolean hasHeading() {
+        update();
+        return readNanos != 0;
+    }
+
+    /** How old the read was at the last query; the time extrapolated over, up to the limit. */
+    public long getLastAgeNanos() {
+        return lastAgeNanos;
+    }
+
+    /** Distinct IMU reads used. */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /** Heading queries; each would have been an I2C transaction without the poller. */
+    public long getQueryCount() {
+        return queryCount;
+    }
+
+    public SensorPoller.Slot getSlot() {
+        return slot;
+    }
+}
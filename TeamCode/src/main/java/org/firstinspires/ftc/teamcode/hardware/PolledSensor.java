@@ -0,0 +1,7 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/** A sensor read by {@link SensorPoller}: one blocking transaction that fills a fixed number of values. */
+public interface PolledSensor {
+    /** Reads the sensor, blocking on the bus, into {@code out}. May throw if the device fails. */
+    void read(double[] out);
+}
@@ -0,0 +1,9 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/** An actuator driven by a power in [-1, 1]: a DC motor or a continuous rotation servo. */
+public interface PowerOutput {
+    void setPower(double power);
+
+    /** The last commanded power. */
+    double getPower();
+}
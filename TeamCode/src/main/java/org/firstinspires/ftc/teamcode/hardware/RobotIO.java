@@ -0,0 +1,65 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * The actuators of our robot, independent of where they come from. {@link SdkHardware} builds one
+ * from the FTC hardware map; {@link org.firstinspires.ftc.teamcode.sim.SimulatedRobot} builds one
+ * backed by a simulation.
+ *
+ * Drive motors are expected to already have their directions configured, so a positive power on
+ * all four wheels drives the robot forward.
+ */
+public class RobotIO {
+    /** Number of actuators, in the order of {@link #outputs()} and the recording channels. */
+    public static final int OUTPUT_COUNT = 8;
+    /** The first outputs that are DC motors; the rest are servos. */
+    public static final int MOTOR_COUNT = 6;
+
+    public final MotorChannel frontLeft, frontRight, backLeft, backRight;
+    public final MotorChannel frontArm, chainDrive;
+    public final PowerOutput armRotator, dropper;
+
+    private final PowerOutput[] outputs;
+
+    public RobotIO(MotorChannel frontLeft, MotorChannel frontRight, MotorChannel backLeft, MotorChannel backRight,
+                   MotorChannel frontArm, MotorChannel chainDrive, PowerOutput armRotator, PowerOutput dropper) {
+        this.frontLeft = frontLeft;
+        this.frontRight = frontRight;
+        this.backLeft = backLeft;
+        this.backRight = backRight;
+        this.frontArm = frontArm;
+        this.chainDrive = chainDrive;
+        this.armRotator = armRotator;
+        this.dropper = dropper;
+        this.outputs = new PowerOutput[] {
+                frontLeft, frontRight, backLeft, backRight, frontArm, chainDrive, armRotator, dropper
+        };
+    }
+
+    /**
+     * All actuators in recording channel order: front left, front right, back left, back right,
+     * arm, chain, arm rotator, dropper.
+     */
+    public PowerOutput[] outputs() {
+        return outputs;
+    }
+
+    /** Sets every actuator from {@code values}, given in {@link #outputs()} order. */
+    public void applyPowers(float[] values) {
+        for (int i = 0; i < OUTPUT_COUNT; i++) {
+            outputs[i].setPower(values[i]);
+        }
+    }
+
+    /** Copies the last commanded power of every actuator into {@code out}, in {@link #outputs()} order. */
+    public void readPowers(float[] out) {
+        for (int i = 0; i < OUTPUT_COUNT; i++) {
+            out[i] = (float) outputs[i].getPower();
+        }
+    }
+
+    public void stopAll() {
+        for (PowerOutput output : outputs) {
+            output.setPower(0);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import android.graphics.Canvas;
+import android.os.Debug;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.vision.VisionScheduler;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Mat;
+
+/**
+ * Runs a {@link VisionProcessor} only on the frames its {@link VisionScheduler.Slot} allows, and
+ * records the wall and CPU time of every run. Add this to the portal in place of the processor.
+ * On skipped frames the processor does not see the frame at all, and the live view keeps drawing
+ * its last result.
+ */
+public class ScheduledProcessor implements VisionProcessor {
+    private final VisionProcessor delegate;
+    private final VisionScheduler.Slot slot;
+    private Object lastResult;
+
+    public ScheduledProcessor(VisionProcessor delegate, VisionScheduler.Slot slot) {
+        this.delegate = delegate;
+        this.slot = slot;
+    }
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        delegate.init(width, height, calibration);
+    }
+
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        if (!slot.shouldRun(captureTimeNanos)) {
+            return lastResult;
+        }
+        long cpuStart = Debug.threadCpuTimeNanos();
+        long start = System.nanoTime();
+        lastResult = delegate.processFrame(frame, captureTimeNanos);
+        long end = System.nanoTime();
+        slot.recordRun(end, end - start, Debug.threadCpuTimeNanos() - cpuStart);
+        return lastResult;
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight, float scaleBmpPxToCanvasPx,
+                            float scaleCanvasDensity, Object userContext) {
+        if (userContext != null) {
+            delegate.onDrawFrame(canvas, onscreenWidth, onscreenHeight, scaleBmpPxToCanvasPx, scaleCanvasDensity,
+                    userContext);
+        }
+    }
+
+    public VisionScheduler.Slot getSlot() {
+        return slot;
+    }
+}
@@ -0,0 +1,177 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.CRServo;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.Gamepad;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
+
+import org.firstinspires.ftc.teamcode.control.DriverInput;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/** Binds {@link RobotIO} and {@link DriverInput} to the FTC SDK. */
+public final class SdkHardware {
+    private SdkHardware() {
+    }
+
+    /** Looks up and configures the robot's actuators in the hardware map. */
+    public static RobotIO createRobotIO(HardwareMap hardwareMap) {
+        DcMotor frontLeft = hardwareMap.get(DcMotor.class, "front_left_motor");
+        DcMotor frontRight = hardwareMap.get(DcMotor.class, "front_right_motor");
+        DcMotor backLeft = hardwareMap.get(DcMotor.class, "back_left_motor");
+        DcMotor backRight = hardwareMap.get(DcMotor.class, "back_right_motor");
+        DcMotor chainDrive = hardwareMap.get(DcMotor.class, "chain_drive");
+        DcMotor frontArm = hardwareMap.get(DcMotor.class, "front_arm_motor");
+        CRServo armRotator = hardwareMap.get(CRServo.class, "arm_rotator_servo");
+        CRServo dropper = hardwareMap.get(CRServo.class, "drop_servo");
+
+        frontLeft.setDirection(DcMotor.Direction.REVERSE);
+        backLeft.setDirection(DcMotor.Direction.REVERSE);
+        frontArm.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+
+        frontArm.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+        frontArm.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+
+        // Drive encoders are only read (for recording and trajectory following); power stays open-loop
+        for (DcMotor motor : new DcMotor[] {frontLeft, frontRight, backLeft, backRight}) {
+            motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+            motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        }
+
+        return new RobotIO(new Motor(frontLeft), new Motor(frontRight), new Motor(backLeft), new Motor(backRight),
+                new Motor(frontArm), new Motor(chainDrive), new Servo(armRotator), new Servo(dropper));
+    }
+
+    /**
+     * Initializes the control hub IMU, adds it to {@code poller} and returns a heading read from the
+     * poller's slot, or null if the configuration has no device named "imu". The poller must not be
+     * started yet; the heading reads 0 until the poller is started and has read the IMU once.
+     */
+    public static PolledHeading createPolledHeadingSource(HardwareMap hardwareMap, SensorPoller poller,
+                                                          double rateHz) {
+        IMU imu = initializeImu(hardwareMap);
+        if (imu == null) {
+            return null;
+        }
+        SensorPoller.Slot slot = SdkSensors.addImu(poller, "IMU", imu, rateHz);
+        return new PolledHeading(slot, SdkSensors.IMU_YAW, SdkSensors.IMU_YAW_RATE, Clock.SYSTEM);
+    }
+
+    /**
+     * Adds the hubs' voltage sensors to {@code poller}, read at {@link BatteryMonitor#DEFAULT_RATE_HZ},
+     * and returns their smoothed voltage. The poller must not be started yet.
+     */
+    public static BatteryMonitor createBatteryMonitor(HardwareMap hardwareMap, SensorPoller poller) {
+        SensorPoller.Slot slot = SdkSensors.addBatteryVoltage(poller, "Battery", hardwareMap.voltageSensor,
+                BatteryMonitor.DEFAULT_RATE_HZ);
+        return new BatteryMonitor(slot, SdkSensors.BATTERY_VOLTS);
+    }
+
+    /**
+     * Initializes the control hub IMU with zero yaw, or returns null if the configuration has no
+     * device named "imu". Orientation matches RobotAutoDriveByGyro_Linear.
+     */
+    public static IMU initializeImu(HardwareMap hardwareMap) {
+        IMU imu = hardwareMap.tryGet(IMU.class, "imu");
+        if (imu == null) {
+            return null;
+        }
+        imu.initialize(new IMU.Parameters(new RevHubOrientationOnRobot(
+                RevHubOrientationOnRobot.LogoFacingDirection.UP,
+                RevHubOrientationOnRobot.UsbFacingDirection.FORWARD)));
+        imu.resetYaw();
+        return imu;
+    }
+
+    /** Copies the gamepad fields the TeamCode controllers use into {@code input}. */
+    public static void readDriverInput(DriverInput input, Gamepad gamepad1, Gamepad gamepad2) {
+        input.driveY = -gamepad1.left_stick_y;
+        input.driveX = gamepad1.left_stick_x;
+        input.turn = gamepad1.right_stick_x;
+        input.armUp = gamepad1.right_trigger;
+        input.armDown = gamepad1.left_trigger;
+        input.chainForward = gamepad2.right_trigger;
+        input.chainReverse = gamepad2.left_trigger;
+        input.armRotator = gamepad2.left_stick_y;
+        input.dropperStick = gamepad2.right_stick_y;
+        input.dropperForward = gamepad2.right_bumper;
+        input.dropperReverse = gamepad2.left_bumper;
+        input.dropperCycle = gamepad2.a;
+    }
+
+    /**
+     * Motor with a locally tracked power, so reading back the commanded power never goes over the
+     * bus. Once attached to a {@link BulkReadManager} snapshot, encoder reads return the values
+     * captured at the start of the cycle.
+     */
+    static class Motor implements MotorChannel {
+        final DcMotor motor;
+        private final DcMotorEx motorEx;
+        private double power;
+        private SensorSnapshot snapshot;
+        private int channel;
+
+        Motor(DcMotor motor) {
+            this.motor = motor;
+            this.motorEx = motor instanceof DcMotorEx ? (DcMotorEx) motor : null;
+            this.power = motor.getPower();
+        }
+
+        @Override
+        public void setPower(double power) {
+            this.power = power;
+            motor.setPower(power);
+        }
+
+        @Override
+        public double getPower() {
+            return power;
+        }
+
+        @Override
+        public int getCurrentPosition() {
+            return snapshot != null ? snapshot.getPosition(channel) : readPosition();
+        }
+
+        @Override
+        public double getVelocity() {
+            return snapshot != null ? snapshot.getVelocity(channel) : readVelocity();
+        }
+
+        int readPosition() {
+            return motor.getCurrentPosition();
+        }
+
+        double readVelocity() {
+            return motorEx != null ? motorEx.getVelocity() : 0;
+        }
+
+        void useSnapshot(SensorSnapshot snapshot, int channel) {
+            this.snapshot = snapshot;
+            this.channel = channel;
+        }
+    }
+
+    static class Servo implements PowerOutput {
+        final CRServo servo;
+        private double power;
+
+        Servo(CRServo servo) {
+            this.servo = servo;
+            this.power = servo.getPower();
+        }
+
+        @Override
+        public void setPower(double power) {
+            this.power = power;
+            servo.setPower(power);
+        }
+
+        @Override
+        public double getPower() {
+            return power;
+        }
+    }
+}
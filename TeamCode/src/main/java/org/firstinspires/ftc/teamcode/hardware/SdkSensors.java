@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.hardware.dfrobot.HuskyLens;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.NormalizedColorSensor;
+import com.qualcomm.robotcore.hardware.NormalizedRGBA;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * Adapts SDK I2C sensors to {@link PolledSensor}, each read as one set of values in the layout
+ * given by the index constants. Every adapter does the fewest bus transactions that fill its
+ * values: one distance read in meters (convert units from that rather than reading once per unit),
+ * one color read plus the proximity read if the sensor has one.
+ */
+public final class SdkSensors {
+    public static final int DISTANCE_METERS = 0;
+    public static final int DISTANCE_VALUES = 1;
+
+    public static final int COLOR_RED = 0;
+    public static final int COLOR_GREEN = 1;
+    public static final int COLOR_BLUE = 2;
+    public static final int COLOR_ALPHA = 3;
+    /** NaN if the sensor has no proximity sensor. */
+    public static final int COLOR_DISTANCE_METERS = 4;
+    public static final int COLOR_VALUES = 5;
+
+    public static final int HUSKY_BLOCK_COUNT = 0;
+    /** Id, center and size (pixels) of the first block; NaN if there is none. */
+    public static final int HUSKY_ID = 1;
+    public static final int HUSKY_X = 2;
+    public static final int HUSKY_Y = 3;
+    public static final int HUSKY_WIDTH = 4;
+    public static final int HUSKY_HEIGHT = 5;
+    public static final int HUSKY_VALUES = 6;
+
+    /** Radians, and radians per second counter-clockwise for the yaw rate. */
+    public static final int IMU_YAW = 0;
+    public static final int IMU_PITCH = 1;
+    public static final int IMU_ROLL = 2;
+    public static final int IMU_YAW_RATE = 3;
+    public static final int IMU_VALUES = 4;
+
+    /** NaN if no voltage sensor answered. */
+    public static final int BATTERY_VOLTS = 0;
+    public static final int BATTERY_VALUES = 1;
+
+    private SdkSensors() {
+    }
+
+    public static SensorPoller.Slot addDistance(SensorPoller poller, String name, DistanceSensor sensor, double rateHz) {
+        return poller.add(name, out -> out[DISTANCE_METERS] = sensor.getDistance(DistanceUnit.METER),
+                DISTANCE_VALUES, rateHz);
+    }
+
+    public static SensorPoller.Slot addColor(SensorPoller poller, String name, NormalizedColorSensor sensor,
+                                             double rateHz) {
+        DistanceSensor proximity = sensor instanceof DistanceSensor ? (DistanceSensor) sensor : null;
+        return poller.add(name, out -> {
+            NormalizedRGBA colors = sensor.getNormalizedColors();
+            out[COLOR_RED] = colors.red;
+            out[COLOR_GREEN] = colors.green;
+            out[COLOR_BLUE] = colors.blue;
+            out[COLOR_ALPHA] = colors.alpha;
+            out[COLOR_DISTANCE_METERS] = proximity != null ? proximity.getDistance(DistanceUnit.METER) : Double.NaN;
+        }, COLOR_VALUES, rateHz);
+    }
+
+    public static SensorPoller.Slot addHuskyLens(SensorPoller poller, String name, HuskyLens huskyLens, double rateHz) {
+        return poller.add(name, out -> {
+            HuskyLens.Block[] blocks = huskyLens.blocks();
+            out[HUSKY_BLOCK_COUNT] = blocks.length;
+            HuskyLens.Block first = blocks.length > 0 ? blocks[0] : null;
+            out[HUSKY_ID] = first != null ? first.id : Double.NaN;
+            out[HUSKY_X] = first != null ? first.x : Double.NaN;
+            out[HUSKY_Y] = first != null ? first.y : Double.NaN;
+            out[HUSKY_WIDTH] = first != null ? first.width : Double.NaN;
+            out[HUSKY_HEIGHT] = first != null ? first.height : Double.NaN;
+        }, HUSKY_VALUES, rateHz);
+    }
+
+    /** {@code imu} must already be initialized (see {@link SdkHardware#initializeImu}). */
+    public static SensorPoller.Slot addImu(SensorPoller poller, String name, IMU imu, double rateHz) {
+        return poller.add(name, out -> {
+            YawPitchRollAngles angles = imu.getRobotYawPitchRollAngles();
+            out[IMU_YAW] = angles.getYaw(AngleUnit.RADIANS);
+            out[IMU_PITCH] = angles.getPitch(AngleUnit.RADIANS);
+            out[IMU_ROLL] = angles.getRoll(AngleUnit.RADIANS);
+            out[IMU_YAW_RATE] = imu.getRobotAngularVelocity(AngleUnit.RADIANS).zRotationRate;
+        }, IMU_VALUES, rateHz);
+    }
+
+    /**
+     * Battery voltage as the lowest positive reading of {@code sensors} (one per hub), as
+     * {@code ConceptTelemetry.getBatteryVoltage()} does.
+     */
+    public static SensorPoller.Slot addBatteryVoltage(SensorPoller poller, String name,
+                                                      Iterable<VoltageSensor> sensors, double rateHz) {
+        return poller.add(name, out -> {
+            double volts = Double.POSITIVE_INFINITY;
+            for (VoltageSensor sensor : sensors) {
+                double voltage = sensor.getVoltage();
+                if (voltage > 0) {
+                    volts = Math.min(volts, voltage);
+                }
+            }
+            out[BATTERY_VOLTS] = volts != Double.POSITIVE_INFINITY ? volts : Double.NaN;
+        }, BATTERY_VALUES, rateHz);
+    }
+}
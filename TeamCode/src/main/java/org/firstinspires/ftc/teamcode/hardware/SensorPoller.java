@@ -0,0 +1,250 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads slow I2C sensors (distance, color, HuskyLens, IMU) on a background thread, each at its own
+ * rate, so the control loop never waits on the bus.
+ *
+ * Every sensor gets a {@link Slot} holding its latest values and the time they were read. The
+ * poller thread is the only writer; readers on any thread get a consistent set of values from
+ * {@link Slot#read(double[])} without locking or allocating (a sequence counter tells them to retry
+ * in the rare case they overlapped a write). A sensor that throws keeps its last values and counts
+ * the error.
+ *
+ * Add every sensor before {@link #start()}. {@link #pollDue()} does one round of the thread's work
+ * and can be called directly against a simulated clock instead of starting the thread.
+ */
+public class SensorPoller implements Closeable {
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    public static final class Slot {
+        public final String name;
+
+        private final PolledSensor sensor;
+        private final double[] buffer;
+        private final AtomicLongArray values;
+        private final AtomicInteger sequence = new AtomicInteger();
+        private volatile long timestampNanos;
+        private volatile boolean enabled = true;
+        private volatile long periodNanos;
+        private long nextDueNanos;
+
+        private final LatencyHistogram readTime = new LatencyHistogram();
+        private volatile long readCount;
+        private volatile long errorCount;
+        private volatile RuntimeException lastError;
+
+        Slot(String name, PolledSensor sensor, int valueCount, double rateHz) {
+            this.name = name;
+            this.sensor = sensor;
+            this.buffer = new double[valueCount];
+            this.values = new AtomicLongArray(valueCount);
+            setRate(rateHz);
+        }
+
+        /** Reads at most {@code rateHz} times per second; 0 reads on every round. */
+        public void setRate(double rateHz) {
+            periodNanos = rateHz > 0 ? (long) (1e9 / rateHz) : 0;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public int getValueCount() {
+            return buffer.length;
+        }
+
+        /**
+         * Copies the latest values into {@code out}.
+         *
+         * @return when they were read (the middle of the bus transaction), or 0 before the first read
+         */
+        public long read(double[] out) {
+            while (true) {
+                int before = sequence.get();
+                if ((before & 1) == 0) {
+                    long timestamp = timestampNanos;
+                    for (int i = 0; i < buffer.length; i++) {
+                        out[i] = Double.longBitsToDouble(values.get(i));
+                    }
+                    if (sequence.get() == before) {
+                        return timestamp;
+                    }
+                }
+                Thread.yield();
+            }
+        }
+
+        /** The latest value {@code index}, on its own; use {@link #read(double[])} for values that belong together. */
+        public double get(int index) {
+            return Double.longBitsToDouble(values.get(index));
+        }
+
+        /** When the latest values were read, or 0 before the first read. */
+        public long getTimestampNanos() {
+            return timestampNanos;
+        }
+
+        public boolean hasValue() {
+            return timestampNanos != 0;
+        }
+
+        /** Bus time of each read. */
+        public LatencyHistogram getReadTime() {
+            return readTime;
+        }
+
+        public long getReadCount() {
+            return readCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        /** The last exception the sensor threw, or null. */
+        public RuntimeException getLastError() {
+            return lastError;
+        }
+
+        /** Reads the sensor if it is due; returns when it is next due. Poller thread only. */
+        long pollIfDue(Clock clock) {
+            long now = clock.nanoTime();
+            if (!enabled) {
+                return now + MAX_IDLE_NANOS;
+            }
+            if (now - nextDueNanos < 0) {
+                return nextDueNanos;
+            }
+            long start = now;
+            try {
+                sensor.read(buffer);
+            } catch (RuntimeException e) {
+                lastError = e;
+                errorCount++;
+                return schedule(clock.nanoTime());
+            }
+            long end = clock.nanoTime();
+            sequence.incrementAndGet();
+            for (int i = 0; i < buffer.length; i++) {
+                values.lazySet(i, Double.doubleToRawLongBits(buffer[i]));
+            }
+            timestampNanos = Math.max(1, start + (end - start) / 2);
+            sequence.incrementAndGet();
+            readTime.record(end - start);
+            readCount++;
+            return schedule(end);
+        }
+
+        private long schedule(long now) {
+            long period = periodNanos;
+            // Keep to the average rate, but start afresh after falling behind
+            nextDueNanos += period;
+            if (nextDueNanos - now <= 0) {
+                nextDueNanos = now + period;
+            }
+            return nextDueNanos;
+        }
+    }
+
+    private final Clock clock;
+    private final List<Slot> slots = new ArrayList<>();
+    private Slot[] pollOrder = new Slot[0];
+    private Thread thread;
+    private volatile boolean running;
+
+    public SensorPoller(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Adds a sensor.
+     *
+     * @param valueCount how many values {@link PolledSensor#read} fills
+     * @param rateHz     maximum reads per second, or 0 to read as often as possible
+     */
+    public synchronized Slot add(String name, PolledSensor sensor, int valueCount, double rateHz) {
+        if (thread != null) {
+            throw new IllegalStateException("Add sensors before starting the poller");
+        }
+        Slot slot = new Slot(name, sensor, valueCount, rateHz);
+        slots.add(slot);
+        pollOrder = slots.toArray(new Slot[0]);
+        return slot;
+    }
+
+    public synchronized List<Slot> getSlots() {
+        return Collections.unmodifiableList(new ArrayList<>(slots));
+    }
+
+    /** Starts the polling thread. */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::pollLoop, "SensorPoller");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reads every sensor that is due, in the order they were added.
+     *
+     * @return nanoseconds until the next sensor is due, 0 if one already is
+     */
+    public long pollDue() {
+        long nextDue = clock.nanoTime() + MAX_IDLE_NANOS;
+        for (Slot slot : pollOrder) {
+            long due = slot.pollIfDue(clock);
+            if (due - nextDue < 0) {
+                nextDue = due;
+            }
+        }
+        return Math.max(0, nextDue - clock.nanoTime());
+    }
+
+    private void pollLoop() {
+        while (running) {
+            long wait = pollDue();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    /** Stops the polling thread, waiting for a read in progress to finish. */
+    @Override
+    public void close() {
+        Thread pollThread;
+        synchronized (this) {
+            running = false;
+            pollThread = thread;
+        }
+        if (pollThread == null) {
+            return;
+        }
+        LockSupport.unpark(pollThread);
+        try {
+            pollThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
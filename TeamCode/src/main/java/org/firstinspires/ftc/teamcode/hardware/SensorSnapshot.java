@@ -0,0 +1,68 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * Actuator and encoder state captured once at the start of a control cycle.
+ *
+ * One instance is created per robot and refreshed in place every cycle, so handing it to
+ * subsystems costs nothing; subsystems only get read access. Channels are indexed in
+ * {@link RobotIO#outputs()} order. Outputs without an encoder report a position and velocity of 0.
+ */
+public final class SensorSnapshot {
+    private final int[] positions;
+    private final double[] velocities;
+    private final double[] powers;
+    private long timestampNanos;
+    private long cycle;
+
+    public SensorSnapshot(int channelCount) {
+        positions = new int[channelCount];
+        velocities = new double[channelCount];
+        powers = new double[channelCount];
+    }
+
+    public int getChannelCount() {
+        return positions.length;
+    }
+
+    public int getPosition(int channel) {
+        return positions[channel];
+    }
+
+    /** Encoder velocity in ticks per second. */
+    public double getVelocity(int channel) {
+        return velocities[channel];
+    }
+
+    /** Power commanded at the time of the snapshot. */
+    public double getPower(int channel) {
+        return powers[channel];
+    }
+
+    /** Copies all powers into {@code out} as floats, e.g. for recording. */
+    public void getPowers(float[] out) {
+        for (int i = 0; i < powers.length; i++) {
+            out[i] = (float) powers[i];
+        }
+    }
+
+    /** {@code System.nanoTime()} at which the snapshot was taken. */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /** Number of times the snapshot has been refreshed. */
+    public long getCycle() {
+        return cycle;
+    }
+
+    void set(int channel, int position, double velocity, double power) {
+        positions[channel] = position;
+        velocities[channel] = velocity;
+        powers[channel] = power;
+    }
+
+    void commit(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+        cycle++;
+    }
+}
@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import android.graphics.Canvas;
+
+import org.firstinspires.ftc.robotcore.external.tfod.Recognition;
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.vision.ObjectTracker;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.firstinspires.ftc.vision.tfod.TfodProcessor;
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+/**
+ * Runs a {@link TfodProcessor} and feeds its recognitions to an {@link ObjectTracker} on the
+ * camera thread, right after inference. Add this to the portal in place of the TFOD processor
+ * (wrapped in a {@link ScheduledProcessor} if it should not run every frame) and read the tracked
+ * objects with {@code getTracker().getSnapshot()}.
+ *
+ * The tracker consumes {@link TfodProcessor#getFreshRecognitions()}, so nothing else should call it.
+ */
+public class TrackingTfodProcessor implements VisionProcessor {
+    private final TfodProcessor tfod;
+    private final ObjectTracker tracker = new ObjectTracker();
+
+    public TrackingTfodProcessor(TfodProcessor tfod) {
+        this.tfod = tfod;
+    }
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        tfod.init(width, height, calibration);
+    }
+
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        Object result = tfod.processFrame(frame, captureTimeNanos);
+        List<Recognition> recognitions = tfod.getFreshRecognitions();
+        if (recognitions != null) {
+            tracker.beginFrame(captureTimeNanos);
+            for (int i = 0; i < recognitions.size(); i++) {
+                Recognition recognition = recognitions.get(i);
+                tracker.addDetection(recognition.getLabel(), recognition.getConfidence(), recognition.getLeft(),
+                        recognition.getTop(), recognition.getRight(), recognition.getBottom());
+            }
+            tracker.endFrame();
+        }
+        return result;
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight, float scaleBmpPxToCanvasPx,
+                            float scaleCanvasDensity, Object userContext) {
+        tfod.onDrawFrame(canvas, onscreenWidth, onscreenHeight, scaleBmpPxToCanvasPx, scaleCanvasDensity, userContext);
+    }
+
+    public TfodProcessor getTfod() {
+        return tfod;
+    }
+
+    public ObjectTracker getTracker() {
+        return tracker;
+    }
+}
@@ -0,0 +1,75 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * Scales recorded motor powers so the motors see the same voltage they saw when recorded.
+ *
+ * A DC motor's speed follows the voltage across it, which is the commanded power times the battery
+ * voltage. A power recorded at {@code recordedVolts} is therefore replayed as
+ * {@code power * recordedVolts / currentVolts}, clipped to +/-1. The scale is limited to
+ * {@link #maxScale} either way, so a bad voltage reading cannot make the replay run away; while
+ * either voltage is unknown the powers are left as recorded.
+ *
+ * Only motors are scaled: servos run from the hub's regulated servo supply.
+ */
+public class VoltageCompensation {
+    public static final double DEFAULT_MAX_SCALE = 1.5;
+
+    public double maxScale = DEFAULT_MAX_SCALE;
+
+    private final VoltageSource battery;
+    private double lastScale = 1;
+    private long clippedCount;
+
+    public VoltageCompensation(VoltageSource battery) {
+        this.battery = battery;
+    }
+
+    /** The factor for powers recorded at {@code recordedVolts}, at the current battery voltage. */
+    public double scale(double recordedVolts) {
+        double currentVolts = battery.getVolts();
+        double scale = 1;
+        if (recordedVolts > 0 && currentVolts > 0) {
+            scale = Math.max(1 / maxScale, Math.min(maxScale, recordedVolts / currentVolts));
+        }
+        lastScale = scale;
+        return scale;
+    }
+
+    /**
+     * Scales the first {@code motorCount} entries of {@code powers} in place.
+     *
+     * @param motorCount {@link RobotIO#MOTOR_COUNT} for powers in {@link RobotIO#outputs()} order
+     */
+    public void apply(float[] powers, int motorCount, double recordedVolts) {
+        double scale = scale(recordedVolts);
+        if (scale == 1) {
+            return;
+        }
+        for (int i = 0; i < motorCount; i++) {
+            powers[i] = (float) clip(powers[i] * scale);
+        }
+    }
+
+    /** Clips a scaled power to +/-1, counting the clips: the battery could not make up the difference. */
+    public double clip(double power) {
+        if (power > 1 || power < -1) {
+            clippedCount++;
+            return power > 0 ? 1 : -1;
+        }
+        return power;
+    }
+
+    /** The factor of the last {@link #scale} call. */
+    public double getLastScale() {
+        return lastScale;
+    }
+
+    /** Scaled powers that had to be clipped. */
+    public long getClippedCount() {
+        return clippedCount;
+    }
+
+    public VoltageSource getBattery() {
+        return battery;
+    }
+}
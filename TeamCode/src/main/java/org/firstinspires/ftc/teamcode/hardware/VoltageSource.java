@@ -0,0 +1,7 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/** Battery voltage from the hub's voltage sensor or a model of one. */
+public interface VoltageSource {
+    /** Volts, or NaN while unknown. */
+    double getVolts();
+}
@@ -0,0 +1,65 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+/**
+ * What a channel of a {@link RecordingSchema} holds, and so how finely {@link ColumnarWriter}
+ * stores it.
+ *
+ * Every type but {@link #RAW} is quantized to a fixed step and stored as whole steps, so a value
+ * that holds still costs nothing and a slowly changing one a byte: a power to the nearest
+ * thousandth is finer than any motor controller resolves, a heading to a ten-thousandth of a
+ * radian finer than the IMU. {@link #RAW} keeps the exact float bits, for values of unknown range.
+ * NaN survives every type.
+ */
+public enum ChannelType {
+    /** Float bits as is. */
+    RAW(0, 0),
+    /** Motor or servo power, -1 to 1. */
+    POWER(1, 1e-3),
+    /** Gamepad stick or trigger, -1 to 1. */
+    AXIS(2, 1e-3),
+    /** Encoder position, whole ticks. */
+    TICKS(3, 1),
+    /** Angle in radians. */
+    ANGLE(4, 1e-4),
+    /** Battery voltage. */
+    VOLTS(5, 1e-3);
+
+    /** Quantized values are kept within this, so deltas and their encoding cannot overflow. */
+    static final long LIMIT = 1L << 59;
+    static final long NAN = -LIMIT - 1;
+
+    final int id;
+    /** Size of one quantization step; 0 for {@link #RAW}. */
+    public final double step;
+
+    ChannelType(int id, double step) {
+        this.id = id;
+        this.step = step;
+    }
+
+    long quantize(float value) {
+        if (step == 0) {
+            return Float.floatToRawIntBits(value);
+        }
+        if (Float.isNaN(value)) {
+            return NAN;
+        }
+        return Math.max(-LIMIT, Math.min(LIMIT, Math.round(value / step)));
+    }
+
+    float restore(long quantized) {
+        if (step == 0) {
+            return Float.intBitsToFloat((int) quantized);
+        }
+        return quantized == NAN ? Float.NaN : (float) (quantized * step);
+    }
+
+    static ChannelType fromId(int id) {
+        for (ChannelType type : values()) {
+            if (type.id == id) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
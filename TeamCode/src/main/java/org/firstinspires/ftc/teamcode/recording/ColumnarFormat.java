@@ -0,0 +1,130 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the columnar recording written by {@link ColumnarWriter} and read by
+ * {@link ColumnarReader}.
+ *
+ * <pre>
+ *  offset  size  field
+ *  0       4     magic "FTCC"
+ *  4       2     format version
+ *  6       2     channel count (N)
+ *  8       4     maximum samples per block
+ *  12      ...   channel table: N x (u8 {@link ChannelType} id, u16 name length, UTF-8 name bytes)
+ *  ...     ...   blocks: u32 sample count, i64 first timestamp, (N + 1) x u32 column length
+ *                in bytes, then the timestamp column and the N channel columns
+ * </pre>
+ *
+ * All fixed-size fields are little-endian. Each block holds a run of samples stored column by
+ * column, and each column is encoded on its own, so a reader can skip to any one channel using
+ * the column lengths and decode only that.
+ *
+ * A column stores its values as differences from the previous value (the first from 0), each as
+ * a zigzag varint token shifted left by one; a token with the low bit set instead stands for that
+ * many repeats of the previous value. Channel values are first quantized by their
+ * {@link ChannelType}. The timestamp column stores the intervals between timestamps (the first
+ * from the block's first timestamp, so 0), so a steady loop rate encodes as one run.
+ *
+ * Like {@link RecordingFormat}, the header carries no sample count: a block that was cut short is
+ * ignored and everything before it is still readable.
+ */
+public final class ColumnarFormat {
+    public static final int MAGIC = 0x43435446; // "FTCC" read as a little-endian int
+    public static final short VERSION = 1;
+
+    static final int FIXED_HEADER_SIZE = 12;
+    /** Offsets within a block header. */
+    static final int BLOCK_TIMESTAMP_OFFSET = 4;
+    static final int BLOCK_LENGTHS_OFFSET = 12;
+    /** Longest encoding of one token: a 64-bit varint. */
+    static final int MAX_TOKEN_SIZE = 10;
+
+    private ColumnarFormat() {
+    }
+
+    static int blockHeaderSize(int channelCount) {
+        return BLOCK_LENGTHS_OFFSET + 4 * (channelCount + 1);
+    }
+
+    /**
+     * Encodes the first {@code count} entries of {@code values} into {@code out} from
+     * {@code position}, which needs room for {@code count * MAX_TOKEN_SIZE} bytes.
+     *
+     * @return the position after the column
+     */
+    static int encodeColumn(long[] values, int count, byte[] out, int position) {
+        long previous = 0;
+        int i = 0;
+        while (i < count) {
+            long value = values[i];
+            if (value == previous) {
+                int run = 1;
+                while (i + run < count && values[i + run] == previous) {
+                    run++;
+                }
+                if (run > 1) {
+                    position = putVarint(((long) run << 1) | 1, out, position);
+                    i += run;
+                    continue;
+                }
+            }
+            long delta = value - previous;
+            position = putVarint(((delta << 1) ^ (delta >> 63)) << 1, out, position);
+            previous = value;
+            i++;
+        }
+        return position;
+    }
+
+    /**
+     * Decodes {@code count} values of the column in [{@code position}, {@code end}) into {@code out}.
+     *
+     * @throws IOException if the column does not hold exactly {@code count} well-formed values
+     */
+    static void decodeColumn(ByteBuffer buffer, int position, int end, long[] out, int count)
+            throws IOException {
+        long previous = 0;
+        int i = 0;
+        while (i < count) {
+            long token = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position >= end || shift > 63) {
+                    throw new IOException("Corrupt column: runs past its length");
+                }
+                b = buffer.get(position++);
+                token |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if ((token & 1) != 0) {
+                long run = token >>> 1;
+                if (run == 0 || run > count - i) {
+                    throw new IOException("Corrupt column: bad run length " + run);
+                }
+                for (long r = 0; r < run; r++) {
+                    out[i++] = previous;
+                }
+            } else {
+                long zigzag = token >>> 1;
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                out[i++] = previous;
+            }
+        }
+        if (position != end) {
+            throw new IOException("Corrupt column: " + (end - position) + " trailing bytes");
+        }
+    }
+
+    private static int putVarint(long value, byte[] out, int position) {
+        while ((value & ~0x7FL) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+}
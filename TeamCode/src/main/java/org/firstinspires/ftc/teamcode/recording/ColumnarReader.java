@@ -0,0 +1,230 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped reader for recordings produced by {@link ColumnarWriter}.
+ *
+ * Opening a recording only walks the block headers. Each channel is then read on its own:
+ * {@link #readChannel(int, float[])} decodes that channel's column in every block and skips the
+ * others by their lengths, so the cost of reading a few channels does not grow with the channels
+ * recorded next to them. A trailing partial block is ignored.
+ */
+public class ColumnarReader implements Closeable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final String[] channels;
+    private final ChannelType[] types;
+    private final int[] blockOffsets;
+    private final int[] blockStarts;
+    private final int sampleCount;
+    private final long[] scratch;
+
+    /** Whether {@code path} starts like a columnar recording, as opposed to a {@link RecordingReader} one. */
+    public static boolean isColumnar(File path) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(path, "r")) {
+            return in.length() >= 4 && Integer.reverseBytes(in.readInt()) == ColumnarFormat.MAGIC;
+        }
+    }
+
+    public ColumnarReader(File path) throws IOException {
+        file = new RandomAccessFile(path, "r");
+        try {
+            long length = file.length();
+            if (length < ColumnarFormat.FIXED_HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a columnar recording: " + path);
+            }
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(RecordingFormat.BYTE_ORDER);
+
+            if (buffer.getInt(0) != ColumnarFormat.MAGIC) {
+                throw new IOException("Not a columnar recording: " + path);
+            }
+            short version = buffer.getShort(4);
+            if (version != ColumnarFormat.VERSION) {
+                throw new IOException("Unsupported recording version " + version + ": " + path);
+            }
+            int channelCount = buffer.getShort(6);
+            int maxBlockSamples = buffer.getInt(8);
+            if (channelCount <= 0 || maxBlockSamples <= 0) {
+                throw new IOException("Corrupt recording header: " + path);
+            }
+
+            channels = new String[channelCount];
+            types = new ChannelType[channelCount];
+            ByteBuffer table = buffer.duplicate().order(RecordingFormat.BYTE_ORDER);
+            table.position(ColumnarFormat.FIXED_HEADER_SIZE);
+            for (int c = 0; c < channelCount; c++) {
+                if (table.remaining() < 3) {
+                    throw new IOException("Corrupt channel table: " + path);
+                }
+                types[c] = ChannelType.fromId(table.get() & 0xFF);
+                if (types[c] == null) {
+                    throw new IOException("Unknown channel type in " + path);
+                }
+                int nameLength = table.getShort() & 0xFFFF;
+                if (nameLength > table.remaining()) {
+                    throw new IOException("Corrupt channel table: " + path);
+                }
+                byte[] name = new byte[nameLength];
+                table.get(name);
+                channels[c] = new String(name, RecordingFormat.NAME_CHARSET);
+            }
+
+            int headerSize = ColumnarFormat.blockHeaderSize(channelCount);
+            int[] offsets = new int[16];
+            int[] starts = new int[17];
+            int blocks = 0;
+            int samples = 0;
+            long position = table.position();
+            while (position + headerSize <= length) {
+                int count = buffer.getInt((int) position);
+                int lengths = (int) position + ColumnarFormat.BLOCK_LENGTHS_OFFSET;
+                long end = position + headerSize;
+                for (int c = 0; c <= channelCount; c++) {
+                    end += buffer.getInt(lengths + 4 * c) & 0xFFFFFFFFL;
+                }
+                if (count <= 0 || count > maxBlockSamples || end > length) {
+                    break;
+                }
+                if (blocks == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, blocks * 2);
+                    starts = Arrays.copyOf(starts, blocks * 2 + 1);
+                }
+                offsets[blocks] = (int) position;
+                starts[blocks] = samples;
+                blocks++;
+                samples += count;
+                position = end;
+            }
+            starts[blocks] = samples;
+            blockOffsets = Arrays.copyOf(offsets, blocks);
+            blockStarts = Arrays.copyOf(starts, blocks + 1);
+            sampleCount = samples;
+            scratch = new long[maxBlockSamples];
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    public int getChannelCount() {
+        return channels.length;
+    }
+
+    public String getChannelName(int channel) {
+        return channels[channel];
+    }
+
+    public ChannelType getChannelType(int channel) {
+        return types[channel];
+    }
+
+    /** Returns the index of the named channel, or -1 if the recording does not contain it. */
+    public int channelIndex(String name) {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fills {@code out} with every sample's timestamp.
+     *
+     * @throws IOException if a timestamp column is corrupt
+     */
+    public void readTimestamps(long[] out) throws IOException {
+        for (int block = 0; block < blockOffsets.length; block++) {
+            int offset = blockOffsets[block];
+            int count = blockSize(block);
+            int start = blockStarts[block];
+            decodeColumn(block, -1, count);
+            long timestamp = buffer.getLong(offset + ColumnarFormat.BLOCK_TIMESTAMP_OFFSET);
+            for (int i = 0; i < count; i++) {
+                timestamp += scratch[i];
+                out[start + i] = timestamp;
+            }
+        }
+    }
+
+    public long[] readTimestamps() throws IOException {
+        long[] out = new long[sampleCount];
+        readTimestamps(out);
+        return out;
+    }
+
+    /**
+     * Fills {@code out} with every sample's value of {@code channel}, decoding no other channel.
+     *
+     * @throws IOException if one of the channel's columns is corrupt
+     */
+    public void readChannel(int channel, float[] out) throws IOException {
+        ChannelType type = types[channel];
+        for (int block = 0; block < blockOffsets.length; block++) {
+            int count = blockSize(block);
+            int start = blockStarts[block];
+            decodeColumn(block, channel, count);
+            for (int i = 0; i < count; i++) {
+                out[start + i] = type.restore(scratch[i]);
+            }
+        }
+    }
+
+    public float[] readChannel(int channel) throws IOException {
+        float[] out = new float[sampleCount];
+        readChannel(channel, out);
+        return out;
+    }
+
+    /** Encoded size of {@code channel} over all blocks, or of the timestamps for -1. */
+    public long getColumnBytes(int channel) {
+        long bytes = 0;
+        for (int offset : blockOffsets) {
+            bytes += buffer.getInt(offset + ColumnarFormat.BLOCK_LENGTHS_OFFSET + 4 * (channel + 1)) & 0xFFFFFFFFL;
+        }
+        return bytes;
+    }
+
+    private int blockSize(int block) {
+        return blockStarts[block + 1] - blockStarts[block];
+    }
+
+    /** Decodes the column of {@code channel} (-1 for timestamps) in {@code block} into {@link #scratch}. */
+    private void decodeColumn(int block, int channel, int count) throws IOException {
+        int start = columnOffset(block, channel);
+        int length = buffer.getInt(blockOffsets[block] + ColumnarFormat.BLOCK_LENGTHS_OFFSET + 4 * (channel + 1));
+        ColumnarFormat.decodeColumn(buffer, start, start + length, scratch, count);
+    }
+
+    /** Where the column of {@code channel} (-1 for timestamps) starts in {@code block}. */
+    private int columnOffset(int block, int channel) {
+        int offset = blockOffsets[block];
+        int position = offset + ColumnarFormat.blockHeaderSize(channels.length);
+        for (int c = -1; c < channel; c++) {
+            position += buffer.getInt(offset + ColumnarFormat.BLOCK_LENGTHS_OFFSET + 4 * (c + 1));
+        }
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,184 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes samples of a {@link RecordingSchema} as a columnar, compressed recording (see
+ * {@link ColumnarFormat}).
+ *
+ * Samples are quantized into per-channel columns as they are written; when a block is full, or on
+ * {@link #flush()}, every column is encoded and the block goes to the file. Channels that hold
+ * still cost almost nothing, so a recording is a fraction of the size of fixed-width records.
+ * Writing a sample never allocates.
+ */
+public class ColumnarWriter implements SampleWriter {
+    public static final int DEFAULT_BLOCK_SAMPLES = 256;
+
+    private final FileOutputStream stream;
+    private final FileChannel channel;
+    private final ChannelType[] types;
+    private final int blockSamples;
+    private final long[] timestamps;
+    private final long[][] columns;
+    private final byte[] encoded;
+    private final ByteBuffer encodedBuffer;
+    private final ByteBuffer blockHeader;
+    private int pending;
+    private long recordCount;
+    private long bytesWritten;
+
+    public ColumnarWriter(File file, RecordingSchema schema) throws IOException {
+        this(file, schema, DEFAULT_BLOCK_SAMPLES);
+    }
+
+    /** @param blockSamples samples per block; smaller blocks lose less on a crash but compress less well */
+    public ColumnarWriter(File file, RecordingSchema schema, int blockSamples) throws IOException {
+        int channelCount = schema.getChannelCount();
+        if (channelCount == 0 || channelCount > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid channel count: " + channelCount);
+        }
+        if (blockSamples <= 0) {
+            throw new IllegalArgumentException("blockSamples must be positive");
+        }
+        this.blockSamples = blockSamples;
+        types = new ChannelType[channelCount];
+        columns = new long[channelCount][blockSamples];
+        for (int c = 0; c < channelCount; c++) {
+            types[c] = schema.getType(c);
+        }
+        timestamps = new long[blockSamples];
+        encoded = new byte[(channelCount + 1) * blockSamples * ColumnarFormat.MAX_TOKEN_SIZE];
+        encodedBuffer = ByteBuffer.wrap(encoded);
+        blockHeader = ByteBuffer.allocate(ColumnarFormat.blockHeaderSize(channelCount)).order(RecordingFormat.BYTE_ORDER);
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        stream = new FileOutputStream(file, false);
+        channel = stream.getChannel();
+        try {
+            writeFully(encodeHeader(schema, blockSamples));
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer encodeHeader(RecordingSchema schema, int blockSamples) {
+        int channelCount = schema.getChannelCount();
+        byte[][] names = new byte[channelCount][];
+        int size = ColumnarFormat.FIXED_HEADER_SIZE;
+        for (int c = 0; c < channelCount; c++) {
+            names[c] = schema.getName(c).getBytes(RecordingFormat.NAME_CHARSET);
+            if (names[c].length > 0xFFFF) {
+                throw new IllegalArgumentException("Channel name too long: " + schema.getName(c));
+            }
+            size += 3 + names[c].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(size).order(RecordingFormat.BYTE_ORDER);
+        header.putInt(ColumnarFormat.MAGIC);
+        header.putShort(ColumnarFormat.VERSION);
+        header.putShort((short) channelCount);
+        header.putInt(blockSamples);
+        for (int c = 0; c < channelCount; c++) {
+            header.put((byte) schema.getType(c).id);
+            header.putShort((short) names[c].length);
+            header.put(names[c]);
+        }
+        header.flip();
+        return header;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return types.length;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /** Bytes written to the file so far, header included. */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /** Appends one sample. {@code values} must hold at least {@link #getChannelCount()} entries. */
+    public void write(long timestamp, float[] values) throws IOException {
+        write(timestamp, values, 0);
+    }
+
+    @Override
+    public void write(long timestamp, float[] values, int offset) throws IOException {
+        if (pending == blockSamples) {
+            writeBlock();
+        }
+        timestamps[pending] = timestamp;
+        for (int c = 0; c < types.length; c++) {
+            columns[c][pending] = types[c].quantize(values[offset + c]);
+        }
+        pending++;
+        recordCount++;
+    }
+
+    /** Writes the samples so far as a block, even if it is not full. */
+    @Override
+    public void flush() throws IOException {
+        if (pending > 0) {
+            writeBlock();
+        }
+    }
+
+    /** Flushes and asks the OS to persist the written blocks to storage. */
+    public void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    private void writeBlock() throws IOException {
+        long first = timestamps[0];
+        // Intervals, so a steady rate is one repeated value
+        for (int i = pending - 1; i > 0; i--) {
+            timestamps[i] -= timestamps[i - 1];
+        }
+        timestamps[0] = 0;
+
+        blockHeader.clear();
+        blockHeader.putInt(pending);
+        blockHeader.putLong(first);
+        int end = ColumnarFormat.encodeColumn(timestamps, pending, encoded, 0);
+        blockHeader.putInt(end);
+        for (long[] column : columns) {
+            int start = end;
+            end = ColumnarFormat.encodeColumn(column, pending, encoded, start);
+            blockHeader.putInt(end - start);
+        }
+        pending = 0;
+
+        blockHeader.flip();
+        writeFully(blockHeader);
+        encodedBuffer.clear().limit(end);
+        writeFully(encodedBuffer);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Converts between the binary recording format and the original {@code ControlData.txt} CSV
+ * layout ({@code timestamp,v0,v1,...} with one record per line and no header), so recordings made
+ * before the binary format existed remain usable.
+ */
+public final class RecordingCsv {
+    private RecordingCsv() {
+    }
+
+    /**
+     * Converts a CSV recording into a binary one using the given channel names. Lines that are
+     * empty or have fewer than {@code channels.length + 1} fields are skipped.
+     *
+     * @return the number of records written
+     */
+    public static long csvToBinary(File csv, File binary, String[] channels) throws IOException {
+        float[] values = new float[channels.length];
+        try (BufferedReader reader = new BufferedReader(new FileReader(csv));
+             RecordingWriter writer = new RecordingWriter(binary, channels)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (parseLine(line, values)) {
+                    writer.write(parseTimestamp(line), values);
+                }
+            }
+            return writer.getRecordCount();
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid format in control data file: " + e.getMessage(), e);
+        }
+    }
+
+    /** Writes a binary recording back out in the CSV layout. */
+    public static void binaryToCsv(File binary, File csv) throws IOException {
+        try (RecordingReader reader = new RecordingReader(binary);
+             BufferedWriter writer = new BufferedWriter(new FileWriter(csv, false))) {
+            write(reader, writer);
+        }
+    }
+
+    static void write(RecordingReader reader, Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        int channelCount = reader.getChannelCount();
+        for (int i = 0; i < reader.getRecordCount(); i++) {
+            line.setLength(0);
+            line.append(reader.getTimestamp(i));
+            for (int c = 0; c < channelCount; c++) {
+                line.append(',');
+                appendFixed2(line, reader.getValue(i, c));
+            }
+            line.append('\n');
+            writer.append(line);
+        }
+    }
+
+    private static long parseTimestamp(String line) {
+        int comma = line.indexOf(',');
+        return Long.parseLong(line.substring(0, comma).trim());
+    }
+
+    private static boolean parseLine(String line, float[] values) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        String[] tokens = line.split(",");
+        if (tokens.length < values.length + 1) {
+            return false;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Float.parseFloat(tokens[i + 1].trim());
+        }
+        return true;
+    }
+
+    /** Appends {@code value} rounded to two decimals, matching the old {@code %.2f} output. */
+    private static void appendFixed2(StringBuilder out, float value) {
+        long hundredths = Math.round(value * 100.0);
+        if (hundredths < 0) {
+            out.append('-');
+            hundredths = -hundredths;
+        }
+        out.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
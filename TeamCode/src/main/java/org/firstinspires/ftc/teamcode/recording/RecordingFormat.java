@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Layout of the binary control recording written by {@link RecordingWriter} and read by
+ * {@link RecordingReader}.
+ *
+ * <pre>
+ *  offset  size  field
+ *  0       4     magic "FTCR"
+ *  4       2     format version
+ *  6       2     channel count (N)
+ *  8       4     header size in bytes (offset of the first record)
+ *  12      4     record size in bytes (8 + 4 * N)
+ *  16      ...   channel table: N x (u16 name length, UTF-8 name bytes)
+ *  ...     ...   zero padding up to an 8 byte boundary
+ *  header  ...   records: int64 timestamp, N x float32 value
+ * </pre>
+ *
+ * All fields are little-endian. The header carries no record count: the number of records is
+ * derived from the file length, so a recording that was cut short (crash, battery pulled) is still
+ * readable up to its last complete record.
+ */
+public final class RecordingFormat {
+    public static final int MAGIC = 0x52435446; // "FTCR" read as a little-endian int
+    public static final short VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    public static final Charset NAME_CHARSET = Charset.forName("UTF-8");
+
+    static final int FIXED_HEADER_SIZE = 16;
+    static final int TIMESTAMP_SIZE = 8;
+    static final int VALUE_SIZE = 4;
+
+    /** Channel order used by ControlRecorder and AutonomousFromLog. */
+    public static final String[] CONTROL_CHANNELS = {
+            "front_left", "front_right", "back_left", "back_right",
+            "arm", "chain", "arm_rotator", "dropper"
+    };
+
+    /** Drive encoder positions in ticks, in the same wheel order as the first four control channels. */
+    public static final String[] DRIVE_ENCODER_CHANNELS = {
+            "front_left_ticks", "front_right_ticks", "back_left_ticks", "back_right_ticks"
+    };
+
+    /** IMU yaw in radians, counter-clockwise positive; NaN when no IMU was available. */
+    public static final String HEADING_CHANNEL = "heading";
+
+    /** Control powers, drive encoders and heading: what a trajectory is built from. */
+    public static final String[] TRAJECTORY_CHANNELS = concat(CONTROL_CHANNELS, DRIVE_ENCODER_CHANNELS,
+            new String[] {HEADING_CHANNEL});
+
+    /**
+     * Smoothed battery voltage the powers were commanded at; NaN when no voltage sensor answered.
+     * Recordings made before it was added do not have it.
+     */
+    public static final String VOLTAGE_CHANNEL = "battery_volts";
+
+    /** The trajectory channels and the battery voltage: what AutonomousFromLog replays. */
+    public static final String[] RECORDED_CHANNELS = concat(TRAJECTORY_CHANNELS, new String[] {VOLTAGE_CHANNEL});
+
+    /**
+     * The driver's inputs, in the order of the {@code DriverInput} fields; buttons are 0 or 1.
+     * ControlRecorder records them next to the replayed channels, for analysis.
+     */
+    public static final String[] DRIVER_INPUT_CHANNELS = {
+            "drive_y", "drive_x", "turn", "arm_up", "arm_down", "chain_forward", "chain_reverse",
+            "arm_rotator_stick", "dropper_stick", "dropper_forward", "dropper_reverse", "dropper_cycle"
+    };
+
+    private RecordingFormat() {
+    }
+
+    private static String[] concat(String[]... parts) {
+        int length = 0;
+        for (String[] part : parts) {
+            length += part.length;
+        }
+        String[] result = new String[length];
+        int offset = 0;
+        for (String[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    public static int recordSize(int channelCount) {
+        return TIMESTAMP_SIZE + VALUE_SIZE * channelCount;
+    }
+
+    /** Encodes the complete header, including padding, for the given channel names. */
+    static ByteBuffer encodeHeader(String[] channels) {
+        if (channels.length == 0 || channels.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid channel count: " + channels.length);
+        }
+        byte[][] names = new byte[channels.length][];
+        int size = FIXED_HEADER_SIZE;
+        for (int i = 0; i < channels.length; i++) {
+            names[i] = channels[i].getBytes(NAME_CHARSET);
+            if (names[i].length > 0xFFFF) {
+                throw new IllegalArgumentException("Channel name too long: " + channels[i]);
+            }
+            size += 2 + names[i].length;
+        }
+        int headerSize = (size + 7) & ~7;
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(BYTE_ORDER);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort((short) channels.length);
+        header.putInt(headerSize);
+        header.putInt(recordSize(channels.length));
+        for (byte[] name : names) {
+            header.putShort((short) name.length);
+            header.put(name);
+        }
+        header.position(0);
+        return header;
+    }
+}
@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Memory-mapped reader for recordings produced by {@link RecordingWriter}.
+ *
+ * Records are accessed by index with absolute reads against the mapping, so iterating over a
+ * recording allocates nothing and parses no text. A trailing partial record is ignored.
+ */
+public class RecordingReader implements Closeable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final String[] channels;
+    private final int headerSize;
+    private final int recordSize;
+    private final int recordCount;
+
+    public RecordingReader(File path) throws IOException {
+        file = new RandomAccessFile(path, "r");
+        try {
+            long length = file.length();
+            if (length < RecordingFormat.FIXED_HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a control recording: " + path);
+            }
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(RecordingFormat.BYTE_ORDER);
+
+            if (buffer.getInt(0) != RecordingFormat.MAGIC) {
+                throw new IOException("Not a control recording: " + path);
+            }
+            short version = buffer.getShort(4);
+            if (version != RecordingFormat.VERSION) {
+                throw new IOException("Unsupported recording version " + version + ": " + path);
+            }
+            int channelCount = buffer.getShort(6);
+            headerSize = buffer.getInt(8);
+            recordSize = buffer.getInt(12);
+            if (channelCount < 0 || recordSize != RecordingFormat.recordSize(channelCount)
+                    || headerSize < RecordingFormat.FIXED_HEADER_SIZE || headerSize > length) {
+                throw new IOException("Corrupt recording header: " + path);
+            }
+
+            channels = new String[channelCount];
+            ByteBuffer table = buffer.duplicate().order(RecordingFormat.BYTE_ORDER);
+            table.position(RecordingFormat.FIXED_HEADER_SIZE).limit(headerSize);
+            for (int i = 0; i < channelCount; i++) {
+                int nameLength = table.remaining() >= 2 ? table.getShort() & 0xFFFF : -1;
+                if (nameLength < 0 || nameLength > table.remaining()) {
+                    throw new IOException("Corrupt channel table: " + path);
+                }
+                byte[] name = new byte[nameLength];
+                table.get(name);
+                channels[i] = new String(name, RecordingFormat.NAME_CHARSET);
+            }
+            recordCount = (int) ((length - headerSize) / recordSize);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public int getChannelCount() {
+        return channels.length;
+    }
+
+    public String getChannelName(int channel) {
+        return channels[channel];
+    }
+
+    /** Returns the index of the named channel, or -1 if the recording does not contain it. */
+    public int channelIndex(String name) {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getTimestamp(int record) {
+        return buffer.getLong(headerSize + record * recordSize);
+    }
+
+    public float getValue(int record, int channel) {
+        return buffer.getFloat(headerSize + record * recordSize + RecordingFormat.TIMESTAMP_SIZE
+                + channel * RecordingFormat.VALUE_SIZE);
+    }
+
+    /** Copies all channel values of one record into {@code out}. */
+    public void getValues(int record, float[] out) {
+        int base = headerSize + record * recordSize + RecordingFormat.TIMESTAMP_SIZE;
+        for (int i = 0; i < channels.length; i++) {
+            out[i] = buffer.getFloat(base + i * RecordingFormat.VALUE_SIZE);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
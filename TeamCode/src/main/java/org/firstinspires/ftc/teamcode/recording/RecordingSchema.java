@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The named, typed channels of a columnar recording (see {@link ColumnarWriter}). An OpMode adds
+ * the channels it records at init and keeps the returned indices; each sample is then a float
+ * array in channel order.
+ */
+public class RecordingSchema {
+    private final List<String> names = new ArrayList<>();
+    private final List<ChannelType> types = new ArrayList<>();
+
+    /**
+     * Adds a channel.
+     *
+     * @return its index in a sample
+     */
+    public int add(String name, ChannelType type) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("Duplicate channel: " + name);
+        }
+        names.add(name);
+        types.add(type);
+        return names.size() - 1;
+    }
+
+    /**
+     * Adds one channel per name, all of the same type.
+     *
+     * @return the index of the first
+     */
+    public int addAll(String[] names, ChannelType type) {
+        int first = this.names.size();
+        for (String name : names) {
+            add(name, type);
+        }
+        return first;
+    }
+
+    public int getChannelCount() {
+        return names.size();
+    }
+
+    public String getName(int channel) {
+        return names.get(channel);
+    }
+
+    public ChannelType getType(int channel) {
+        return types.get(channel);
+    }
+
+    /** Returns the index of the named channel, or -1 if there is none. */
+    public int indexOf(String name) {
+        return names.indexOf(name);
+    }
+
+    public String[] getNames() {
+        return names.toArray(new String[0]);
+    }
+}
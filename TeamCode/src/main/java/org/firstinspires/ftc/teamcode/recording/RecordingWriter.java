@@ -0,0 +1,99 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes fixed-width binary control records (see {@link RecordingFormat}) through a direct
+ * {@link ByteBuffer} that is drained to a {@link FileChannel} whenever it fills up.
+ * Writing a record never allocates.
+ */
+public class RecordingWriter implements SampleWriter {
+    private static final int DEFAULT_BUFFER_RECORDS = 1024;
+
+    private final FileOutputStream stream;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int channelCount;
+    private long recordCount;
+
+    public RecordingWriter(File file, String[] channels) throws IOException {
+        this(file, channels, DEFAULT_BUFFER_RECORDS);
+    }
+
+    public RecordingWriter(File file, String[] channels, int bufferRecords) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        this.channelCount = channels.length;
+        this.stream = new FileOutputStream(file, false);
+        this.channel = stream.getChannel();
+        this.buffer = ByteBuffer.allocateDirect(RecordingFormat.recordSize(channelCount) * Math.max(1, bufferRecords))
+                .order(RecordingFormat.BYTE_ORDER);
+
+        ByteBuffer header = RecordingFormat.encodeHeader(channels);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    @Override
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /** Appends one record. {@code values} must hold at least {@link #getChannelCount()} entries. */
+    public void write(long timestamp, float[] values) throws IOException {
+        write(timestamp, values, 0);
+    }
+
+    /** Appends one record whose values start at {@code offset} in {@code values}. */
+    @Override
+    public void write(long timestamp, float[] values, int offset) throws IOException {
+        if (buffer.remaining() < RecordingFormat.recordSize(channelCount)) {
+            drain();
+        }
+        buffer.putLong(timestamp);
+        for (int i = 0; i < channelCount; i++) {
+            buffer.putFloat(values[offset + i]);
+        }
+        recordCount++;
+    }
+
+    /** Pushes all buffered records to the file. */
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /** Flushes and asks the OS to persist the written records to storage. */
+    public void sync() throws IOException {
+        drain();
+        channel.force(false);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            stream.close();
+        }
+    }
+}
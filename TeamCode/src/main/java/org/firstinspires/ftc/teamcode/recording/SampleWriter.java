@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Where {@link StreamingRecorder} writes its samples: {@link RecordingWriter} or {@link ColumnarWriter}. */
+public interface SampleWriter extends Closeable {
+    int getChannelCount();
+
+    /** Appends one sample whose values start at {@code offset} in {@code values}. */
+    void write(long timestamp, float[] values, int offset) throws IOException;
+
+    /** Pushes all buffered samples to the file. */
+    void flush() throws IOException;
+}
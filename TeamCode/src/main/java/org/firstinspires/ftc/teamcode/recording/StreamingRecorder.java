@@ -0,0 +1,205 @@
+package org.firstinspires.ftc.teamcode.recording;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records samples into a preallocated ring buffer that a dedicated writer thread drains to a
+ * {@link SampleWriter} in batches: a {@link RecordingWriter} for fixed-width records, or a
+ * {@link ColumnarWriter} for a compressed recording of a {@link RecordingSchema}.
+ *
+ * {@link #record(long, float[])} is meant to be called from the OpMode loop: it copies the sample
+ * into the ring and returns immediately, without locking, allocating or touching the file system.
+ * If the writer falls so far behind that the ring is full, the sample is dropped and counted
+ * rather than stalling the loop. Each batch is handed to the OS as soon as it is written, so a
+ * crash loses at most the batch that was still in the ring.
+ *
+ * There must be a single producer thread.
+ */
+public class StreamingRecorder implements Closeable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final SampleWriter writer;
+    private final int channelCount;
+    private final int capacity;
+    private final int mask;
+    private final int batchSize;
+    private final long[] timestamps;
+    private final float[] values;
+
+    // head: samples published by the producer; tail: samples consumed by the writer thread.
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long dropped;
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private volatile boolean flushRequested;
+    private volatile IOException error;
+
+    public StreamingRecorder(File file, String[] channels) throws IOException {
+        this(file, channels, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param capacity  ring size in samples, rounded up to a power of two
+     * @param batchSize number of samples the writer thread waits for before writing a batch
+     */
+    public StreamingRecorder(File file, String[] channels, int capacity, int batchSize) throws IOException {
+        this(new RecordingWriter(file, channels, batchSize), capacity, batchSize);
+    }
+
+    /** Records the channels of {@code schema} as a columnar recording, one block per batch. */
+    public StreamingRecorder(File file, RecordingSchema schema) throws IOException {
+        this(new ColumnarWriter(file, schema, DEFAULT_BATCH_SIZE), DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Records through {@code writer}, which the recorder closes.
+     *
+     * @param capacity  ring size in samples, rounded up to a power of two
+     * @param batchSize number of samples the writer thread waits for before writing a batch
+     */
+    public StreamingRecorder(SampleWriter writer, int capacity, int batchSize) {
+        if (batchSize <= 0 || batchSize > capacity) {
+            throw new IllegalArgumentException("batchSize must be in [1, capacity]");
+        }
+        this.channelCount = writer.getChannelCount();
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.batchSize = batchSize;
+        this.timestamps = new long[this.capacity];
+        this.values = new float[this.capacity * channelCount];
+        this.writer = writer;
+
+        writerThread = new Thread(this::drainLoop, "StreamingRecorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * Queues one sample for writing.
+     *
+     * @return false if the sample was dropped because the ring is full or the recorder is closed
+     */
+    public boolean record(long timestamp, float[] sample) {
+        long h = head.get();
+        if (!running || h - tail.get() >= capacity) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) (h & mask);
+        timestamps[slot] = timestamp;
+        System.arraycopy(sample, 0, values, slot * channelCount, channelCount);
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /**
+     * Asks the writer thread to write everything recorded so far without waiting for a full batch.
+     * Each flush ends a {@link ColumnarWriter} block early, so call it on events, not every loop.
+     */
+    public void flush() {
+        flushRequested = true;
+        LockSupport.unpark(writerThread);
+    }
+
+    public long getRecordedCount() {
+        return head.get();
+    }
+
+    public long getWrittenCount() {
+        return tail.get();
+    }
+
+    public long getPendingCount() {
+        return head.get() - tail.get();
+    }
+
+    /** Samples rejected because the ring was full. Only meaningful on the producer thread. */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /** The last I/O failure of the writer thread, or null. Once set, nothing more is written. */
+    public IOException getError() {
+        return error;
+    }
+
+    private void drainLoop() {
+        while (true) {
+            boolean stopping = !running;
+            long available = head.get() - tail.get();
+            if (available >= batchSize || (available > 0 && (flushRequested || stopping))) {
+                if (!writeBatch()) {
+                    return;
+                }
+                continue;
+            }
+            if (available == 0) {
+                flushRequested = false;
+            }
+            if (stopping) {
+                return;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+    }
+
+    private boolean writeBatch() {
+        long t = tail.get();
+        long end = Math.min(head.get(), t + batchSize);
+        try {
+            for (long i = t; i < end; i++) {
+                int slot = (int) (i & mask);
+                writer.write(timestamps[slot], values, slot * channelCount);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            error = e;
+            running = false;
+            return false;
+        }
+        tail.lazySet(end);
+        return true;
+    }
+
+    /** Writes every queued sample, stops the writer thread and closes the file. */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        // The writer must be done before it is closed, even if this thread is interrupted (as the SDK does on stop)
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+import org.firstinspires.ftc.teamcode.recording.ColumnarReader;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes selected channels of a columnar recording, in the given order, as a {@link ReplaySource}.
+ * Only those channels are decoded, once, when the source is built; the reader can be closed after.
+ */
+public class ColumnarReplaySource implements ReplaySource {
+    private final long[] timestamps;
+    private final float[][] columns;
+
+    /**
+     * @param timestampUnit unit of the timestamps stored in the recording
+     * @param channelNames  recording channels to expose; all of them must exist
+     * @throws IOException if one of those channels, or the timestamps, is corrupt
+     */
+    public ColumnarReplaySource(ColumnarReader reader, TimeUnit timestampUnit, String[] channelNames)
+            throws IOException {
+        columns = new float[channelNames.length][];
+        for (int i = 0; i < channelNames.length; i++) {
+            int channel = reader.channelIndex(channelNames[i]);
+            if (channel < 0) {
+                throw new IllegalArgumentException("Missing channel in recording: " + channelNames[i]);
+            }
+            columns[i] = reader.readChannel(channel);
+        }
+        timestamps = reader.readTimestamps();
+        long nanosPerTick = timestampUnit.toNanos(1);
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] *= nanosPerTick;
+        }
+    }
+
+    @Override
+    public int size() {
+        return timestamps.length;
+    }
+
+    @Override
+    public int channelCount() {
+        return columns.length;
+    }
+
+    @Override
+    public long timestampNanos(int sample) {
+        return timestamps[sample];
+    }
+
+    @Override
+    public float value(int sample, int channel) {
+        return columns[channel][sample];
+    }
+}
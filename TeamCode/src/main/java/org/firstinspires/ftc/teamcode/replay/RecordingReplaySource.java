@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+import org.firstinspires.ftc.teamcode.recording.RecordingReader;
+
+import java.util.concurrent.TimeUnit;
+
+/** Exposes selected channels of a binary recording, in the given order, as a {@link ReplaySource}. */
+public class RecordingReplaySource implements ReplaySource {
+    private final RecordingReader reader;
+    private final int[] channels;
+    private final long nanosPerTick;
+
+    /**
+     * @param timestampUnit unit of the timestamps stored in the recording
+     * @param channelNames  recording channels to expose; all of them must exist
+     */
+    public RecordingReplaySource(RecordingReader reader, TimeUnit timestampUnit, String[] channelNames) {
+        this.reader = reader;
+        this.nanosPerTick = timestampUnit.toNanos(1);
+        this.channels = new int[channelNames.length];
+        for (int i = 0; i < channelNames.length; i++) {
+            channels[i] = reader.channelIndex(channelNames[i]);
+            if (channels[i] < 0) {
+                throw new IllegalArgumentException("Missing channel in recording: " + channelNames[i]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return reader.getRecordCount();
+    }
+
+    @Override
+    public int channelCount() {
+        return channels.length;
+    }
+
+    @Override
+    public long timestampNanos(int sample) {
+        return reader.getTimestamp(sample) * nanosPerTick;
+    }
+
+    @Override
+    public float value(int sample, int channel) {
+        return reader.getValue(sample, channels[channel]);
+    }
+}
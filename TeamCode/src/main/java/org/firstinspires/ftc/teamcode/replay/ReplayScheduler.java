@@ -0,0 +1,156 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Plays a {@link ReplaySource} back against a monotonic {@link Clock}.
+ *
+ * Recorded timestamps are rebased so that the first sample is due at {@link #start()}. Every
+ * {@link #step()} looks at how much time has passed since then and applies whatever the
+ * recording says the actuators should be doing now, so playback speed never depends on how often
+ * the caller manages to step. Samples whose time passed between two steps are skipped (their
+ * values are superseded by a later one), or, in {@link Mode#INTERPOLATE}, the output is blended
+ * between the two samples surrounding the current time.
+ *
+ * For each recorded sample the scheduler tracks how late it was reached, and the counts of applied
+ * and skipped samples.
+ */
+public class ReplayScheduler {
+    public enum Mode {
+        /** Apply the most recent sample that is due; skip any samples that were overtaken. */
+        SKIP,
+        /** Linearly interpolate between the samples before and after the current time. */
+        INTERPOLATE
+    }
+
+    private final ReplaySource source;
+    private final ReplaySink sink;
+    private final Clock clock;
+    private final Mode mode;
+    private final float[] output;
+
+    private long startNanos;
+    private long firstTimestamp;
+    private int cursor;
+    private boolean started;
+    private boolean finished;
+
+    private int appliedCount;
+    private int skippedCount;
+    private long latenessSum;
+    private long maxLateness;
+
+    public ReplayScheduler(ReplaySource source, ReplaySink sink, Clock clock, Mode mode) {
+        this.source = source;
+        this.sink = sink;
+        this.clock = clock;
+        this.mode = mode;
+        this.output = new float[source.channelCount()];
+    }
+
+    /** Rebases the recording onto the current time and resets all statistics. */
+    public void start() {
+        startNanos = clock.nanoTime();
+        firstTimestamp = source.size() > 0 ? source.timestampNanos(0) : 0;
+        cursor = -1;
+        started = true;
+        finished = source.size() == 0;
+        appliedCount = 0;
+        skippedCount = 0;
+        latenessSum = 0;
+        maxLateness = 0;
+    }
+
+    /**
+     * Applies the output for the current time.
+     *
+     * @return false once the last sample has been applied (or before {@link #start()})
+     */
+    public boolean step() {
+        if (!started || finished) {
+            return false;
+        }
+        long now = clock.nanoTime() - startNanos;
+        int size = source.size();
+
+        // Find the newest sample that is due. Everything between the previous cursor and it was
+        // never applied and therefore counts as skipped.
+        int due = cursor;
+        while (due + 1 < size && source.timestampNanos(due + 1) - firstTimestamp <= now) {
+            due++;
+        }
+        if (due < 0) {
+            return true;
+        }
+        if (due > cursor) {
+            skippedCount += due - cursor - 1;
+            long lateness = now - (source.timestampNanos(due) - firstTimestamp);
+            appliedCount++;
+            latenessSum += lateness;
+            if (lateness > maxLateness) {
+                maxLateness = lateness;
+            }
+        }
+        boolean advanced = due > cursor;
+        cursor = due;
+
+        if (mode == Mode.INTERPOLATE && cursor + 1 < size) {
+            long t0 = source.timestampNanos(cursor) - firstTimestamp;
+            long t1 = source.timestampNanos(cursor + 1) - firstTimestamp;
+            float alpha = t1 > t0 ? (float) (now - t0) / (t1 - t0) : 0f;
+            for (int c = 0; c < output.length; c++) {
+                float v0 = source.value(cursor, c);
+                output[c] = v0 + (source.value(cursor + 1, c) - v0) * alpha;
+            }
+            sink.apply(output);
+        } else if (advanced) {
+            for (int c = 0; c < output.length; c++) {
+                output[c] = source.value(cursor, c);
+            }
+            sink.apply(output);
+        }
+
+        if (cursor == size - 1) {
+            finished = true;
+        }
+        return !finished;
+    }
+
+    /** Nanoseconds until the next recorded sample is due; 0 if it is already due or replay is over. */
+    public long nanosUntilNextSample() {
+        if (!started || finished || cursor + 1 >= source.size()) {
+            return 0;
+        }
+        long due = source.timestampNanos(cursor + 1) - firstTimestamp;
+        return Math.max(0, due - (clock.nanoTime() - startNanos));
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /** Index of the last sample applied, or -1 if none yet. */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /** Samples that were applied when they became due. */
+    public int getAppliedCount() {
+        return appliedCount;
+    }
+
+    /** Samples that were overtaken by a later sample before a step could apply them. */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /** Largest delay between a sample becoming due and being applied, in nanoseconds. */
+    public long getMaxLatenessNanos() {
+        return maxLateness;
+    }
+
+    /** Mean delay between a sample becoming due and being applied, in nanoseconds. */
+    public double getMeanLatenessNanos() {
+        return appliedCount == 0 ? 0 : (double) latenessSum / appliedCount;
+    }
+}
@@ -0,0 +1,6 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+/** Receives the actuator values chosen by the {@link ReplayScheduler}, one entry per channel. */
+public interface ReplaySink {
+    void apply(float[] values);
+}
@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+/** Random-access view of recorded samples, ordered by timestamp. */
+public interface ReplaySource {
+    int size();
+
+    int channelCount();
+
+    /** Sample time in nanoseconds. Only differences between timestamps are meaningful. */
+    long timestampNanos(int sample);
+
+    float value(int sample, int channel);
+}
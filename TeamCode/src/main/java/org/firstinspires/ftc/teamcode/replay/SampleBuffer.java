@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+import java.util.Arrays;
+
+/** Growable in-memory {@link ReplaySource} backed by primitive arrays. */
+public class SampleBuffer implements ReplaySource {
+    private final int channelCount;
+    private long[] timestamps;
+    private float[] values;
+    private int size;
+
+    public SampleBuffer(int channelCount, int initialCapacity) {
+        this.channelCount = channelCount;
+        this.timestamps = new long[Math.max(1, initialCapacity)];
+        this.values = new float[timestamps.length * channelCount];
+    }
+
+    /** Appends a sample; {@code sample} must hold at least {@link #channelCount()} values. */
+    public void add(long timestampNanos, float[] sample) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2 * channelCount);
+        }
+        timestamps[size] = timestampNanos;
+        System.arraycopy(sample, 0, values, size * channelCount, channelCount);
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int channelCount() {
+        return channelCount;
+    }
+
+    @Override
+    public long timestampNanos(int sample) {
+        return timestamps[sample];
+    }
+
+    @Override
+    public float value(int sample, int channel) {
+        return values[sample * channelCount + channel];
+    }
+}
@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+import org.firstinspires.ftc.teamcode.hardware.VoltageCompensation;
+
+/**
+ * Scales replayed motor powers by the battery voltage they were recorded at over the current one
+ * (see {@link VoltageCompensation}) before passing them on.
+ *
+ * The source carries the recorded voltage as its channel {@code voltageChannel}, after the powers;
+ * the delegate gets the scaled powers and must ignore the channels from there on.
+ */
+public class VoltageCompensatedSink implements ReplaySink {
+    private final ReplaySink delegate;
+    private final VoltageCompensation compensation;
+    private final int motorCount;
+    private final int voltageChannel;
+
+    /** @param motorCount how many leading channels are motor powers to scale */
+    public VoltageCompensatedSink(ReplaySink delegate, VoltageCompensation compensation, int motorCount,
+                                  int voltageChannel) {
+        this.delegate = delegate;
+        this.compensation = compensation;
+        this.motorCount = motorCount;
+        this.voltageChannel = voltageChannel;
+    }
+
+    @Override
+    public void apply(float[] values) {
+        // The scheduler refills its output array every step, so scaling in place is safe
+        compensation.apply(values, motorCount, values[voltageChannel]);
+        delegate.apply(values);
+    }
+}
@@ -0,0 +1,21 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/** A {@link Clock} that only moves when told to. */
+public class SimClock implements Clock {
+    private long nanos;
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    public void advance(long deltaNanos) {
+        nanos += deltaNanos;
+    }
+
+    public void set(long nanos) {
+        this.nanos = nanos;
+    }
+}
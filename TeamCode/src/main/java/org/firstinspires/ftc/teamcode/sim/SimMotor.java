@@ -0,0 +1,56 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.hardware.MotorChannel;
+
+/**
+ * DC motor model: velocity follows the commanded power with a first-order lag, and the encoder
+ * integrates velocity into ticks.
+ */
+public class SimMotor implements MotorChannel {
+    private final double maxTicksPerSecond;
+    private final double timeConstantSeconds;
+
+    private double power;
+    private double velocity;
+    private double position;
+
+    public SimMotor(double maxTicksPerSecond, double timeConstantSeconds) {
+        this.maxTicksPerSecond = maxTicksPerSecond;
+        this.timeConstantSeconds = timeConstantSeconds;
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.power = Math.max(-1, Math.min(1, power));
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return (int) Math.round(position);
+    }
+
+    @Override
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /** Advances the model by {@code dt} seconds and returns the ticks travelled. */
+    double step(double dt) {
+        double target = power * maxTicksPerSecond;
+        double alpha = timeConstantSeconds > 0 ? 1 - Math.exp(-dt / timeConstantSeconds) : 1;
+        double start = velocity;
+        velocity += (target - velocity) * alpha;
+        double travelled = (start + velocity) * 0.5 * dt;
+        position += travelled;
+        return travelled;
+    }
+
+    void resetPosition() {
+        position = 0;
+    }
+}
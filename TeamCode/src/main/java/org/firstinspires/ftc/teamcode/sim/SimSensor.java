@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.hardware.PolledSensor;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An I2C sensor model for {@link org.firstinspires.ftc.teamcode.hardware.SensorPoller}: reads
+ * return values set by the test and take a fixed bus time, either on a {@link SimClock} (advanced
+ * by the read) or in real time (the reading thread is blocked). Failures can be injected.
+ */
+public class SimSensor implements PolledSensor {
+    private final SimClock clock;
+    private final long readNanos;
+    private final double[] values;
+    private volatile int failuresPending;
+    private volatile long readCount;
+
+    /** @param clock advanced by {@code readNanos} per read, or null to block for real */
+    public SimSensor(SimClock clock, long readNanos, int valueCount) {
+        this.clock = clock;
+        this.readNanos = readNanos;
+        this.values = new double[valueCount];
+    }
+
+    public synchronized void set(int index, double value) {
+        values[index] = value;
+    }
+
+    /** Makes the next {@code reads} reads throw, like a device that dropped off the bus. */
+    public void failNextReads(int reads) {
+        failuresPending = reads;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    @Override
+    public void read(double[] out) {
+        if (clock != null) {
+            clock.advance(readNanos);
+        } else {
+            long deadline = System.nanoTime() + readNanos;
+            for (long left = readNanos; left > 0; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+            }
+        }
+        readCount++;
+        if (failuresPending > 0) {
+            failuresPending--;
+            throw new IllegalStateException("Simulated I2C failure");
+        }
+        synchronized (this) {
+            System.arraycopy(values, 0, out, 0, values.length);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.hardware.PowerOutput;
+
+/** Continuous rotation servo; only remembers its commanded power. */
+public class SimServo implements PowerOutput {
+    private double power;
+
+    @Override
+    public void setPower(double power) {
+        this.power = Math.max(-1, Math.min(1, power));
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+}
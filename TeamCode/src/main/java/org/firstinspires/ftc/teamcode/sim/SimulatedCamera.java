@@ -0,0 +1,54 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * A camera stream reduced to its frame timing: frames arrive at a fixed rate while streaming, and
+ * a stream that is (re)started delivers nothing until its startup delay has passed, like a webcam
+ * renegotiating its stream.
+ */
+public class SimulatedCamera {
+    private final long framePeriodNanos;
+    private final long startupNanos;
+    private boolean streaming;
+    private long nextFrameNanos;
+
+    public SimulatedCamera(double fps, long startupNanos) {
+        this.framePeriodNanos = (long) (1e9 / fps);
+        this.startupNanos = startupNanos;
+    }
+
+    /** Starts the stream at {@code nowNanos}; the first frame arrives after the startup delay. */
+    public void start(long nowNanos) {
+        streaming = true;
+        nextFrameNanos = nowNanos + startupNanos;
+    }
+
+    /** Starts the stream as if it had been running for a while, with its first frame at {@code firstFrameNanos}. */
+    public void startWarm(long firstFrameNanos) {
+        streaming = true;
+        nextFrameNanos = firstFrameNanos;
+    }
+
+    public void stop() {
+        streaming = false;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public long getFramePeriodNanos() {
+        return framePeriodNanos;
+    }
+
+    /** Capture time of the next frame, or {@link Long#MAX_VALUE} while stopped. */
+    public long nextFrameNanos() {
+        return streaming ? nextFrameNanos : Long.MAX_VALUE;
+    }
+
+    /** Delivers the next frame and returns its capture time. */
+    public long takeFrame() {
+        long frame = nextFrameNanos;
+        nextFrameNanos += framePeriodNanos;
+        return frame;
+    }
+}
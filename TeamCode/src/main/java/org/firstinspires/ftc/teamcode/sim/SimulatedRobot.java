@@ -0,0 +1,88 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.control.DriveGeometry;
+import org.firstinspires.ftc.teamcode.control.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.hardware.RobotIO;
+
+/**
+ * In-process model of our robot for running TeamCode control, recording and replay logic on a
+ * plain JVM. Models motor lag and encoder ticks for every motor and integrates mecanum chassis
+ * motion into a field pose (x forward, y left, heading counter-clockwise in radians).
+ *
+ * Call {@link #step(long)} once per simulated loop; it also advances {@link #getClock()}.
+ */
+public class SimulatedRobot {
+    private static final double DRIVE_MAX_TICKS_PER_SECOND = DriveGeometry.DRIVE_MAX_TICKS_PER_SECOND;
+    private static final double METERS_PER_TICK = DriveGeometry.METERS_PER_TICK;
+    private static final double TURN_RADIUS_METERS = DriveGeometry.TURN_RADIUS_METERS;
+
+    private final SimClock clock = new SimClock();
+    private final SimMotor frontLeft = new SimMotor(DRIVE_MAX_TICKS_PER_SECOND, 0.08);
+    private final SimMotor frontRight = new SimMotor(DRIVE_MAX_TICKS_PER_SECOND, 0.08);
+    private final SimMotor backLeft = new SimMotor(DRIVE_MAX_TICKS_PER_SECOND, 0.08);
+    private final SimMotor backRight = new SimMotor(DRIVE_MAX_TICKS_PER_SECOND, 0.08);
+    private final SimMotor frontArm = new SimMotor(400, 0.05);
+    private final SimMotor chainDrive = new SimMotor(600, 0.05);
+    private final SimServo armRotator = new SimServo();
+    private final SimServo dropper = new SimServo();
+    private final RobotIO io = new RobotIO(frontLeft, frontRight, backLeft, backRight,
+            frontArm, chainDrive, armRotator, dropper);
+
+    private final double[] chassis = new double[3];
+    private double x, y, heading;
+
+    public RobotIO getIO() {
+        return io;
+    }
+
+    public SimClock getClock() {
+        return clock;
+    }
+
+    /** Advances every motor and the chassis pose by {@code dtNanos}. */
+    public void step(long dtNanos) {
+        double dt = dtNanos / 1e9;
+        double fl = frontLeft.step(dt);
+        double fr = frontRight.step(dt);
+        double bl = backLeft.step(dt);
+        double br = backRight.step(dt);
+        frontArm.step(dt);
+        chainDrive.step(dt);
+
+        MecanumKinematics.chassisMotion(fl, fr, bl, br, chassis);
+        double forward = chassis[0] * METERS_PER_TICK;
+        double right = chassis[1] * METERS_PER_TICK;
+        double turn = -chassis[2] * METERS_PER_TICK / TURN_RADIUS_METERS;
+
+        double midHeading = heading + turn / 2;
+        double cos = Math.cos(midHeading);
+        double sin = Math.sin(midHeading);
+        x += forward * cos + right * sin;
+        y += forward * sin - right * cos;
+        heading += turn;
+        clock.advance(dtNanos);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /** Heading in radians, counter-clockwise positive and not wrapped. */
+    public double getHeading() {
+        return heading;
+    }
+
+    /** Moves the robot back to the origin, zeroes the encoders and stops every actuator. */
+    public void reset() {
+        x = y = heading = 0;
+        io.stopAll();
+        for (SimMotor motor : new SimMotor[] {frontLeft, frontRight, backLeft, backRight, frontArm, chainDrive}) {
+            motor.step(1e3); // let the lag settle at zero power
+            motor.resetPosition();
+        }
+    }
+}
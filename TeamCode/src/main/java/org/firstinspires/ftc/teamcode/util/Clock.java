@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Monotonic time source. Code that schedules against time takes a Clock instead of calling
+ * {@link System#nanoTime()} directly, so it can be driven by a fake clock off-robot.
+ */
+public interface Clock {
+    Clock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+}
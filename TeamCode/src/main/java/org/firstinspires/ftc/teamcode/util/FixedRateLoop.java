@@ -0,0 +1,136 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Paces a control loop at a fixed frequency.
+ *
+ * Call {@link #awaitNextTick()} at the top of every iteration. Tick deadlines are laid out on a
+ * fixed grid from {@link #start()}, so small delays never accumulate into drift. When an iteration
+ * overruns its period, the {@link CatchUpPolicy} decides whether missed ticks are dropped or run
+ * back to back. How late each tick actually started relative to its deadline is recorded in a
+ * {@link LatencyHistogram}.
+ */
+public class FixedRateLoop {
+    public enum CatchUpPolicy {
+        /** Drop the ticks that were missed and continue on the next grid point. */
+        SKIP,
+        /** Run missed ticks immediately, without sleeping, up to a burst limit, then skip the rest. */
+        BURST
+    }
+
+    private final Clock clock;
+    private final Sleeper sleeper;
+    private final long periodNanos;
+    private final CatchUpPolicy policy;
+    private final int maxBurst;
+    private final LatencyHistogram jitter = new LatencyHistogram();
+
+    private long nextDeadline;
+    private boolean started;
+    private long tickCount;
+    private long overrunCount;
+    private long skippedTicks;
+    private int burst;
+
+    public FixedRateLoop(double frequencyHz, CatchUpPolicy policy) {
+        this(Clock.SYSTEM, Sleeper.SYSTEM, frequencyHz, policy, 3);
+    }
+
+    /** @param maxBurst consecutive late ticks allowed to run back to back in {@link CatchUpPolicy#BURST} */
+    public FixedRateLoop(Clock clock, Sleeper sleeper, double frequencyHz, CatchUpPolicy policy, int maxBurst) {
+        if (frequencyHz <= 0) {
+            throw new IllegalArgumentException("frequencyHz must be positive");
+        }
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.periodNanos = Math.round(1e9 / frequencyHz);
+        this.policy = policy;
+        this.maxBurst = maxBurst;
+    }
+
+    /** Sets the priority of the calling thread, which should be the thread running the loop. */
+    public static void setLoopThreadPriority(int priority) {
+        Thread.currentThread().setPriority(Math.max(Thread.MIN_PRIORITY, Math.min(Thread.MAX_PRIORITY, priority)));
+    }
+
+    /** Anchors the tick grid at the current time; the first tick is due immediately. */
+    public void start() {
+        nextDeadline = clock.nanoTime();
+        started = true;
+        tickCount = 0;
+        overrunCount = 0;
+        skippedTicks = 0;
+        burst = 0;
+        jitter.reset();
+    }
+
+    /**
+     * Waits until the next tick is due.
+     *
+     * @return false if the thread was interrupted while waiting (the interrupt flag is kept)
+     */
+    public boolean awaitNextTick() {
+        if (!started) {
+            start();
+        }
+        long now = clock.nanoTime();
+        long wait = nextDeadline - now;
+        if (wait > 0) {
+            try {
+                sleeper.sleepNanos(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            now = clock.nanoTime();
+            burst = 0;
+        } else if (wait < 0) {
+            overrunCount++;
+        }
+
+        long lateness = now - nextDeadline;
+        jitter.record(lateness);
+        tickCount++;
+
+        nextDeadline += periodNanos;
+        if (nextDeadline <= now) {
+            // We are at least a whole period behind.
+            if (policy == CatchUpPolicy.BURST && burst < maxBurst) {
+                burst++;
+            } else {
+                long missed = (now - nextDeadline) / periodNanos + 1;
+                skippedTicks += missed;
+                nextDeadline += missed * periodNanos;
+                burst = 0;
+            }
+        }
+        return true;
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /** Nanoseconds left in the current tick before the next one is due (negative if overrun). */
+    public long getRemainingNanos() {
+        return nextDeadline - clock.nanoTime();
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /** Ticks that started after their deadline because the previous iteration ran long. */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /** Grid points that were dropped while catching up. */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /** How late each tick started relative to its deadline. */
+    public LatencyHistogram getJitter() {
+        return jitter;
+    }
+}
@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import org.firstinspires.ftc.robotcontroller.internal.Log;
+
+import java.util.Arrays;
+
+/**
+ * Per-phase timing of an OpMode control loop.
+ *
+ * Call {@link #startLoop()} at the top of every iteration and {@link #endPhase(Phase)} after each
+ * phase; the time since the previous mark is charged to that phase, and the time between two
+ * {@link #startLoop()} calls to the whole loop. Every duration goes into a
+ * {@link LatencyHistogram}, so p50/p99/max are available at any time. A mark costs one clock read
+ * and one histogram update.
+ */
+public class LoopProfiler {
+    public enum Phase {
+        HARDWARE_READ("Read"),
+        COMPUTE("Compute"),
+        HARDWARE_WRITE("Write"),
+        LOGGING("Logging"),
+        TELEMETRY("Telemetry");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final String LOOP_COLUMN = "Loop us";
+    private static final String SUMMARY_COLUMN = "p50 / p99 / max";
+
+    private final Clock clock;
+    private final LatencyHistogram loop = new LatencyHistogram();
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+    private final long[] lastPhaseNanos = new long[PHASES.length];
+    private final String[] logColumns = new String[PHASES.length];
+    private final StringBuilder summary = new StringBuilder(256);
+    private long loopStart = -1;
+    private long lastMark;
+    private long lastLoopNanos;
+
+    public LoopProfiler() {
+        this(Clock.SYSTEM);
+    }
+
+    public LoopProfiler(Clock clock) {
+        this.clock = clock;
+        for (int i = 0; i < PHASES.length; i++) {
+            phases[i] = new LatencyHistogram();
+            logColumns[i] = PHASES[i].label + " us";
+        }
+    }
+
+    /** Marks the start of a loop iteration and records the duration of the previous one. */
+    public void startLoop() {
+        long now = clock.nanoTime();
+        if (loopStart >= 0) {
+            lastLoopNanos = now - loopStart;
+            loop.record(lastLoopNanos);
+        }
+        loopStart = now;
+        lastMark = now;
+        // A phase that does not run this loop must not report the previous loop's duration
+        Arrays.fill(lastPhaseNanos, 0);
+    }
+
+    /** Charges the time since the previous mark to {@code phase}. */
+    public void endPhase(Phase phase) {
+        long now = clock.nanoTime();
+        long elapsed = now - lastMark;
+        phases[phase.ordinal()].record(elapsed);
+        lastPhaseNanos[phase.ordinal()] = elapsed;
+        lastMark = now;
+    }
+
+    /** Discards time since the previous mark, e.g. a sleep that should not count towards any phase. */
+    public void skip() {
+        lastMark = clock.nanoTime();
+    }
+
+    public LatencyHistogram getLoopHistogram() {
+        return loop;
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public long getLastLoopNanos() {
+        return lastLoopNanos;
+    }
+
+    /** Duration of {@code phase} in the current loop; 0 if it has not ended since {@link #startLoop()}. */
+    public long getLastPhaseNanos(Phase phase) {
+        return lastPhaseNanos[phase.ordinal()];
+    }
+
+    public void reset() {
+        loop.reset();
+        for (LatencyHistogram histogram : phases) {
+            histogram.reset();
+        }
+        loopStart = -1;
+        lastLoopNanos = 0;
+        Arrays.fill(lastPhaseNanos, 0);
+    }
+
+    /** Appends "p50 / p99 / max" in milliseconds for {@code histogram} to {@code out}. */
+    public static StringBuilder formatSummary(LatencyHistogram histogram, StringBuilder out) {
+        appendMillis(out, histogram.getPercentile(50)).append(" / ");
+        appendMillis(out, histogram.getPercentile(99)).append(" / ");
+        return appendMillis(out, histogram.getMax()).append(" ms");
+    }
+
+    private static StringBuilder appendMillis(StringBuilder out, long nanos) {
+        long hundredths = (nanos + 5_000) / 10_000;
+        out.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    /** Registers one column per phase, the loop time and the summary column with {@code log}. */
+    public void registerLogColumns(Log log) {
+        log.registerColumns(LOOP_COLUMN);
+        log.registerColumns(logColumns);
+        log.registerColumns(SUMMARY_COLUMN);
+    }
+
+    /**
+     * Adds the duration of the last loop and of the phases that have run in this one, in
+     * microseconds, to the current log row. Call it after the loop's last phase has ended; phases
+     * that have not run this loop are logged as 0.
+     */
+    public void addLogData(Log log) {
+        log.addData(LOOP_COLUMN, lastLoopNanos / 1000);
+        for (int i = 0; i < PHASES.length; i++) {
+            log.addData(logColumns[i], lastPhaseNanos[i] / 1000);
+        }
+    }
+
+    /**
+     * Adds p50 / p99 / max in milliseconds of the loop and every phase, over all loops so far, to
+     * the summary column of the current log row.
+     */
+    public void addLogSummary(Log log) {
+        summary.setLength(0);
+        summary.append("Loop ");
+        formatSummary(loop, summary);
+        for (int i = 0; i < PHASES.length; i++) {
+            summary.append("; ").append(PHASES[i].label).append(' ');
+            formatSummary(phases[i], summary);
+        }
+        log.addData(SUMMARY_COLUMN, summary);
+    }
+}
@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.util.concurrent.TimeUnit;
+
+/** Waits for a duration. Paired with a {@link Clock} so timed code can run against a fake clock. */
+public interface Sleeper {
+    /**
+     * Sleeps in whole milliseconds while more than {@code spinThresholdNanos} remain, then yields
+     * until the deadline, trading a little CPU for sub-millisecond wake-up accuracy.
+     */
+    Sleeper SYSTEM = new Sleeper() {
+        private final long spinThresholdNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+        @Override
+        public void sleepNanos(long nanos) throws InterruptedException {
+            long deadline = System.nanoTime() + nanos;
+            long coarse = nanos - spinThresholdNanos;
+            if (coarse > 0) {
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis(coarse));
+            }
+            while (System.nanoTime() < deadline) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                Thread.yield();
+            }
+        }
+    };
+
+    void sleepNanos(long nanos) throws InterruptedException;
+}
@@ -0,0 +1,284 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Driver Station lines kept as raw values in preallocated slots, formatted and sent only when a
+ * transmission is due and something changed.
+ *
+ * The loop sets slot values every cycle: a fixed text, a format with up to three numbers, or a
+ * {@link LatencyHistogram} shown as p50 / p99 / max. Setting a value stores it and compares it with
+ * the previous one; nothing is formatted and nothing allocates. {@link #flush(Output)} does nothing
+ * until the transmit interval has passed, and then nothing either if no line changed since the last
+ * transmission. Otherwise it formats the changed lines only and hands the message to the
+ * {@link Output}.
+ *
+ * Savings are counted against the SDK's behavior of sending the whole message every interval
+ * ({@link #getBytesSaved()}), and against formatting every line every loop
+ * ({@link #getFormatsSkipped()}, {@link #getEstimatedTimeSavedNanos()}).
+ *
+ * Numbers are stored as doubles, so formats must use {@code %f}-style conversions ({@code %.0f}
+ * for counts). Single-threaded: use from the loop thread only.
+ */
+public class TelemetryBuffer {
+    public static final long DEFAULT_INTERVAL_NANOS = 250_000_000L;
+
+    /** Where a message goes: the SDK telemetry, or a test. */
+    public interface Output {
+        /**
+         * Sends one message.
+         *
+         * @param captions      caption of every visible line, in slot order
+         * @param texts         text of every visible line
+         * @param count         number of visible lines
+         * @param layoutChanged whether lines were shown or hidden since the last message
+         * @param changed       which lines changed text since the last message
+         */
+        void send(String[] captions, String[] texts, int count, boolean layoutChanged, boolean[] changed);
+    }
+
+    private static final int TEXT = 0, NUMBERS = 1, HISTOGRAM = 2;
+
+    private final Clock clock;
+    private final List<String> captionList = new ArrayList<>();
+    private long intervalNanos = DEFAULT_INTERVAL_NANOS;
+
+    // Slots, structure-of-arrays; grown only while slots are added
+    private String[] captions = new String[0];
+    private int[] kinds = new int[0];
+    private String[] formats = new String[0];
+    private double[][] numbers = new double[0][];
+    private LatencyHistogram[] histograms = new LatencyHistogram[0];
+    private long[] histogramCounts = new long[0];
+    private boolean[] visible = new boolean[0];
+    private boolean[] shownVisible = new boolean[0];
+    private boolean[] dirty = new boolean[0];
+    private String[] texts = new String[0];
+
+    private final StringBuilder histogramText = new StringBuilder(32);
+    private String[] outCaptions = new String[0];
+    private String[] outTexts = new String[0];
+    private boolean[] outChanged = new boolean[0];
+
+    private long lastTransmitNanos;
+    private boolean transmitted;
+    private long transmitCount;
+    private long unchangedCount;
+    private long notDueCount;
+    private long bytesSent;
+    private long bytesSaved;
+    private long formatCount;
+    private long formatsSkipped;
+    private final LatencyHistogram transmitTime = new LatencyHistogram();
+
+    public TelemetryBuffer(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void setIntervalNanos(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * The slot for {@code caption}, created hidden on first use. Look slots up once at init and
+     * keep the index; lines are shown in the order their slots were created.
+     */
+    public int slot(String caption) {
+        int index = captionList.indexOf(caption);
+        if (index >= 0) {
+            return index;
+        }
+        index = captionList.size();
+        captionList.add(caption);
+        int size = index + 1;
+        captions = Arrays.copyOf(captions, size);
+        captions[index] = caption;
+        kinds = Arrays.copyOf(kinds, size);
+        formats = Arrays.copyOf(formats, size);
+        numbers = Arrays.copyOf(numbers, size);
+        numbers[index] = new double[3];
+        histograms = Arrays.copyOf(histograms, size);
+        histogramCounts = Arrays.copyOf(histogramCounts, size);
+        visible = Arrays.copyOf(visible, size);
+        shownVisible = Arrays.copyOf(shownVisible, size);
+        dirty = Arrays.copyOf(dirty, size);
+        texts = Arrays.copyOf(texts, size);
+        outCaptions = Arrays.copyOf(outCaptions, size);
+        outTexts = Arrays.copyOf(outTexts, size);
+        outChanged = Arrays.copyOf(outChanged, size);
+        return index;
+    }
+
+    /** Shows {@code text} as is. */
+    public void set(int slot, String text) {
+        if (kinds[slot] != TEXT || !text.equals(formats[slot])) {
+            kinds[slot] = TEXT;
+            formats[slot] = text;
+            dirty[slot] = true;
+        }
+        visible[slot] = true;
+    }
+
+    public void set(int slot, String format, double a) {
+        setNumbers(slot, format, a, 0, 0);
+    }
+
+    public void set(int slot, String format, double a, double b) {
+        setNumbers(slot, format, a, b, 0);
+    }
+
+    public void set(int slot, String format, double a, double b, double c) {
+        setNumbers(slot, format, a, b, c);
+    }
+
+    private void setNumbers(int slot, String format, double a, double b, double c) {
+        double[] values = numbers[slot];
+        // Formats are compile-time constants, so identity is enough
+        if (kinds[slot] != NUMBERS || formats[slot] != format
+                || Double.compare(values[0], a) != 0 || Double.compare(values[1], b) != 0
+                || Double.compare(values[2], c) != 0) {
+            kinds[slot] = NUMBERS;
+            formats[slot] = format;
+            values[0] = a;
+            values[1] = b;
+            values[2] = c;
+            dirty[slot] = true;
+        }
+        visible[slot] = true;
+    }
+
+    /** Shows {@code histogram} as p50 / p99 / max; it is read when the line is formatted. */
+    public void set(int slot, LatencyHistogram histogram) {
+        if (kinds[slot] != HISTOGRAM || histograms[slot] != histogram
+                || histogramCounts[slot] != histogram.getCount()) {
+            kinds[slot] = HISTOGRAM;
+            histograms[slot] = histogram;
+            histogramCounts[slot] = histogram.getCount();
+            dirty[slot] = true;
+        }
+        visible[slot] = true;
+    }
+
+    /** Hides the line until it is set again. */
+    public void hide(int slot) {
+        visible[slot] = false;
+    }
+
+    /**
+     * Sends the lines if the interval has passed and any of them changed. Lines whose values
+     * changed are formatted first, so a value change that does not show (a histogram whose
+     * percentiles stayed the same, a number rounding to the same text) does not count.
+     *
+     * @return whether a message was sent
+     */
+    public boolean flush(Output output) {
+        long start = clock.nanoTime();
+        if (transmitted && start - lastTransmitNanos < intervalNanos) {
+            notDueCount++;
+            return false;
+        }
+        lastTransmitNanos = start;
+        boolean layoutChanged = !transmitted;
+        boolean anyChanged = false;
+        int count = 0;
+        long length = 0;
+        for (int i = 0; i < captions.length; i++) {
+            layoutChanged |= visible[i] != shownVisible[i];
+            if (!visible[i]) {
+                continue;
+            }
+            boolean changed = false;
+            if (dirty[i] || texts[i] == null) {
+                String text = format(i);
+                dirty[i] = false;
+                formatCount++;
+                changed = !text.equals(texts[i]);
+                texts[i] = text;
+            } else {
+                formatsSkipped++;
+            }
+            anyChanged |= changed;
+            outCaptions[count] = captions[i];
+            outTexts[count] = texts[i];
+            outChanged[count] = changed;
+            length += captions[i].length() + texts[i].length();
+            count++;
+        }
+        if (!layoutChanged && !anyChanged) {
+            // Nothing new: the SDK would have sent the same message again
+            unchangedCount++;
+            bytesSaved += length;
+            return false;
+        }
+
+        System.arraycopy(visible, 0, shownVisible, 0, visible.length);
+        output.send(outCaptions, outTexts, count, layoutChanged, outChanged);
+        transmitted = true;
+        transmitCount++;
+        bytesSent += length;
+        transmitTime.record(clock.nanoTime() - start);
+        return true;
+    }
+
+    private String format(int slot) {
+        switch (kinds[slot]) {
+            case NUMBERS:
+                double[] values = numbers[slot];
+                return String.format(Locale.US, formats[slot], values[0], values[1], values[2]);
+            case HISTOGRAM:
+                histogramText.setLength(0);
+                return LoopProfiler.formatSummary(histograms[slot], histogramText).toString();
+            default:
+                return formats[slot];
+        }
+    }
+
+    public long getTransmitCount() {
+        return transmitCount;
+    }
+
+    /** Intervals in which nothing changed, so nothing was sent. */
+    public long getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /** Characters of caption and text sent. */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /** Characters the SDK would have resent in intervals where nothing changed. */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /** Lines formatted for transmission. */
+    public long getFormatCount() {
+        return formatCount;
+    }
+
+    /** Lines left as formatted last time because their values did not change. */
+    public long getFormatsSkipped() {
+        return formatsSkipped;
+    }
+
+    /** Loop-thread time of each transmission: formatting the changed lines and handing them on. */
+    public LatencyHistogram getTransmitTime() {
+        return transmitTime;
+    }
+
+    /**
+     * Loop time saved compared to building and sending the message every loop, estimated as one
+     * mean transmission for every flush that sent nothing.
+     */
+    public long getEstimatedTimeSavedNanos() {
+        return (long) ((notDueCount + unchangedCount) * transmitTime.getMean());
+    }
+}
@@ -0,0 +1,229 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+
+/**
+ * Chooses AprilTag decimation and a region of interest frame by frame, from what the previous
+ * frames found.
+ *
+ * Decimation: a tag is found as long as its side is at least about {@link #minDecimatedTagPixels}
+ * pixels after decimation (that is what the decimation table in RobotAutoDriveToAprilTagOmni works
+ * out to: 2" at 10 ft with 1, 6 ft with 2, 4 ft with 3). So the tag's apparent size, which is its
+ * range relative to its physical size, decides how far the image can be decimated. The smallest
+ * (farthest) tag seen decides, so far tags are not lost while approaching a near one. Coarser
+ * decimation is only taken after {@link #stableFramesToCoarsen} consecutive frames allow it; finer
+ * decimation is taken immediately.
+ *
+ * Region of interest: the union of last frame's tag boxes, moved by their motion between the last
+ * two frames and padded, so the next frame only needs to search where the tags can be.
+ *
+ * Every {@link #fullFrameInterval}-th frame is searched in full anyway, so tags coming into view
+ * elsewhere are still picked up. After {@link #framesToReacquire} frames without a tag, both fall
+ * back to full resolution and the full frame so far or new tags can be found again.
+ *
+ * Feed every processed frame: {@link #addDetection} for each tag, then {@link #endFrame}. The
+ * controller does not touch any camera API, so it can be driven from recorded frames offline.
+ * Calls must come from one thread; the statistics getters may be read from any thread.
+ */
+public class AdaptiveDetectionController {
+    public int minDecimation = 1;
+    public int maxDecimation = 4;
+    /** Smallest tag side, in decimated pixels, that still decodes reliably. */
+    public double minDecimatedTagPixels = 9;
+    /** Safety factor on {@link #minDecimatedTagPixels}, for tags shrinking while moving away. */
+    public double decimationMargin = 1.3;
+    public int stableFramesToCoarsen = 5;
+    public int framesToReacquire = 10;
+    /** Padding around the predicted tag box, as a fraction of its size, plus a fixed pixel margin. */
+    public double roiPaddingFraction = 0.5;
+    public int roiPaddingPixels = 16;
+    /** Above this fraction of the frame area, the region of interest is dropped as not worth it. */
+    public double maxRoiAreaFraction = 0.6;
+    public int fullFrameInterval = 15;
+
+    private int frameWidth, frameHeight;
+
+    // Accumulated over the detections of the current frame
+    private int frameDetections;
+    private double smallestTagPixels;
+    private double boxMinX, boxMinY, boxMaxX, boxMaxY;
+
+    // Previous frame's box, for motion prediction
+    private boolean hasPreviousBox;
+    private double previousCenterX, previousCenterY;
+
+    private volatile int decimation;
+    private int coarsenStreak;
+    private int framesWithoutTag;
+
+    private boolean hasRoi;
+    private int framesSinceFullFrame;
+    private int roiX, roiY, roiWidth, roiHeight;
+
+    private final LatencyHistogram processingTime = new LatencyHistogram();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile double framesPerSecond;
+    private long lastFrameEndNanos;
+    private volatile long frameCount;
+    private volatile long framesWithTags;
+
+    public AdaptiveDetectionController(int frameWidth, int frameHeight) {
+        setFrameSize(frameWidth, frameHeight);
+        decimation = minDecimation;
+        resetFrame();
+    }
+
+    public void setFrameSize(int width, int height) {
+        frameWidth = width;
+        frameHeight = height;
+        hasRoi = false;
+    }
+
+    /**
+     * Adds one detected tag of the current frame by its corner bounding box, in full-resolution
+     * pixels.
+     */
+    public void addDetection(double minX, double minY, double maxX, double maxY) {
+        frameDetections++;
+        smallestTagPixels = Math.min(smallestTagPixels, Math.min(maxX - minX, maxY - minY));
+        boxMinX = Math.min(boxMinX, minX);
+        boxMinY = Math.min(boxMinY, minY);
+        boxMaxX = Math.max(boxMaxX, maxX);
+        boxMaxY = Math.max(boxMaxY, maxY);
+    }
+
+    /**
+     * Finishes the current frame and decides decimation and region of interest for the next one.
+     *
+     * @param captureNanos     when the frame was captured
+     * @param processStartNanos when detection started on it
+     * @param processEndNanos  when detection finished
+     */
+    public void endFrame(long captureNanos, long processStartNanos, long processEndNanos) {
+        processingTime.record(processEndNanos - processStartNanos);
+        latency.record(processEndNanos - captureNanos);
+        if (lastFrameEndNanos != 0 && processEndNanos > lastFrameEndNanos) {
+            double instantaneous = 1e9 / (processEndNanos - lastFrameEndNanos);
+            framesPerSecond = framesPerSecond == 0 ? instantaneous : framesPerSecond * 0.9 + instantaneous * 0.1;
+        }
+        lastFrameEndNanos = processEndNanos;
+        frameCount++;
+
+        if (frameDetections > 0) {
+            framesWithTags++;
+            framesWithoutTag = 0;
+            updateDecimation();
+            updateRoi();
+        } else if (++framesWithoutTag >= framesToReacquire) {
+            decimation = minDecimation;
+            coarsenStreak = 0;
+            hasRoi = false;
+            hasPreviousBox = false;
+        }
+        // While a tag is only briefly missing, keep the last decimation and region so it can
+        // reappear where it was.
+        resetFrame();
+        framesSinceFullFrame = hasRoi() ? framesSinceFullFrame + 1 : 0;
+    }
+
+    private void updateDecimation() {
+        int allowed = (int) (smallestTagPixels / (minDecimatedTagPixels * decimationMargin));
+        allowed = Math.max(minDecimation, Math.min(maxDecimation, allowed));
+        if (allowed < decimation) {
+            decimation = allowed;
+            coarsenStreak = 0;
+        } else if (allowed > decimation) {
+            if (++coarsenStreak >= stableFramesToCoarsen) {
+                decimation++;
+                coarsenStreak = 0;
+            }
+        } else {
+            coarsenStreak = 0;
+        }
+    }
+
+    private void updateRoi() {
+        double centerX = (boxMinX + boxMaxX) / 2;
+        double centerY = (boxMinY + boxMaxY) / 2;
+        double moveX = hasPreviousBox ? centerX - previousCenterX : 0;
+        double moveY = hasPreviousBox ? centerY - previousCenterY : 0;
+        previousCenterX = centerX;
+        previousCenterY = centerY;
+        hasPreviousBox = true;
+
+        double width = boxMaxX - boxMinX;
+        double height = boxMaxY - boxMinY;
+        double padX = width * roiPaddingFraction + Math.abs(moveX) + roiPaddingPixels;
+        double padY = height * roiPaddingFraction + Math.abs(moveY) + roiPaddingPixels;
+        int left = (int) Math.max(0, Math.floor(boxMinX + moveX - padX));
+        int top = (int) Math.max(0, Math.floor(boxMinY + moveY - padY));
+        int right = (int) Math.min(frameWidth, Math.ceil(boxMaxX + moveX + padX));
+        int bottom = (int) Math.min(frameHeight, Math.ceil(boxMaxY + moveY + padY));
+        if (right <= left || bottom <= top
+                || (double) (right - left) * (bottom - top) > maxRoiAreaFraction * frameWidth * frameHeight) {
+            hasRoi = false;
+            return;
+        }
+        hasRoi = true;
+        roiX = left;
+        roiY = top;
+        roiWidth = right - left;
+        roiHeight = bottom - top;
+    }
+
+    private void resetFrame() {
+        frameDetections = 0;
+        smallestTagPixels = Double.MAX_VALUE;
+        boxMinX = boxMinY = Double.MAX_VALUE;
+        boxMaxX = boxMaxY = -Double.MAX_VALUE;
+    }
+
+    /** Decimation to use for the next frame. */
+    public int getDecimation() {
+        return decimation;
+    }
+
+    /** Whether the next frame can be restricted to the region of interest. */
+    public boolean hasRoi() {
+        return hasRoi && framesSinceFullFrame < fullFrameInterval - 1;
+    }
+
+    public int getRoiX() {
+        return roiX;
+    }
+
+    public int getRoiY() {
+        return roiY;
+    }
+
+    public int getRoiWidth() {
+        return roiWidth;
+    }
+
+    public int getRoiHeight() {
+        return roiHeight;
+    }
+
+    /** Frames processed per second, smoothed. */
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    /** Time spent detecting per frame. */
+    public LatencyHistogram getProcessingTime() {
+        return processingTime;
+    }
+
+    /** Time from frame capture until its detections were available. */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getFramesWithTags() {
+        return framesWithTags;
+    }
+}
@@ -0,0 +1,111 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Chooses which of several always-streaming cameras gets its frames processed.
+ *
+ * Switching a single portal between webcams ({@code setActiveCamera}) stops one stream and starts
+ * the other, and no frames arrive while the new stream is negotiated. Instead every camera keeps
+ * streaming with its own processors, and a switch only changes which camera's processors run, so
+ * it takes effect on the new camera's next frame. Each camera's processors keep their state (tag
+ * decimation, tracks) while it is inactive.
+ *
+ * The switch latency is the time from {@link #switchTo} to the first frame processed on the new
+ * camera. {@link #switchTo} is called from the OpMode thread; {@link #shouldProcess} from each
+ * camera's thread.
+ */
+public class CameraSwitcher {
+    private final Clock clock;
+    private final int cameraCount;
+    private volatile int active;
+    /** The switch the target camera has not processed a frame for yet, or null. */
+    private final AtomicReference<PendingSwitch> pending = new AtomicReference<>();
+    private final AtomicLongArray processedFrames;
+
+    private final LatencyHistogram switchLatency = new LatencyHistogram();
+    private volatile long switchCount;
+    private volatile long lastSwitchNanos;
+
+    public CameraSwitcher(int cameraCount, Clock clock) {
+        this.clock = clock;
+        this.cameraCount = cameraCount;
+        this.processedFrames = new AtomicLongArray(cameraCount);
+    }
+
+    public int getCameraCount() {
+        return cameraCount;
+    }
+
+    /** Makes {@code camera} the one whose frames are processed, from its next frame on. */
+    public void switchTo(int camera) {
+        if (camera < 0 || camera >= cameraCount) {
+            throw new IllegalArgumentException("No camera " + camera);
+        }
+        if (camera == active) {
+            return;
+        }
+        // Only the target camera completes the switch, so a frame the old camera is still handling
+        // cannot take it for its own
+        pending.set(new PendingSwitch(camera, clock.nanoTime()));
+        active = camera;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Whether {@code camera}'s processors should run on the frame it just delivered. Call once per
+     * frame from the camera's thread.
+     */
+    public boolean shouldProcess(int camera) {
+        if (camera != active) {
+            return false;
+        }
+        PendingSwitch request = pending.get();
+        if (request != null && request.camera == camera && pending.compareAndSet(request, null)) {
+            long latency = clock.nanoTime() - request.sinceNanos;
+            switchLatency.record(latency);
+            lastSwitchNanos = latency;
+            switchCount++;
+        }
+        processedFrames.incrementAndGet(camera);
+        return true;
+    }
+
+    public long getProcessedFrames(int camera) {
+        return processedFrames.get(camera);
+    }
+
+    /** Whether the active camera has not processed a frame since the last switch. */
+    public boolean isSwitching() {
+        return pending.get() != null;
+    }
+
+    public LatencyHistogram getSwitchLatency() {
+        return switchLatency;
+    }
+
+    public long getSwitchCount() {
+        return switchCount;
+    }
+
+    public long getLastSwitchNanos() {
+        return lastSwitchNanos;
+    }
+
+    private static final class PendingSwitch {
+        final int camera;
+        final long sinceNanos;
+
+        PendingSwitch(int camera, long sinceNanos) {
+            this.camera = camera;
+            this.sinceNanos = sinceNanos;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/** Where an AprilTag is mounted on the field. */
+public final class FieldTag {
+    public final int id;
+    /** Tag center on the field, meters, in the same frame as the odometry pose. */
+    public final double x, y;
+    /** Direction the printed face of the tag points, radians counter-clockwise. */
+    public final double facing;
+
+    public FieldTag(int id, double x, double y, double facing) {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.facing = facing;
+    }
+}
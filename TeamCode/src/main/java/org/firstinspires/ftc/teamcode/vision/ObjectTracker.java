@@ -0,0 +1,221 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Follows object detections (TFOD recognitions) across frames.
+ *
+ * Each processed frame's detections are matched to the existing tracks of the same label by
+ * intersection over union, best pairs first. Matched tracks blend the new box and confidence into
+ * their smoothed values; unmatched tracks have their confidence decayed and are dropped after
+ * {@link #maxMisses} frames; unmatched detections start new tracks. A track only becomes visible
+ * once it has been seen in {@link #minHits} frames, so one-frame false positives never reach the
+ * OpMode, and a briefly missed object stays visible instead of flickering.
+ *
+ * After every frame the visible tracks are published as an immutable {@link TrackSnapshot}
+ * through an atomic reference: the camera thread never waits for the OpMode and
+ * {@link #getSnapshot()} never waits for inference.
+ *
+ * {@link #beginFrame}, {@link #addDetection} and {@link #endFrame} must be called from one thread.
+ */
+public class ObjectTracker {
+    public static final int MAX_TRACKS = 16;
+    public static final int MAX_DETECTIONS = 16;
+
+    public double minIou = 0.3;
+    /** Weight of a new detection in the smoothed box and confidence. */
+    public double smoothing = 0.5;
+    /** Confidence multiplier for every processed frame a track is not detected in. */
+    public double missDecay = 0.7;
+    public int minHits = 2;
+    public int maxMisses = 3;
+
+    // Tracks, structure-of-arrays
+    private final int[] trackIds = new int[MAX_TRACKS];
+    private final String[] trackLabels = new String[MAX_TRACKS];
+    private final double[] trackConfidence = new double[MAX_TRACKS];
+    private final double[] trackLeft = new double[MAX_TRACKS], trackTop = new double[MAX_TRACKS];
+    private final double[] trackRight = new double[MAX_TRACKS], trackBottom = new double[MAX_TRACKS];
+    private final double[] trackVelocityX = new double[MAX_TRACKS], trackVelocityY = new double[MAX_TRACKS];
+    private final int[] trackHits = new int[MAX_TRACKS], trackMisses = new int[MAX_TRACKS];
+    private final long[] trackLastSeen = new long[MAX_TRACKS];
+    private final boolean[] trackMatched = new boolean[MAX_TRACKS];
+    private int trackCount;
+    private int nextId = 1;
+
+    // Detections of the current frame
+    private final String[] detectionLabels = new String[MAX_DETECTIONS];
+    private final double[] detectionConfidence = new double[MAX_DETECTIONS];
+    private final double[] detectionLeft = new double[MAX_DETECTIONS], detectionTop = new double[MAX_DETECTIONS];
+    private final double[] detectionRight = new double[MAX_DETECTIONS], detectionBottom = new double[MAX_DETECTIONS];
+    private final boolean[] detectionMatched = new boolean[MAX_DETECTIONS];
+    private int detectionCount;
+    private long frameNanos;
+
+    private final double[] pairIou = new double[MAX_TRACKS * MAX_DETECTIONS];
+
+    private final AtomicReference<TrackSnapshot> snapshot = new AtomicReference<>(TrackSnapshot.EMPTY);
+
+    public void beginFrame(long captureNanos) {
+        frameNanos = captureNanos;
+        detectionCount = 0;
+    }
+
+    /** Adds one detection of the current frame; detections beyond {@link #MAX_DETECTIONS} are ignored. */
+    public void addDetection(String label, double confidence, double left, double top, double right, double bottom) {
+        if (detectionCount == MAX_DETECTIONS) {
+            return;
+        }
+        int i = detectionCount++;
+        detectionLabels[i] = label;
+        detectionConfidence[i] = confidence;
+        detectionLeft[i] = left;
+        detectionTop[i] = top;
+        detectionRight[i] = right;
+        detectionBottom[i] = bottom;
+        detectionMatched[i] = false;
+    }
+
+    /** Associates the frame's detections with the tracks and publishes a new snapshot. */
+    public void endFrame() {
+        for (int t = 0; t < trackCount; t++) {
+            trackMatched[t] = false;
+            for (int d = 0; d < detectionCount; d++) {
+                pairIou[t * MAX_DETECTIONS + d] = trackLabels[t].equals(detectionLabels[d]) ? iou(t, d) : 0;
+            }
+        }
+        // Greedy assignment, best overlap first
+        while (true) {
+            double best = minIou;
+            int bestTrack = -1, bestDetection = -1;
+            for (int t = 0; t < trackCount; t++) {
+                if (trackMatched[t]) {
+                    continue;
+                }
+                for (int d = 0; d < detectionCount; d++) {
+                    double overlap = pairIou[t * MAX_DETECTIONS + d];
+                    if (!detectionMatched[d] && overlap >= best) {
+                        best = overlap;
+                        bestTrack = t;
+                        bestDetection = d;
+                    }
+                }
+            }
+            if (bestTrack < 0) {
+                break;
+            }
+            trackMatched[bestTrack] = true;
+            detectionMatched[bestDetection] = true;
+            update(bestTrack, bestDetection);
+        }
+
+        for (int t = trackCount - 1; t >= 0; t--) {
+            if (!trackMatched[t]) {
+                trackConfidence[t] *= missDecay;
+                if (++trackMisses[t] > maxMisses) {
+                    remove(t);
+                }
+            }
+        }
+        for (int d = 0; d < detectionCount; d++) {
+            if (!detectionMatched[d] && trackCount < MAX_TRACKS) {
+                create(d);
+            }
+        }
+        publish();
+    }
+
+    private double iou(int t, int d) {
+        double width = Math.min(trackRight[t], detectionRight[d]) - Math.max(trackLeft[t], detectionLeft[d]);
+        double height = Math.min(trackBottom[t], detectionBottom[d]) - Math.max(trackTop[t], detectionTop[d]);
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        double intersection = width * height;
+        double trackArea = (trackRight[t] - trackLeft[t]) * (trackBottom[t] - trackTop[t]);
+        double detectionArea = (detectionRight[d] - detectionLeft[d]) * (detectionBottom[d] - detectionTop[d]);
+        return intersection / (trackArea + detectionArea - intersection);
+    }
+
+    private void update(int t, int d) {
+        double a = smoothing;
+        double oldCenterX = (trackLeft[t] + trackRight[t]) / 2;
+        double oldCenterY = (trackTop[t] + trackBottom[t]) / 2;
+        trackLeft[t] += (detectionLeft[d] - trackLeft[t]) * a;
+        trackTop[t] += (detectionTop[d] - trackTop[t]) * a;
+        trackRight[t] += (detectionRight[d] - trackRight[t]) * a;
+        trackBottom[t] += (detectionBottom[d] - trackBottom[t]) * a;
+        trackConfidence[t] += (detectionConfidence[d] - trackConfidence[t]) * a;
+        double dt = (frameNanos - trackLastSeen[t]) / 1e9;
+        if (dt > 0) {
+            double velocityX = ((trackLeft[t] + trackRight[t]) / 2 - oldCenterX) / dt;
+            double velocityY = ((trackTop[t] + trackBottom[t]) / 2 - oldCenterY) / dt;
+            trackVelocityX[t] += (velocityX - trackVelocityX[t]) * a;
+            trackVelocityY[t] += (velocityY - trackVelocityY[t]) * a;
+        }
+        trackHits[t]++;
+        trackMisses[t] = 0;
+        trackLastSeen[t] = frameNanos;
+    }
+
+    private void create(int d) {
+        int t = trackCount++;
+        trackIds[t] = nextId++;
+        trackLabels[t] = detectionLabels[d];
+        trackConfidence[t] = detectionConfidence[d];
+        trackLeft[t] = detectionLeft[d];
+        trackTop[t] = detectionTop[d];
+        trackRight[t] = detectionRight[d];
+        trackBottom[t] = detectionBottom[d];
+        trackVelocityX[t] = 0;
+        trackVelocityY[t] = 0;
+        trackHits[t] = 1;
+        trackMisses[t] = 0;
+        trackLastSeen[t] = frameNanos;
+        trackMatched[t] = true;
+    }
+
+    /** Moves the last track into slot {@code t}. */
+    private void remove(int t) {
+        int last = --trackCount;
+        trackIds[t] = trackIds[last];
+        trackLabels[t] = trackLabels[last];
+        trackConfidence[t] = trackConfidence[last];
+        trackLeft[t] = trackLeft[last];
+        trackTop[t] = trackTop[last];
+        trackRight[t] = trackRight[last];
+        trackBottom[t] = trackBottom[last];
+        trackVelocityX[t] = trackVelocityX[last];
+        trackVelocityY[t] = trackVelocityY[last];
+        trackHits[t] = trackHits[last];
+        trackMisses[t] = trackMisses[last];
+        trackLastSeen[t] = trackLastSeen[last];
+        trackMatched[t] = trackMatched[last];
+        trackLabels[last] = null;
+    }
+
+    private void publish() {
+        int visible = 0;
+        for (int t = 0; t < trackCount; t++) {
+            if (trackHits[t] >= minHits) {
+                visible++;
+            }
+        }
+        TrackedObject[] objects = new TrackedObject[visible];
+        int i = 0;
+        for (int t = 0; t < trackCount; t++) {
+            if (trackHits[t] >= minHits) {
+                objects[i++] = new TrackedObject(trackIds[t], trackLabels[t], trackConfidence[t],
+                        (trackLeft[t] + trackRight[t]) / 2, (trackTop[t] + trackBottom[t]) / 2,
+                        trackRight[t] - trackLeft[t], trackBottom[t] - trackTop[t],
+                        trackVelocityX[t], trackVelocityY[t], trackHits[t], trackMisses[t], trackLastSeen[t]);
+            }
+        }
+        snapshot.set(new TrackSnapshot(frameNanos, objects));
+    }
+
+    /** The tracks after the most recent frame. Never blocks; safe from any thread. */
+    public TrackSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+}
@@ -0,0 +1,47 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/** Field positions of the AprilTags we localize against, indexed by tag id. */
+public class TagLayout {
+    private static final double METERS_PER_INCH = 0.0254;
+
+    private final FieldTag[] tags;
+
+    public TagLayout(FieldTag... tags) {
+        int maxId = -1;
+        for (FieldTag tag : tags) {
+            maxId = Math.max(maxId, tag.id);
+        }
+        this.tags = new FieldTag[maxId + 1];
+        for (FieldTag tag : tags) {
+            this.tags[tag.id] = tag;
+        }
+    }
+
+    /** The tag with {@code id}, or null if it is not part of the layout. */
+    public FieldTag get(int id) {
+        return id >= 0 && id < tags.length ? tags[id] : null;
+    }
+
+    /**
+     * The CENTERSTAGE tags from the SDK's game tag library, in the FTC field frame (origin at the
+     * field center, x towards the backdrops). Backdrop tags face the audience, wall tags face away
+     * from it.
+     */
+    public static TagLayout centerStage() {
+        return new TagLayout(
+                inches(1, 61.75, 41.41, Math.PI),
+                inches(2, 61.75, 35.41, Math.PI),
+                inches(3, 61.75, 29.41, Math.PI),
+                inches(4, 61.75, -29.41, Math.PI),
+                inches(5, 61.75, -35.41, Math.PI),
+                inches(6, 61.75, -41.41, Math.PI),
+                inches(7, -70.25, -40.625, 0),
+                inches(8, -70.25, -35.125, 0),
+                inches(9, -70.25, 35.125, 0),
+                inches(10, -70.25, 40.625, 0));
+    }
+
+    private static FieldTag inches(int id, double x, double y, double facing) {
+        return new FieldTag(id, x * METERS_PER_INCH, y * METERS_PER_INCH, facing);
+    }
+}
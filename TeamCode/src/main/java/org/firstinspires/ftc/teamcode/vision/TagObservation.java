@@ -0,0 +1,22 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/**
+ * One AprilTag detection, relative to the camera. Mutable so the adapter can refill pooled
+ * instances every frame.
+ */
+public final class TagObservation {
+    public int tagId;
+    /** Tag center ahead of the camera and to its left, meters. */
+    public double forward, left;
+    /**
+     * Rotation of the tag about the vertical axis relative to facing the camera squarely, radians;
+     * positive when the camera sits left of the tag's centerline (the SDK's ftcPose yaw).
+     */
+    public double yaw;
+    /** {@link System#nanoTime()} when the camera captured the frame. */
+    public long captureNanos;
+
+    public double range() {
+        return Math.hypot(forward, left);
+    }
+}
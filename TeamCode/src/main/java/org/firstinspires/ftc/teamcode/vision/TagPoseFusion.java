@@ -0,0 +1,167 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import org.firstinspires.ftc.teamcode.control.Angles;
+import org.firstinspires.ftc.teamcode.control.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.control.Pose;
+
+/**
+ * Fuses AprilTag observations into {@link MecanumOdometry}.
+ *
+ * Odometry keeps running at loop rate; each observation is turned into a field pose of the robot
+ * and applied as a correction at the time its frame was captured, so the 50-150 ms the camera
+ * pipeline takes does not drag the estimate backwards (the odometry motion since the capture is
+ * replayed on top of the corrected past pose). Frames without a usable tag simply leave odometry
+ * in charge.
+ *
+ * The weighting is a scalar Kalman update per axis group: the odometry variance grows with the
+ * distance and rotation driven since the last correction, the observation variance grows with tag
+ * range, and the gain is their ratio. Observations whose position disagrees with the estimate by
+ * more than {@link #gateSigmas} standard deviations are rejected as bad detections.
+ */
+public class TagPoseFusion {
+    private final MecanumOdometry odometry;
+    private final TagLayout layout;
+    private final Pose cameraMount;
+
+    // Odometry drift as a random walk: variance added per meter driven and per radian turned
+    // (5 cm after one meter, 10 cm after four; 2 degrees after one turn)
+    public double positionVariancePerMeter = 0.05 * 0.05;
+    public double headingVariancePerRadian = Math.toRadians(2) * Math.toRadians(2) / Angles.TWO_PI;
+    // Observation noise: a constant part plus a part proportional to range
+    public double tagPositionSigma = 0.02;
+    public double tagPositionSigmaPerMeter = 0.03;
+    public double tagHeadingSigma = Math.toRadians(2);
+    public double tagHeadingSigmaPerMeter = Math.toRadians(2);
+    public double gateSigmas = 4;
+
+    private double positionVariance;
+    private double headingVariance;
+    private double lastDistance, lastRotation;
+    private final Pose measured = new Pose();
+    private final Pose estimated = new Pose();
+
+    private int acceptedCount;
+    private int rejectedCount;
+    private int staleCount;
+    private long lastAcceptedNanos;
+
+    /**
+     * @param cameraMount camera position on the robot (meters ahead of and left of the robot
+     *                    center) and the direction it looks relative to the robot's heading
+     * @param initialPositionSigma how well the starting pose set on the odometry is known, meters
+     * @param initialHeadingSigma  how well the starting heading is known, radians
+     */
+    public TagPoseFusion(MecanumOdometry odometry, TagLayout layout, Pose cameraMount,
+                         double initialPositionSigma, double initialHeadingSigma) {
+        this.odometry = odometry;
+        this.layout = layout;
+        this.cameraMount = cameraMount;
+        this.positionVariance = initialPositionSigma * initialPositionSigma;
+        this.headingVariance = initialHeadingSigma * initialHeadingSigma;
+    }
+
+    /**
+     * Computes the robot's field pose implied by seeing {@code tag} as {@code observation}.
+     *
+     * The tag's face points back at the camera rotated by the observed yaw, which gives the
+     * camera's field heading; walking back from the tag along the observed offset gives the
+     * camera's position, and removing the mount offset gives the robot's.
+     */
+    public static void robotPose(TagObservation observation, FieldTag tag, Pose cameraMount, Pose out) {
+        double cameraHeading = tag.facing - Math.PI - observation.yaw;
+        double cos = Math.cos(cameraHeading);
+        double sin = Math.sin(cameraHeading);
+        double cameraX = tag.x - (observation.forward * cos - observation.left * sin);
+        double cameraY = tag.y - (observation.forward * sin + observation.left * cos);
+
+        double robotHeading = cameraHeading - cameraMount.heading;
+        cos = Math.cos(robotHeading);
+        sin = Math.sin(robotHeading);
+        out.set(cameraX - (cameraMount.x * cos - cameraMount.y * sin),
+                cameraY - (cameraMount.x * sin + cameraMount.y * cos),
+                robotHeading);
+    }
+
+    /**
+     * Applies one observation.
+     *
+     * @return true if it corrected the estimate; false if the tag is unknown, the capture time is
+     *         older than the odometry history, or the observation failed the consistency gate
+     */
+    public boolean addObservation(TagObservation observation) {
+        growVariance();
+        FieldTag tag = layout.get(observation.tagId);
+        if (tag == null) {
+            rejectedCount++;
+            return false;
+        }
+        if (!odometry.getPoseAt(observation.captureNanos, estimated)) {
+            staleCount++;
+            return false;
+        }
+        robotPose(observation, tag, cameraMount, measured);
+        // The odometry heading is unwrapped; compare against the nearest equivalent angle
+        measured.heading = Angles.unwrap(measured.heading, estimated.heading);
+
+        double range = observation.range();
+        double positionSigma = tagPositionSigma + tagPositionSigmaPerMeter * range;
+        double headingSigma = tagHeadingSigma + tagHeadingSigmaPerMeter * range;
+        double measuredPositionVariance = positionSigma * positionSigma;
+        double measuredHeadingVariance = headingSigma * headingSigma;
+
+        double error = Math.hypot(measured.x - estimated.x, measured.y - estimated.y);
+        double gate = gateSigmas * Math.sqrt(positionVariance + measuredPositionVariance);
+        if (error > gate) {
+            rejectedCount++;
+            return false;
+        }
+
+        double positionGain = positionVariance / (positionVariance + measuredPositionVariance);
+        double headingGain = headingVariance / (headingVariance + measuredHeadingVariance);
+        odometry.applyCorrection(observation.captureNanos, measured, positionGain, headingGain);
+        positionVariance *= 1 - positionGain;
+        headingVariance *= 1 - headingGain;
+        acceptedCount++;
+        lastAcceptedNanos = observation.captureNanos;
+        return true;
+    }
+
+    private void growVariance() {
+        double distance = odometry.getDistanceTraveled();
+        double rotation = odometry.getRotationTraveled();
+        positionVariance += (distance - lastDistance) * positionVariancePerMeter;
+        headingVariance += (rotation - lastRotation) * headingVariancePerRadian;
+        lastDistance = distance;
+        lastRotation = rotation;
+    }
+
+    /** Current one-sigma position uncertainty, meters. */
+    public double getPositionSigma() {
+        growVariance();
+        return Math.sqrt(positionVariance);
+    }
+
+    public double getHeadingSigma() {
+        growVariance();
+        return Math.sqrt(headingVariance);
+    }
+
+    public int getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    /** Observations of unknown tags or ones that failed the consistency gate. */
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /** Observations captured before the start of the odometry history. */
+    public int getStaleCount() {
+        return staleCount;
+    }
+
+    /** Capture time of the last accepted observation, 0 if none. */
+    public long getLastAcceptedNanos() {
+        return lastAcceptedNanos;
+    }
+}
@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/** The confirmed objects after one processed frame. Immutable, so it can be handed between threads. */
+public final class TrackSnapshot {
+    public static final TrackSnapshot EMPTY = new TrackSnapshot(0, new TrackedObject[0]);
+
+    /** Capture time of the frame this snapshot was made from; 0 before the first frame. */
+    public final long frameNanos;
+    private final TrackedObject[] objects;
+
+    TrackSnapshot(long frameNanos, TrackedObject[] objects) {
+        this.frameNanos = frameNanos;
+        this.objects = objects;
+    }
+
+    public int size() {
+        return objects.length;
+    }
+
+    public TrackedObject get(int i) {
+        return objects[i];
+    }
+
+    /** The most confident object with {@code label}, or null if there is none. */
+    public TrackedObject best(String label) {
+        TrackedObject best = null;
+        for (TrackedObject object : objects) {
+            if (object.label.equals(label) && (best == null || object.confidence > best.confidence)) {
+                best = object;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/** One object followed across frames by {@link ObjectTracker}. Immutable. */
+public final class TrackedObject {
+    /** Stays the same for as long as the object is tracked. */
+    public final int id;
+    public final String label;
+    /** Smoothed confidence; decays while the object is not detected. */
+    public final double confidence;
+    /** Smoothed box center and size, image pixels. */
+    public final double centerX, centerY, width, height;
+    /** Center motion, pixels per second. */
+    public final double velocityX, velocityY;
+    /** Frames the object has been detected in. */
+    public final int hits;
+    /** Consecutive processed frames it has been missing from; 0 if seen in the latest. */
+    public final int misses;
+    /** Capture time of the last frame it was detected in. */
+    public final long lastSeenNanos;
+
+    TrackedObject(int id, String label, double confidence, double centerX, double centerY, double width,
+                  double height, double velocityX, double velocityY, int hits, int misses, long lastSeenNanos) {
+        this.id = id;
+        this.label = label;
+        this.confidence = confidence;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.width = width;
+        this.height = height;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        this.hits = hits;
+        this.misses = misses;
+        this.lastSeenNanos = lastSeenNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s %.0f%% at %.0f/%.0f", id, label, confidence * 100, centerX, centerY);
+    }
+}
@@ -0,0 +1,145 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides, frame by frame, which of the vision processors sharing a camera run.
+ *
+ * All processors on a VisionPortal run one after the other on every frame, so one expensive
+ * processor (TFOD inference) sets the frame rate for all of them. Each processor gets a
+ * {@link Slot} with its own rate (every frame, a fixed rate, or only on demand) and can be switched
+ * on and off from the OpMode at any time; on frames where a slot is not due, its processor is
+ * skipped entirely. Every run's wall time and CPU time are recorded per slot.
+ *
+ * Slots are configured from the OpMode thread and consulted from the camera thread.
+ */
+public class VisionScheduler {
+    private final List<Slot> slots = new ArrayList<>();
+
+    public static final class Slot {
+        public final String name;
+
+        private volatile boolean enabled = true;
+        private volatile long periodNanos;
+        private final AtomicInteger requestedFrames = new AtomicInteger();
+        private long nextDueNanos;
+
+        private final LatencyHistogram wallTime = new LatencyHistogram();
+        private final LatencyHistogram cpuTime = new LatencyHistogram();
+        private volatile long runCount;
+        private volatile long skipCount;
+        private volatile long cpuNanosTotal;
+        private volatile long firstRunNanos, lastRunNanos;
+
+        Slot(String name, double rateHz) {
+            this.name = name;
+            setRate(rateHz);
+        }
+
+        /** Runs at most {@code rateHz} times per second; 0 runs on every frame. */
+        public void setRate(double rateHz) {
+            periodNanos = rateHz > 0 ? (long) (1e9 / rateHz) : 0;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /** Runs on the next {@code frames} frames even if disabled or not due, e.g. for a one-off look. */
+        public void requestFrames(int frames) {
+            requestedFrames.set(frames);
+        }
+
+        /**
+         * Whether the processor should run on the frame captured at {@code frameNanos}. Call once
+         * per frame from the camera thread.
+         */
+        public boolean shouldRun(long frameNanos) {
+            if (requestedFrames.get() > 0) {
+                requestedFrames.decrementAndGet();
+                return true;
+            }
+            if (!enabled) {
+                return false;
+            }
+            long period = periodNanos;
+            if (period == 0) {
+                return true;
+            }
+            if (frameNanos - nextDueNanos < 0) {
+                skipCount++;
+                return false;
+            }
+            // Keep to the average rate across frame jitter, but start afresh after a pause
+            nextDueNanos += period;
+            if (nextDueNanos - frameNanos <= 0) {
+                nextDueNanos = frameNanos + period;
+            }
+            return true;
+        }
+
+        /** Records one run of the processor. */
+        public void recordRun(long endNanos, long wallNanos, long cpuNanos) {
+            wallTime.record(wallNanos);
+            cpuTime.record(cpuNanos);
+            cpuNanosTotal += cpuNanos;
+            if (runCount == 0) {
+                firstRunNanos = endNanos;
+            }
+            lastRunNanos = endNanos;
+            runCount++;
+        }
+
+        public LatencyHistogram getWallTime() {
+            return wallTime;
+        }
+
+        public LatencyHistogram getCpuTime() {
+            return cpuTime;
+        }
+
+        public long getRunCount() {
+            return runCount;
+        }
+
+        /** Frames on which the processor was enabled but not due. */
+        public long getSkipCount() {
+            return skipCount;
+        }
+
+        public long getCpuNanosTotal() {
+            return cpuNanosTotal;
+        }
+
+        /** Average runs per second since the first run. */
+        public double getRunRate() {
+            long runs = runCount;
+            long span = lastRunNanos - firstRunNanos;
+            return runs > 1 && span > 0 ? (runs - 1) * 1e9 / span : 0;
+        }
+    }
+
+    /**
+     * Adds a slot for one processor.
+     *
+     * @param rateHz maximum runs per second, or 0 to run on every frame
+     */
+    public synchronized Slot add(String name, double rateHz) {
+        Slot slot = new Slot(name, rateHz);
+        slots.add(slot);
+        return slot;
+    }
+
+    public synchronized List<Slot> getSlots() {
+        return Collections.unmodifiableList(new ArrayList<>(slots));
+    }
+}
@@ -0,0 +1,162 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.firstinspires.ftc.teamcode.sim.SimSensor;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SensorPollerTest {
+    private static final long MS = 1_000_000L;
+
+    private final SimClock clock = new SimClock();
+    private final SensorPoller poller = new SensorPoller(clock);
+
+    /** Does what the poller thread does, on the simulated clock, until {@code endNanos}. */
+    private void runUntil(long endNanos) {
+        while (clock.nanoTime() < endNanos) {
+            long wait = poller.pollDue();
+            clock.advance(Math.max(wait, 1));
+        }
+    }
+
+    @Test
+    public void eachSensorIsReadAtItsOwnRate() {
+        clock.set(5_000 * MS);
+        SimSensor imu = new SimSensor(clock, 2 * MS, 1);
+        SimSensor distance = new SimSensor(clock, 3 * MS, 1);
+        SensorPoller.Slot imuSlot = poller.add("imu", imu, 1, 100);
+        SensorPoller.Slot distanceSlot = poller.add("distance", distance, 1, 10);
+
+        runUntil(clock.nanoTime() + 1_000 * MS);
+
+        assertEquals(100, imuSlot.getReadCount(), 1);
+        assertEquals(10, distanceSlot.getReadCount(), 1);
+        assertEquals(imu.getReadCount(), imuSlot.getReadCount());
+        assertEquals(distance.getReadCount(), distanceSlot.getReadCount());
+        assertEquals(0, imuSlot.getErrorCount());
+        assertEquals(2 * MS, imuSlot.getReadTime().getMax(), 2 * MS * 0.04);
+    }
+
+    @Test
+    public void pollDueReportsTimeUntilTheNextRead() {
+        SimSensor sensor = new SimSensor(clock, 2 * MS, 1);
+        poller.add("sensor", sensor, 1, 50);
+
+        assertEquals(18 * MS, poller.pollDue()); // read from 0 to 2 ms, next due at 20 ms
+        clock.advance(5 * MS);
+        assertEquals(13 * MS, poller.pollDue());
+        assertEquals(1, sensor.getReadCount());
+    }
+
+    @Test
+    public void zeroRateReadsOnEveryRound() {
+        SensorPoller.Slot slot = poller.add("fast", new SimSensor(clock, MS, 1), 1, 0);
+        for (int i = 0; i < 25; i++) {
+            assertEquals(0, poller.pollDue());
+        }
+        assertEquals(25, slot.getReadCount());
+    }
+
+    @Test
+    public void valuesAreStampedWithTheMiddleOfTheRead() {
+        clock.set(100 * MS);
+        SimSensor sensor = new SimSensor(clock, 4 * MS, 2);
+        SensorPoller.Slot slot = poller.add("color", sensor, 2, 10);
+        assertFalse(slot.hasValue());
+        assertEquals(0, slot.read(new double[2]));
+
+        sensor.set(0, 1.5);
+        sensor.set(1, -2.5);
+        poller.pollDue();
+
+        double[] out = new double[2];
+        assertEquals(102 * MS, slot.read(out));
+        assertTrue(slot.hasValue());
+        assertEquals(1.5, out[0], 0);
+        assertEquals(-2.5, out[1], 0);
+        assertEquals(-2.5, slot.get(1), 0);
+    }
+
+    @Test
+    public void failingSensorKeepsItsLastValuesAndCountsErrors() {
+        SimSensor sensor = new SimSensor(clock, MS, 1);
+        SensorPoller.Slot slot = poller.add("husky", sensor, 1, 100);
+        sensor.set(0, 7);
+        runUntil(10 * MS);
+        long lastGood = slot.getTimestampNanos();
+        assertNull(slot.getLastError());
+
+        sensor.set(0, 8);
+        sensor.failNextReads(3);
+        runUntil(40 * MS);
+        assertEquals(3, slot.getErrorCount());
+        assertTrue(slot.getLastError() instanceof IllegalStateException);
+        assertEquals(1, slot.getReadCount());
+        assertEquals(lastGood, slot.getTimestampNanos());
+        assertEquals(7, slot.get(0), 0);
+
+        // Failed reads keep to the schedule, and the sensor is back once it answers again
+        runUntil(50 * MS);
+        assertEquals(2, slot.getReadCount());
+        assertEquals(8, slot.get(0), 0);
+        assertEquals(5, sensor.getReadCount());
+    }
+
+    @Test
+    public void disabledSensorIsNotRead() {
+        SimSensor sensor = new SimSensor(clock, MS, 1);
+        SensorPoller.Slot slot = poller.add("distance", sensor, 1, 100);
+        slot.setEnabled(false);
+        runUntil(100 * MS);
+        assertEquals(0, sensor.getReadCount());
+
+        slot.setEnabled(true);
+        runUntil(200 * MS);
+        assertEquals(10, slot.getReadCount(), 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addingAfterStartIsRejected() {
+        SensorPoller running = new SensorPoller(Clock.SYSTEM);
+        running.start();
+        try {
+            running.add("late", new SimSensor(null, 0, 1), 1, 10);
+        } finally {
+            running.close();
+        }
+    }
+
+    @Test
+    public void readNeverSeesAHalfWrittenSet() {
+        // Every read fills all values with the same number, so a mix means a torn read
+        final long[] counter = new long[1];
+        SensorPoller threaded = new SensorPoller(Clock.SYSTEM);
+        SensorPoller.Slot slot = threaded.add("imu", out -> Arrays.fill(out, ++counter[0]), 8, 0);
+        threaded.start();
+        try {
+            double[] out = new double[8];
+            long previous = 0;
+            for (int i = 0; i < 200_000; i++) {
+                long timestamp = slot.read(out);
+                for (int v = 1; v < out.length; v++) {
+                    if (out[v] != out[0]) {
+                        fail("Torn read: " + Arrays.toString(out));
+                    }
+                }
+                assertTrue(timestamp >= previous);
+                previous = timestamp;
+            }
+            assertTrue(slot.getReadCount() > 0);
+        } finally {
+            threaded.close();
+        }
+    }
+}
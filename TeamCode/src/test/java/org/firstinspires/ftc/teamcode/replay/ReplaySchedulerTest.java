@@ -0,0 +1,155 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReplaySchedulerTest {
+    private static final long MS = 1_000_000L;
+    /** Recorded timestamps start far from 0, like System.nanoTime() values do. */
+    private static final long RECORDED_START = 123_456 * MS;
+    private static final long CLOCK_START = 7_000 * MS;
+
+    private final SimClock clock = new SimClock();
+    private final RecordingSink sink = new RecordingSink();
+    private SampleBuffer source;
+
+    /** Five samples, 20 ms apart; channel 0 counts up from 0, channel 1 down from 0. */
+    @Before
+    public void setUp() {
+        source = new SampleBuffer(2, 8);
+        for (int i = 0; i < 5; i++) {
+            source.add(RECORDED_START + i * 20 * MS, new float[] {i, -i});
+        }
+        clock.set(CLOCK_START);
+    }
+
+    @Test
+    public void stepBeforeStartDoesNothing() {
+        ReplayScheduler scheduler = new ReplayScheduler(source, sink, clock, ReplayScheduler.Mode.SKIP);
+        assertFalse(scheduler.step());
+        assertEquals(0, sink.applied.size());
+    }
+
+    @Test
+    public void firstSampleIsDueAtStart() {
+        ReplayScheduler scheduler = new ReplayScheduler(source, sink, clock, ReplayScheduler.Mode.SKIP);
+        scheduler.start();
+        assertEquals(0, scheduler.nanosUntilNextSample());
+        assertTrue(scheduler.step());
+
+        assertEquals(1, sink.applied.size());
+        assertArrayEquals(new float[] {0, 0}, sink.applied.get(0), 0);
+        assertEquals(0, scheduler.getCursor());
+        assertEquals(20 * MS, scheduler.nanosUntilNextSample());
+        assertEquals(0, scheduler.getMaxLatenessNanos());
+    }
+
+    @Test
+    public void skipModeAppliesNewestDueSampleAndCountsOvertakenOnes() {
+        ReplayScheduler scheduler = new ReplayScheduler(source, sink, clock, ReplayScheduler.Mode.SKIP);
+        scheduler.start();
+
+        clock.advance(2 * MS);
+        assertTrue(scheduler.step()); // sample 0, 2 ms late
+        clock.advance(10 * MS);
+        assertTrue(scheduler.step()); // nothing new is due at 12 ms
+        assertEquals(1, sink.applied.size());
+
+        clock.set(CLOCK_START + 65 * MS);
+        assertTrue(scheduler.step()); // samples 1 and 2 overtaken by sample 3, 5 ms late
+        assertEquals(2, sink.applied.size());
+        assertArrayEquals(new float[] {3, -3}, sink.applied.get(1), 0);
+        assertEquals(3, scheduler.getCursor());
+        assertEquals(2, scheduler.getSkippedCount());
+
+        clock.set(CLOCK_START + 80 * MS);
+        assertFalse(scheduler.step()); // last sample, on time
+        assertTrue(scheduler.isFinished());
+        assertArrayEquals(new float[] {4, -4}, sink.applied.get(2), 0);
+
+        assertEquals(3, scheduler.getAppliedCount());
+        assertEquals(2, scheduler.getSkippedCount());
+        assertEquals(5 * MS, scheduler.getMaxLatenessNanos());
+        assertEquals((2 + 5 + 0) * MS / 3.0, scheduler.getMeanLatenessNanos(), 1e-6);
+
+        clock.advance(100 * MS);
+        assertFalse(scheduler.step());
+        assertEquals(3, sink.applied.size());
+    }
+
+    @Test
+    public void interpolateModeBlendsBetweenSurroundingSamples() {
+        ReplayScheduler scheduler = new ReplayScheduler(source, sink, clock, ReplayScheduler.Mode.INTERPOLATE);
+        scheduler.start();
+
+        clock.advance(25 * MS);
+        assertTrue(scheduler.step()); // a quarter of the way from sample 1 to sample 2
+        assertArrayEquals(new float[] {1.25f, -1.25f}, sink.applied.get(0), 1e-6f);
+        assertEquals(1, scheduler.getSkippedCount()); // sample 0 was never applied on its own
+
+        clock.advance(10 * MS);
+        assertTrue(scheduler.step()); // same interval: output still changes, no new sample applied
+        assertArrayEquals(new float[] {1.75f, -1.75f}, sink.applied.get(1), 1e-6f);
+        assertEquals(1, scheduler.getAppliedCount());
+
+        clock.set(CLOCK_START + 90 * MS);
+        assertFalse(scheduler.step()); // past the end: the last sample as recorded
+        assertArrayEquals(new float[] {4, -4}, sink.applied.get(2), 0);
+
+        assertEquals(2, scheduler.getAppliedCount());
+        assertEquals(3, scheduler.getSkippedCount());
+        assertEquals(10 * MS, scheduler.getMaxLatenessNanos());
+        assertEquals((5 + 10) * MS / 2.0, scheduler.getMeanLatenessNanos(), 1e-6);
+    }
+
+    @Test
+    public void startRebasesAndResetsStatistics() {
+        ReplayScheduler scheduler = new ReplayScheduler(source, sink, clock, ReplayScheduler.Mode.SKIP);
+        scheduler.start();
+        clock.advance(100 * MS);
+        assertFalse(scheduler.step());
+        assertEquals(20 * MS, scheduler.getMaxLatenessNanos()); // the last sample, 20 ms late
+
+        clock.set(CLOCK_START + 10_000 * MS);
+        scheduler.start();
+        assertFalse(scheduler.isFinished());
+        assertEquals(0, scheduler.getAppliedCount());
+        assertEquals(0, scheduler.getSkippedCount());
+        assertEquals(0, scheduler.getMaxLatenessNanos());
+        assertEquals(-1, scheduler.getCursor());
+
+        clock.advance(41 * MS);
+        assertTrue(scheduler.step());
+        assertEquals(2, scheduler.getCursor());
+        assertEquals(MS, scheduler.getMaxLatenessNanos());
+    }
+
+    @Test
+    public void emptyRecordingFinishesImmediately() {
+        ReplayScheduler scheduler = new ReplayScheduler(new SampleBuffer(2, 1), sink, clock,
+                ReplayScheduler.Mode.INTERPOLATE);
+        scheduler.start();
+        assertTrue(scheduler.isFinished());
+        assertFalse(scheduler.step());
+        assertEquals(0, sink.applied.size());
+    }
+
+    /** Fake actuators: keeps a copy of every output it is given. */
+    private static final class RecordingSink implements ReplaySink {
+        final List<float[]> applied = new ArrayList<>();
+
+        @Override
+        public void apply(float[] values) {
+            applied.add(values.clone());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FixedRateLoopTest {
+    private static final long MS = 1_000_000L;
+
+    private final SimClock clock = new SimClock();
+    private final FakeSleeper sleeper = new FakeSleeper(clock);
+
+    /** 100 Hz: a 10 ms period. */
+    private FixedRateLoop createLoop(FixedRateLoop.CatchUpPolicy policy, int maxBurst) {
+        clock.set(1_000 * MS);
+        FixedRateLoop loop = new FixedRateLoop(clock, sleeper, 100, policy, maxBurst);
+        loop.start();
+        return loop;
+    }
+
+    /** Waits for the next tick and returns when it started, relative to the start of the loop. */
+    private long tick(FixedRateLoop loop) {
+        assertTrue(loop.awaitNextTick());
+        return clock.nanoTime() - 1_000 * MS;
+    }
+
+    @Test
+    public void ticksStayOnTheGridDespiteOversleeping() {
+        FixedRateLoop loop = createLoop(FixedRateLoop.CatchUpPolicy.SKIP, 3);
+        sleeper.oversleepNanos = MS / 2;
+
+        assertEquals(0, tick(loop));
+        for (int i = 1; i <= 100; i++) {
+            clock.advance(3 * MS);
+            // Each wake-up is half a millisecond late, but the next deadline is still on the grid
+            assertEquals(i * 10 * MS + MS / 2, tick(loop));
+        }
+
+        assertEquals(10 * MS, loop.getPeriodNanos());
+        assertEquals(101, loop.getTickCount());
+        assertEquals(0, loop.getOverrunCount());
+        assertEquals(0, loop.getSkippedTicks());
+        assertEquals(101, loop.getJitter().getCount());
+        assertEquals(MS / 2, loop.getJitter().getMax(), MS / 2 * 0.04);
+        assertEquals(10 * MS - MS / 2, loop.getRemainingNanos());
+    }
+
+    @Test
+    public void skipDropsMissedTicks() {
+        FixedRateLoop loop = createLoop(FixedRateLoop.CatchUpPolicy.SKIP, 3);
+
+        assertEquals(0, tick(loop));
+        clock.advance(35 * MS); // overruns the ticks due at 10, 20 and 30 ms
+        assertEquals(35 * MS, tick(loop)); // the 10 ms tick, 25 ms late; 20 and 30 ms are dropped
+        assertEquals(1, loop.getOverrunCount());
+        assertEquals(2, loop.getSkippedTicks());
+
+        assertEquals(40 * MS, tick(loop));
+        assertEquals(50 * MS, tick(loop));
+        assertEquals(4, loop.getTickCount());
+        assertEquals(1, loop.getOverrunCount());
+        assertEquals(2, loop.getSkippedTicks());
+        assertEquals(25 * MS, loop.getJitter().getMax(), 25 * MS * 0.04);
+    }
+
+    @Test
+    public void burstRunsMissedTicksBackToBack() {
+        FixedRateLoop loop = createLoop(FixedRateLoop.CatchUpPolicy.BURST, 3);
+
+        assertEquals(0, tick(loop));
+        clock.advance(35 * MS);
+        // The ticks due at 10, 20 and 30 ms all run at once, without sleeping
+        int sleeps = sleeper.sleepCount;
+        assertEquals(35 * MS, tick(loop));
+        assertEquals(35 * MS, tick(loop));
+        assertEquals(35 * MS, tick(loop));
+        assertEquals(sleeps, sleeper.sleepCount);
+        assertEquals(3, loop.getOverrunCount());
+        assertEquals(0, loop.getSkippedTicks());
+
+        assertEquals(40 * MS, tick(loop)); // back on the grid
+        assertEquals(5, loop.getTickCount());
+        assertEquals(0, loop.getSkippedTicks());
+    }
+
+    @Test
+    public void burstSkipsWhatIsLeftAfterTheLimit() {
+        FixedRateLoop loop = createLoop(FixedRateLoop.CatchUpPolicy.BURST, 2);
+
+        assertEquals(0, tick(loop));
+        clock.advance(100 * MS); // nine ticks missed
+        assertEquals(100 * MS, tick(loop)); // due at 10 ms
+        assertEquals(100 * MS, tick(loop)); // due at 20 ms, first of the burst
+        assertEquals(100 * MS, tick(loop)); // due at 30 ms, burst limit reached: 40 to 100 ms dropped
+        assertEquals(3, loop.getOverrunCount());
+        assertEquals(7, loop.getSkippedTicks());
+
+        assertEquals(110 * MS, tick(loop));
+        assertEquals(5, loop.getTickCount());
+        assertEquals(5, loop.getJitter().getCount());
+        assertEquals(90 * MS, loop.getJitter().getMax(), 90 * MS * 0.04);
+    }
+
+    @Test
+    public void startResetsTheGridAndCounters() {
+        FixedRateLoop loop = createLoop(FixedRateLoop.CatchUpPolicy.SKIP, 3);
+        tick(loop);
+        clock.advance(55 * MS);
+        tick(loop);
+        assertEquals(1, loop.getOverrunCount());
+
+        clock.advance(3 * MS);
+        loop.start();
+        assertEquals(0, loop.getTickCount());
+        assertEquals(0, loop.getOverrunCount());
+        assertEquals(0, loop.getSkippedTicks());
+        assertEquals(0, loop.getJitter().getCount());
+        long startedAt = clock.nanoTime();
+        assertTrue(loop.awaitNextTick());
+        assertEquals(startedAt, clock.nanoTime());
+        assertEquals(0, loop.getJitter().getMax());
+    }
+
+    @Test
+    public void interruptedWaitReturnsFalseAndKeepsTheFlag() {
+        FixedRateLoop loop = createLoop(FixedRateLoop.CatchUpPolicy.SKIP, 3);
+        tick(loop);
+        sleeper.interrupt = true;
+        try {
+            assertFalse(loop.awaitNextTick());
+            assertTrue(Thread.currentThread().isInterrupted());
+            assertEquals(1, loop.getTickCount());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    /** Sleeps by advancing the clock, optionally waking up late or being interrupted. */
+    private static final class FakeSleeper implements Sleeper {
+        private final SimClock clock;
+        long oversleepNanos;
+        boolean interrupt;
+        int sleepCount;
+
+        FakeSleeper(SimClock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public void sleepNanos(long nanos) throws InterruptedException {
+            sleepCount++;
+            if (interrupt) {
+                throw new InterruptedException();
+            }
+            clock.advance(nanos + oversleepNanos);
+        }
+    }
+}